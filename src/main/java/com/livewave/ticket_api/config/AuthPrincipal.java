@@ -0,0 +1,18 @@
+package com.livewave.ticket_api.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Authenticated user as seen by controllers (@AuthenticationPrincipal).
+ * Built by AuthPrincipalCache from verified token claims plus the users row,
+ * which is read at most once per TTL per user.
+ */
+public record AuthPrincipal(Long userId, String email, String role) {
+
+    public List<GrantedAuthority> authorities() {
+        return (role == null) ? List.of() : List.of(new SimpleGrantedAuthority(role));
+    }
+}
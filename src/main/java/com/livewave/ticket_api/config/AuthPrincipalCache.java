@@ -0,0 +1,100 @@
+package com.livewave.ticket_api.config;
+
+import com.livewave.ticket_api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Turns verified claims into an AuthPrincipal.
+ * The principal (id, email, current role) is read from the users table at most once per TTL per user
+ * and reused for every token of that user meanwhile, so a changed role or a deleted account
+ * takes effect within the TTL on every instance, also after a restart.
+ * invalidate(email) makes it take effect on this instance right away.
+ */
+@Component
+public class AuthPrincipalCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${auth.principal-cache.ttl-ms:60000}")
+    private long ttlMs = 60000;
+
+    // evicting an entry only costs a re-read
+    @Value("${auth.principal-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    // principal == null: no such user
+    private record Cached(AuthPrincipal principal, long loadedAt) {}
+
+    // guards principals and invalidations
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // email -> principal read from the DB
+    private final Map<String, Cached> principals = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    // bumped by invalidate; a read that overlaps one is not cached
+    private long invalidations;
+
+    public AuthPrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Principal for the claims, or null if the user no longer exists.
+     */
+    public AuthPrincipal resolve(JwtClaims claims) {
+        long now = System.currentTimeMillis();
+        long generation;
+
+        lock.lock();
+        try {
+            Cached cached = principals.get(claims.subject());
+            if (cached != null && now - cached.loadedAt() < ttlMs) {
+                return cached.principal();
+            }
+            generation = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        AuthPrincipal principal = load(claims.subject());
+
+        lock.lock();
+        try {
+            if (generation == invalidations) {
+                principals.put(claims.subject(), new Cached(principal, now));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return principal;
+    }
+
+    /**
+     * Reads the principal from the users table, bypassing the cache.
+     */
+    public AuthPrincipal load(String email) {
+        return userRepository.findByEmail(email)
+                .map(user -> new AuthPrincipal(user.getId(), user.getEmail(), user.getRole()))
+                .orElse(null);
+    }
+
+    public void invalidate(String email) {
+        lock.lock();
+        try {
+            principals.remove(email);
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.livewave.ticket_api.config;
+
+import com.livewave.ticket_api.service.SeatTopicMonitor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Hands the STOMP handler a BoundedOutboundSession instead of the raw session,
+ * so every frame written to a client goes through its bounded buffer.
+ */
+public class BoundedOutboundHandlerDecorator extends WebSocketHandlerDecorator {
+
+    private final Executor sender;
+    private final SeatTopicMonitor monitor;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMs;
+
+    private final ConcurrentMap<String, BoundedOutboundSession> sessions = new ConcurrentHashMap<>();
+
+    public BoundedOutboundHandlerDecorator(WebSocketHandler delegate, Executor sender, SeatTopicMonitor monitor,
+                                           int bufferSizeLimit, long sendTimeLimitMs) {
+        super(delegate);
+        this.sender = sender;
+        this.monitor = monitor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        BoundedOutboundSession bounded =
+                new BoundedOutboundSession(session, sender, monitor, bufferSizeLimit, sendTimeLimitMs);
+        sessions.put(session.getId(), bounded);
+        super.afterConnectionEstablished(bounded);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(bounded(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(bounded(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        BoundedOutboundSession bounded = sessions.remove(session.getId());
+        if (bounded != null) {
+            bounded.clear();
+        }
+        super.afterConnectionClosed(bounded != null ? bounded : session, closeStatus);
+    }
+
+    private WebSocketSession bounded(WebSocketSession session) {
+        WebSocketSession bounded = sessions.get(session.getId());
+        return bounded != null ? bounded : session;
+    }
+}
@@ -0,0 +1,187 @@
+package com.livewave.ticket_api.config;
+
+import com.livewave.ticket_api.service.SeatTopicMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+
+/**
+ * Outbound buffer of one WebSocket session.
+ * sendMessage only queues the frame; a sender task writes the queue to the socket, so the broker's
+ * outbound threads never wait for a slow client.
+ * When the buffer goes over its byte limit, queued seat-update frames are dropped, oldest first:
+ * the client sees the jump in seq on the next frame and catches up with one replay request.
+ * A session that is still over the limit, or whose current write is stuck past the send-time limit,
+ * is closed.
+ */
+public class BoundedOutboundSession extends WebSocketSessionDecorator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedOutboundSession.class);
+
+    private static final String SEAT_DESTINATION_HEADER = "\ndestination:" + SeatTopicMonitor.SEAT_TOPIC_PREFIX;
+
+    private record Outbound(WebSocketMessage<?> message, Long eventId, int size) {}
+
+    private final Executor sender;
+    private final SeatTopicMonitor monitor;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMs;
+
+    // guarded by itself
+    private final Deque<Outbound> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private boolean sending;
+    private boolean closed;
+
+    private volatile long sendStartedAt;
+
+    public BoundedOutboundSession(WebSocketSession delegate, Executor sender, SeatTopicMonitor monitor,
+                                  int bufferSizeLimit, long sendTimeLimitMs) {
+        super(delegate);
+        this.sender = sender;
+        this.monitor = monitor;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        Outbound outbound = new Outbound(message, seatEventId(message), message.getPayloadLength());
+
+        boolean startSender;
+        boolean overLimit;
+        int buffered;
+
+        synchronized (queue) {
+            if (closed) return;
+
+            queue.addLast(outbound);
+            queuedBytes += outbound.size();
+            if (outbound.eventId() != null) monitor.queued(outbound.eventId());
+
+            if (queuedBytes > bufferSizeLimit) {
+                dropStaleSeatUpdates();
+            }
+
+            buffered = queuedBytes;
+            overLimit = buffered > bufferSizeLimit || isSendStuck();
+            startSender = !sending && !overLimit;
+            if (startSender) sending = true;
+        }
+
+        if (overLimit) {
+            logger.warn("WebSocket session {} is too slow ({} bytes buffered), closing", getId(), buffered);
+            sender.execute(() -> closeQuietly(CloseStatus.SESSION_NOT_RELIABLE));
+        } else if (startSender) {
+            sender.execute(this::drain);
+        }
+    }
+
+    /**
+     * Forgets everything still buffered; called once the connection is closed.
+     */
+    public void clear() {
+        synchronized (queue) {
+            closed = true;
+            for (Outbound outbound : queue) {
+                if (outbound.eventId() != null) monitor.dequeued(outbound.eventId());
+            }
+            queue.clear();
+            queuedBytes = 0;
+        }
+    }
+
+    public int getBufferSize() {
+        synchronized (queue) {
+            return queuedBytes;
+        }
+    }
+
+    // keeps the newest frame so the client still gets a seq to detect the gap with
+    private void dropStaleSeatUpdates() {
+        Iterator<Outbound> it = queue.iterator();
+        while (it.hasNext() && queuedBytes > bufferSizeLimit) {
+            Outbound outbound = it.next();
+            if (outbound.eventId() == null || outbound == queue.peekLast()) continue;
+
+            it.remove();
+            queuedBytes -= outbound.size();
+            monitor.dropped(outbound.eventId());
+        }
+    }
+
+    private boolean isSendStuck() {
+        long started = sendStartedAt;
+        return started > 0 && System.currentTimeMillis() - started > sendTimeLimitMs;
+    }
+
+    private void drain() {
+        while (true) {
+            Outbound next;
+            synchronized (queue) {
+                next = queue.pollFirst();
+                if (next == null || closed) {
+                    sending = false;
+                    return;
+                }
+                queuedBytes -= next.size();
+                if (next.eventId() != null) monitor.dequeued(next.eventId());
+            }
+
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(next.message());
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Failed to send to WebSocket session {}: {}", getId(), e.getMessage());
+                synchronized (queue) {
+                    sending = false;
+                }
+                clear();
+                return;
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+
+    private void closeQuietly(CloseStatus status) {
+        clear();
+        try {
+            getDelegate().close(status);
+        } catch (IOException e) {
+            logger.debug("Failed to close WebSocket session {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Event id of a STOMP MESSAGE frame on /topic/seats/{eventId}, or null for any other frame.
+     * Only the header block is scanned.
+     */
+    static Long seatEventId(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) return null;
+
+        String frame = text.getPayload();
+        if (!frame.startsWith("MESSAGE\n")) return null;
+
+        int headersEnd = frame.indexOf("\n\n");
+        if (headersEnd < 0) return null;
+
+        int start = frame.lastIndexOf(SEAT_DESTINATION_HEADER, headersEnd);
+        if (start < 0) return null;
+
+        start += SEAT_DESTINATION_HEADER.length();
+        int end = frame.indexOf('\n', start);
+        return SeatTopicMonitor.eventIdOf(
+                SeatTopicMonitor.SEAT_TOPIC_PREFIX + frame.substring(start, end));
+    }
+}
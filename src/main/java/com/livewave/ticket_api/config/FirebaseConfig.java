@@ -4,11 +4,14 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 
 import java.io.InputStream;
 
+// not needed when pushes go to the in-process fake transport
 @Configuration
+@ConditionalOnProperty(name = "notifications.push.transport", havingValue = "fcm", matchIfMissing = true)
 public class FirebaseConfig {
 
     @PostConstruct
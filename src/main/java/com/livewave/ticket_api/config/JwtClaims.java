@@ -0,0 +1,14 @@
+package com.livewave.ticket_api.config;
+
+import java.time.Instant;
+
+/**
+ * Verified content of a bearer token. JwtFilter stores it on the request
+ * (JwtFilter.CLAIMS_ATTRIBUTE) so controllers do not parse the token again.
+ */
+public record JwtClaims(Long userId, String subject, String role, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -4,11 +4,9 @@ import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
@@ -18,13 +16,20 @@ import java.io.IOException;
 @Component
 public class JwtFilter implements Filter {
 
+    // verified JwtClaims of the bearer token, for controllers
+    public static final String CLAIMS_ATTRIBUTE = "jwtClaims";
+
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AuthPrincipalCache principalCache;
+
+    // true: principal cached for a short TTL (see AuthPrincipalCache); false: read from the users table on every request
+    @Value("${auth.stateless:true}")
+    private boolean stateless = true;
 
     @Autowired
-    public JwtFilter(JwtUtil jwtUtil, @Lazy UserDetailsService userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, AuthPrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -35,29 +40,31 @@ public class JwtFilter implements Filter {
         HttpServletResponse httpRes = (HttpServletResponse) response;
         String authHeader = httpReq.getHeader("Authorization");
 
-        String email = null;
-        String token = null;
+        JwtClaims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(token);
+                claims = jwtUtil.verify(authHeader.substring(7));
             } catch (Exception e) {
                 httpRes.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
                 return;
             }
+            httpReq.setAttribute(CLAIMS_ATTRIBUTE, claims);
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (claims != null && claims.subject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthPrincipal principal = stateless
+                    ? principalCache.resolve(claims)
+                    : principalCache.load(claims.subject());
 
-            if (jwtUtil.validateToken(token, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(httpReq));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                httpReq.setAttribute("email", email);
+                httpReq.setAttribute("email", principal.email());
             }
         }
 
@@ -2,57 +2,115 @@ package com.livewave.ticket_api.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Issues and verifies HS256 tokens. The key and the parser are built once;
+ * a token is parsed and its signature checked once, and recently verified tokens
+ * are remembered so repeat requests with the same bearer skip the HMAC.
+ */
 @Component
 public class JwtUtil {
     private static final String SECRET_KEY = "supersecretkeyforsigningjwtlivewave2025";
-    private static final long EXPIRATION_TIME = 86400000;
+    static final long EXPIRATION_TIME = 86400000;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-    }
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+
+    // immutable and thread-safe, shared by all requests
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
+    // 0 turns the verified-token cache off
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize = 10000;
 
-    public String generateToken(String email, String role) {
+    // guards verified
+    private final ReentrantLock verifiedLock = new ReentrantLock();
+
+    // token -> claims, LRU; only tokens whose signature was checked get in
+    private final Map<String, JwtClaims> verified = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+            return size() > verifiedCacheSize;
+        }
+    };
+
+    public String generateToken(Long userId, String email, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
+        claims.put("uid", userId);
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
-    }
+    /**
+     * Parses and verifies the token once.
+     *
+     * @throws JwtException if the signature is wrong, the token is malformed or it has expired
+     */
+    public JwtClaims verify(String token) {
+        Instant now = Instant.now();
 
-    public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
-    }
+        if (verifiedCacheSize > 0) {
+            JwtClaims cached;
+            verifiedLock.lock();
+            try {
+                cached = verified.get(token);
+                if (cached != null && cached.isExpired(now)) {
+                    verified.remove(token);
+                    cached = null;
+                }
+            } finally {
+                verifiedLock.unlock();
+            }
+            if (cached != null) return cached;
+        }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        // the parser rejects expired tokens itself
+        Claims body = parser.parseClaimsJws(token).getBody();
+        Date issuedAt = body.getIssuedAt();
+        Date expiration = body.getExpiration();
+        // tokens issued before uid was added carry no user id
+        Number uid = body.get("uid", Number.class);
+        JwtClaims claims = new JwtClaims(
+                uid != null ? uid.longValue() : null,
+                body.getSubject(),
+                body.get("role", String.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiration != null ? expiration.toInstant() : null
+        );
+
+        if (verifiedCacheSize > 0) {
+            verifiedLock.lock();
+            try {
+                verified.put(token, claims);
+            } finally {
+                verifiedLock.unlock();
+            }
+        }
+        return claims;
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public String extractEmail(String token) {
+        return verify(token).subject();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public String extractRole(String token) {
+        return verify(token).role();
     }
 }
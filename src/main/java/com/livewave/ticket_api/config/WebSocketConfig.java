@@ -1,13 +1,43 @@
 package com.livewave.ticket_api.config;
 
+import com.livewave.ticket_api.service.SeatTopicMonitor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.web.socket.config.annotation.*;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // upper bound of concurrently running channel tasks in virtual-thread mode
+    @Value("${websocket.channel.max-concurrency:1024}")
+    private int channelMaxConcurrency;
+
+    // per-session outbound buffer; over it, stale seat updates are dropped, then the session is closed
+    @Value("${websocket.outbound.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    // a single write to a client taking longer than this marks the session as stuck
+    @Value("${websocket.outbound.send-time-limit-ms:10000}")
+    private long sendTimeLimitMs;
+
+    @Autowired
+    private SeatTopicMonitor seatTopicMonitor;
+
+    // one cheap sender per session with a backlog; a slow socket only blocks its own sender
+    private final ExecutorService outboundSenders = Executors.newVirtualThreadPerTaskExecutor();
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic");
@@ -22,4 +52,37 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();                   // оставим для веба, если нужен
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(handler -> new BoundedOutboundHandlerDecorator(
+                handler, outboundSenders, seatTopicMonitor, bufferSizeLimit, sendTimeLimitMs));
+    }
+
+    @PreDestroy
+    public void stopOutboundSenders() {
+        outboundSenders.shutdownNow();
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-outbound-"));
+        }
+    }
+
+    // a new virtual thread per task, no pooling; the limit makes producers wait instead of piling up
+    SimpleAsyncTaskExecutor virtualThreadExecutor(String prefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(channelMaxConcurrency);
+        return executor;
+    }
+}
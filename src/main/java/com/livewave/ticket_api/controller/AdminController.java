@@ -1,11 +1,22 @@
 package com.livewave.ticket_api.controller;
 
+import com.livewave.ticket_api.dto.CacheStats;
+import com.livewave.ticket_api.dto.DiskCacheStats;
+import com.livewave.ticket_api.dto.LayoutRequest;
+import com.livewave.ticket_api.dto.PushStats;
+import com.livewave.ticket_api.dto.SeatTopicStats;
+import com.livewave.ticket_api.dto.SeatUpdateStats;
 import com.livewave.ticket_api.exception.BadRequestException;
-import com.livewave.ticket_api.exception.ResourceNotFoundException;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.repository.EventRepository;
+import com.livewave.ticket_api.model.VenueLayout;
 import com.livewave.ticket_api.service.EventService;
+import com.livewave.ticket_api.service.NotificationService;
+import com.livewave.ticket_api.service.SeatLayoutService;
+import com.livewave.ticket_api.service.SeatTopicMonitor;
+import com.livewave.ticket_api.service.WebSocketService;
+import com.livewave.ticket_api.sftp.SftpService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,26 +26,46 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class AdminController {
 
-    private final EventRepository eventRepository;
     private final EventService eventService;
+    private final SeatLayoutService seatLayoutService;
+    private final WebSocketService webSocketService;
+    private final SeatTopicMonitor seatTopicMonitor;
+    private final NotificationService notificationService;
+    private final SftpService sftpService;
 
     @Autowired
-    public AdminController(EventRepository eventRepository,
-                           EventService eventService) {
-        this.eventRepository = eventRepository;
+    public AdminController(EventService eventService,
+                           SeatLayoutService seatLayoutService,
+                           WebSocketService webSocketService,
+                           SeatTopicMonitor seatTopicMonitor,
+                           NotificationService notificationService,
+                           SftpService sftpService) {
         this.eventService = eventService;
+        this.seatLayoutService = seatLayoutService;
+        this.webSocketService = webSocketService;
+        this.seatTopicMonitor = seatTopicMonitor;
+        this.notificationService = notificationService;
+        this.sftpService = sftpService;
     }
 
     @GetMapping("/events")
-    public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+    public ResponseEntity<List<Event>> getAllEvents(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    ) {
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(eventService.findAll(null));
+        }
+
+        return EventController.pageResponse(eventService.findPage(null, after, limit));
     }
 
     @PostMapping("/events")
     public Event createEvent(
             @RequestBody Event event,
             @RequestParam(defaultValue = "5") int rows,
-            @RequestParam(defaultValue = "10") int cols
+            @RequestParam(defaultValue = "10") int cols,
+            @RequestParam(required = false) Long layoutId
     ) {
 
         if (event.getTitle() == null || event.getDate() == null) {
@@ -43,62 +74,82 @@ public class AdminController {
             );
         }
 
-        return eventService.createEventWithSeats(event, rows, cols);
-    }
-
-    @DeleteMapping("/events/{id}")
-    public String deleteEvent(@PathVariable Long id) {
-
-        if (!eventRepository.existsById(id)) {
-            throw new ResourceNotFoundException(
-                    "Event", "id", id
-            );
+        if (layoutId != null) {
+            return eventService.createEventWithLayout(event, layoutId, null);
         }
 
-        eventRepository.deleteById(id);
-        return "Событие удалено успешно";
+        return eventService.createEventWithSeats(event, rows, cols);
     }
 
-    @PutMapping("/events/{id}")
-    public Event updateEvent(
+    @PutMapping("/events/{id}/layout/{layoutId}")
+    public Event moveEventToLayout(
             @PathVariable Long id,
-            @RequestBody Event updatedEvent
+            @PathVariable Long layoutId
     ) {
+        return eventService.moveToLayout(id, layoutId);
+    }
 
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException(
-                                "Event", "id", id
-                        )
-                );
+    // -------------------- Venue layouts --------------------
 
-        if (updatedEvent.getTitle() != null)
-            event.setTitle(updatedEvent.getTitle());
+    @GetMapping("/layouts")
+    public List<VenueLayout> getAllLayouts() {
+        return seatLayoutService.findAllLayouts();
+    }
 
-        if (updatedEvent.getDescription() != null)
-            event.setDescription(updatedEvent.getDescription());
+    @PostMapping("/layouts")
+    public VenueLayout createLayout(@RequestBody LayoutRequest request) {
 
-        if (updatedEvent.getDate() != null)
-            event.setDate(updatedEvent.getDate());
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new BadRequestException("Поле name обязательно.");
+        }
 
-        if (updatedEvent.getPrice() != null)
-            event.setPrice(updatedEvent.getPrice());
+        return seatLayoutService.createLayout(
+                request.getName(),
+                request.getVenue(),
+                request.getRows(),
+                request.getCols(),
+                request.getZones()
+        );
+    }
 
-        if (updatedEvent.getCity() != null)
-            event.setCity(updatedEvent.getCity());
+    @GetMapping("/cache/events")
+    public List<CacheStats> getEventCacheStats() {
+        return eventService.cacheStats();
+    }
 
-        if (updatedEvent.getVenue() != null)
-            event.setVenue(updatedEvent.getVenue());
+    // -------------------- WebSocket --------------------
 
-        if (updatedEvent.getImageBanner() != null)
-            event.setImageBanner(updatedEvent.getImageBanner());
+    @GetMapping("/websocket/seat-updates")
+    public SeatUpdateStats getSeatUpdateStats() {
+        return webSocketService.stats();
+    }
 
-        if (updatedEvent.getImageKey() != null)
-            event.setImageKey(updatedEvent.getImageKey());
+    @GetMapping("/websocket/topics")
+    public List<SeatTopicStats> getSeatTopicStats() {
+        return seatTopicMonitor.stats();
+    }
 
-        if (updatedEvent.getLocation() != null)
-            event.setLocation(updatedEvent.getLocation());
+    @GetMapping("/notifications/push")
+    public PushStats getPushStats() {
+        return notificationService.pushStats();
+    }
 
-        return eventRepository.save(event);
+    @GetMapping("/files/cache")
+    public DiskCacheStats getFileCacheStats() {
+        return sftpService.cacheStats();
+    }
+
+    @DeleteMapping("/events/{id}")
+    public String deleteEvent(@PathVariable Long id) {
+        eventService.delete(id);
+        return "Событие удалено успешно";
+    }
+
+    @PutMapping("/events/{id}")
+    public Event updateEvent(
+            @PathVariable Long id,
+            @RequestBody Event updatedEvent
+    ) {
+        return eventService.update(id, updatedEvent);
     }
 }
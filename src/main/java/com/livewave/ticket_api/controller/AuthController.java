@@ -54,7 +54,7 @@ public class AuthController {
 
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            String token = jwtUtil.generateToken(user.getEmail(), user.getRole());
+            String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
 
             return Map.of(
                     "token", token,
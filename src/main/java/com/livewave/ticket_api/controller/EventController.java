@@ -1,11 +1,18 @@
 package com.livewave.ticket_api.controller;
 
+import com.livewave.ticket_api.dto.CityFacet;
+import com.livewave.ticket_api.dto.EventPage;
+import com.livewave.ticket_api.dto.EventSearchPage;
+import com.livewave.ticket_api.dto.EventSuggestion;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatMapDelta;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.model.Seat;
-import com.livewave.ticket_api.model.Ticket;
-import com.livewave.ticket_api.repository.SeatRepository;
-import com.livewave.ticket_api.repository.TicketRepository;
 import com.livewave.ticket_api.service.EventService;
+import com.livewave.ticket_api.service.SeatMapCodec;
+import com.livewave.ticket_api.service.SeatOccupancyService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -17,22 +24,69 @@ import java.util.stream.Collectors;
 public class EventController {
 
     private final EventService eventService;
-    private final SeatRepository seatRepository;
-    private final TicketRepository ticketRepository;
+    private final SeatOccupancyService seatOccupancyService;
 
     public EventController(
             EventService eventService,
-            SeatRepository seatRepository,
-            TicketRepository ticketRepository
+            SeatOccupancyService seatOccupancyService
     ) {
         this.eventService = eventService;
-        this.seatRepository = seatRepository;
-        this.ticketRepository = ticketRepository;
+        this.seatOccupancyService = seatOccupancyService;
     }
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Whole list by default; with limit and/or after, one keyset page in (date, id) order.
+     * The cursor for the next page comes in the X-Next-Cursor header (absent on the last page).
+     */
     @GetMapping
-    public List<Event> getAllEvents(@RequestParam(required = false) String city) {
-        return eventService.findAll(city);
+    public ResponseEntity<List<Event>> getAllEvents(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    ) {
+        if (limit == null && after == null) {
+            return ResponseEntity.ok(eventService.findAll(city));
+        }
+
+        return pageResponse(eventService.findPage(city, after, limit));
+    }
+
+    static ResponseEntity<List<Event>> pageResponse(EventPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Cities that have events, with upcoming-event counts, for the home-screen city picker.
+     */
+    @GetMapping("/cities")
+    public List<CityFacet> getCities() {
+        return eventService.cityFacets();
+    }
+
+    /**
+     * Ranked search over title, venue, city and description; the last word may be unfinished.
+     */
+    @GetMapping("/search")
+    public EventSearchPage search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset
+    ) {
+        return eventService.search(q, offset, limit);
+    }
+
+    @GetMapping("/search/suggest")
+    public List<EventSuggestion> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return eventService.suggest(q, limit);
     }
 
     @GetMapping("/{id}")
@@ -61,37 +115,68 @@ public class EventController {
             e.setPrice(0.0);
         }
 
+        String date = (String) body.get("date");
+
+        if (body.get("layoutId") != null) {
+            Long layoutId = ((Number) body.get("layoutId")).longValue();
+            return eventService.createEventWithLayout(e, layoutId, date);
+        }
+
         int rows = ((Number) body.getOrDefault("rows", 10)).intValue();
         int cols = ((Number) body.getOrDefault("cols", 10)).intValue();
-        String date = (String) body.get("date");
 
         return eventService.createEventWithSeats(e, rows, cols, date);
     }
 
     @GetMapping("/{id}/seats")
-    public List<Map<String, Object>> getSeats(@PathVariable Long id) {
-        List<Seat> seats =
-                seatRepository.findByEventIdOrderByRowNumAscColNumAsc(id);
+    public ResponseEntity<?> getSeats(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        // compact availability frame, layout comes from /seats/{eventId}/layout;
+        // same URL as the JSON map, hence Vary: Accept on every response
+        if (SeatMapCodec.isRequested(accept)) {
+            // version read before the states, so a client never skips a change
+            long version = seatOccupancyService.get(id).getVersion();
+            return ResponseEntity.ok()
+                    .contentType(SeatMapCodec.MEDIA_TYPE)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(SeatController.SEAT_MAP_VERSION_HEADER, String.valueOf(version))
+                    .body(seatOccupancyService.encodedAvailability(id));
+        }
 
-        List<Ticket> tickets =
-                ticketRepository.findByEventId(id);
+        // ?since=version: only seats changed after it (full map if history is gone)
+        if (since != null) {
+            SeatMapDelta delta = seatOccupancyService.seatMapSince(id, since);
 
-        Set<Long> bookedSeatIds = tickets.stream()
-                .map(Ticket::getSeatId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+            Map<String, Object> body = new HashMap<>();
+            body.put("version", delta.getVersion());
+            body.put("full", delta.isFull());
+            body.put("seats", toMaps(delta.getSeats()));
+            return ResponseEntity.ok()
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(SeatController.SEAT_MAP_VERSION_HEADER, String.valueOf(delta.getVersion()))
+                    .body(body);
+        }
+
+        long version = seatOccupancyService.get(id).getVersion();
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(SeatController.SEAT_MAP_VERSION_HEADER, String.valueOf(version))
+                .body(toMaps(seatOccupancyService.seatMap(id)));
+    }
 
+    private List<Map<String, Object>> toMaps(List<SeatDto> seats) {
         return seats.stream().map(s -> {
             Map<String, Object> m = new HashMap<>();
             m.put("id", s.getId());
             m.put("seatNumber", s.getSeatNumber());
             m.put("row", s.getRowNum());
             m.put("col", s.getColNum());
-            m.put("status",
-                    bookedSeatIds.contains(s.getId())
-                            ? "booked"
-                            : "available"
-            );
+            m.put("zone", s.getZone());
+            m.put("status", s.getStatus());
             return m;
         }).collect(Collectors.toList());
     }
@@ -1,72 +1,180 @@
 package com.livewave.ticket_api.controller;
 
 import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatLayoutView;
+import com.livewave.ticket_api.dto.SeatMapDelta;
+import com.livewave.ticket_api.dto.SeatUpdateReplay;
 import com.livewave.ticket_api.exception.BadRequestException;
 import com.livewave.ticket_api.exception.ResourceNotFoundException;
-import com.livewave.ticket_api.model.Seat;
-import com.livewave.ticket_api.model.Ticket;
-import com.livewave.ticket_api.repository.SeatRepository;
-import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.service.SeatHold;
+import com.livewave.ticket_api.service.SeatHoldService;
+import com.livewave.ticket_api.service.SeatLayout;
+import com.livewave.ticket_api.service.SeatLayoutService;
+import com.livewave.ticket_api.service.SeatMapCodec;
+import com.livewave.ticket_api.service.SeatOccupancyService;
+import com.livewave.ticket_api.service.WebSocketService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/seats")
 @CrossOrigin(origins = "*")
 public class SeatController {
 
-    private final SeatRepository seatRepository;
-    private final TicketRepository ticketRepository;
-
-    public SeatController(SeatRepository seatRepository,
-                          TicketRepository ticketRepository) {
-        this.seatRepository = seatRepository;
-        this.ticketRepository = ticketRepository;
+    static final String SEAT_MAP_VERSION_HEADER = "X-Seat-Map-Version";
+
+    private final SeatOccupancyService seatOccupancyService;
+    private final SeatHoldService seatHoldService;
+    private final SeatLayoutService seatLayoutService;
+    private final WebSocketService webSocketService;
+
+    public SeatController(SeatOccupancyService seatOccupancyService,
+                          SeatHoldService seatHoldService,
+                          SeatLayoutService seatLayoutService,
+                          WebSocketService webSocketService) {
+        this.seatOccupancyService = seatOccupancyService;
+        this.seatHoldService = seatHoldService;
+        this.seatLayoutService = seatLayoutService;
+        this.webSocketService = webSocketService;
     }
 
+    /**
+     * JSON seat map by default; the compact availability frame when the client
+     * asks for application/vnd.livewave.seatmap (layout fetched separately, see below).
+     * With ?since=version only the seats changed after that version are returned (SeatMapDelta).
+     * Both representations share the URL, so every response carries Vary: Accept for caches.
+     */
     @GetMapping("/{eventId}")
-    public List<SeatDto> getSeatsByEvent(@PathVariable Long eventId) {
+    public ResponseEntity<?> getSeatsByEvent(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
 
         if (eventId == null) {
             throw new BadRequestException("Event ID is required");
         }
 
-        List<Seat> seats =
-                seatRepository.findByEventIdOrderByRowNumAscColNumAsc(eventId);
-
-        if (seats.isEmpty()) {
+        if (seatLayoutService.forEvent(eventId).isEmpty()) {
             throw new ResourceNotFoundException(
                     "No seats found for event with id: " + eventId
             );
         }
 
-        List<Ticket> tickets = ticketRepository.findByEventId(eventId);
+        long version = seatOccupancyService.get(eventId).getVersion();
 
-        Set<Long> bookedSeatIds = tickets.stream()
-                .map(Ticket::getSeatId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        if (SeatMapCodec.isRequested(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(SeatMapCodec.MEDIA_TYPE)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(SEAT_MAP_VERSION_HEADER, String.valueOf(version))
+                    .body(seatOccupancyService.encodedAvailability(eventId));
+        }
 
-        List<SeatDto> dto = new ArrayList<>(seats.size());
+        if (since != null) {
+            SeatMapDelta delta = seatOccupancyService.seatMapSince(eventId, since);
+            return ResponseEntity.ok()
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(SEAT_MAP_VERSION_HEADER, String.valueOf(delta.getVersion()))
+                    .body(delta);
+        }
 
-        for (Seat s : seats) {
-            boolean booked = s.getId() != null &&
-                    bookedSeatIds.contains(s.getId());
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(SEAT_MAP_VERSION_HEADER, String.valueOf(version))
+                .body(seatOccupancyService.seatMap(eventId));
+    }
 
-            SeatDto seatDto = new SeatDto(
-                    s.getId(),
-                    s.getEventId(),
-                    s.getSeatNumber(),
-                    s.getRowNum(),
-                    s.getColNum(),
-                    booked
+    /**
+     * Immutable hall geometry for the compact representation; clients cache it by key (ETag).
+     */
+    @GetMapping("/{eventId}/layout")
+    public ResponseEntity<SeatLayoutView> getLayout(
+            @PathVariable Long eventId,
+            WebRequest webRequest
+    ) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+
+        if (layout.isEmpty()) {
+            throw new ResourceNotFoundException(
+                    "No seats found for event with id: " + eventId
             );
+        }
+
+        String etag = "\"" + layout.getKey() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                .body(SeatMapCodec.layoutView(layout));
+    }
 
-            dto.add(seatDto);
+    /**
+     * Catch-up for /topic/seats/{eventId} after a reconnect: subscribe first, then fetch
+     * the frames after the last seq seen and drop live frames with seq <= the returned one.
+     * Without ?after, or when those frames are no longer kept, returns a snapshot.
+     */
+    @GetMapping("/{eventId}/updates")
+    public SeatUpdateReplay getUpdates(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) Long after
+    ) {
+        SeatUpdateReplay replay = (after != null) ? webSocketService.replay(eventId, after) : null;
+        if (replay != null) {
+            return replay;
         }
 
-        return dto;
+        // seq read before the map, so frames after it can only make the snapshot newer
+        long seq = webSocketService.currentSeq(eventId);
+        return SeatUpdateReplay.snapshot(eventId, seq, seatOccupancyService.seatMap(eventId));
+    }
+
+    @PostMapping("/hold")
+    public Map<String, Object> holdSeats(
+            @RequestBody Map<String, Object> body,
+            HttpServletRequest request
+    ) {
+        if (body.get("eventId") == null) {
+            throw new BadRequestException("Event ID is required");
+        }
+
+        Long eventId = ((Number) body.get("eventId")).longValue();
+
+        List<?> rawSeats = (List<?>) body.get("seatNumbers");
+        List<String> seatNumbers = new ArrayList<>();
+        if (rawSeats != null) {
+            for (Object o : rawSeats) seatNumbers.add(String.valueOf(o));
+        }
+
+        String email = (String) request.getAttribute("email");
+        SeatHold hold = seatHoldService.hold(eventId, seatNumbers, email);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("holdId", hold.getId());
+        response.put("eventId", hold.getEventId());
+        response.put("seatNumbers", hold.getSeatNumbers());
+        response.put("expiresAt", hold.getExpiresAt());
+        return response;
+    }
+
+    @DeleteMapping("/hold/{holdId}")
+    public Map<String, String> releaseHold(
+            @PathVariable String holdId,
+            HttpServletRequest request
+    ) {
+        String email = (String) request.getAttribute("email");
+        seatHoldService.release(holdId, email);
+        return Map.of("message", "Hold released");
     }
 }
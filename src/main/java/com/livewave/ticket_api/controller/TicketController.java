@@ -3,13 +3,14 @@ package com.livewave.ticket_api.controller;
 import com.livewave.ticket_api.exception.*;
 import com.livewave.ticket_api.model.*;
 import com.livewave.ticket_api.repository.*;
-import com.livewave.ticket_api.service.TicketService;
+import com.livewave.ticket_api.service.PurchaseSequencer;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @CrossOrigin(origins = "*")
@@ -19,7 +20,7 @@ public class TicketController {
     private TicketRepository ticketRepository;
 
     @Autowired
-    private TicketService ticketService;
+    private PurchaseSequencer purchaseSequencer;
 
     @Autowired
     private EventRepository eventRepository;
@@ -27,11 +28,8 @@ public class TicketController {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private SeatRepository seatRepository;
-
     @PostMapping({"/buyTicket", "/seats/book"})
-    public ResponseEntity<?> buyTicket(
+    public CompletableFuture<ResponseEntity<?>> buyTicket(
             @RequestBody Map<String, Object> body,
             HttpServletRequest request
     ) {
@@ -53,47 +51,15 @@ public class TicketController {
                 ? userRepository.findByEmail(email)
                 : Optional.empty();
 
-        List<String> failedSeats = new ArrayList<>();
-        List<Ticket> savedTickets = new ArrayList<>();
-
-        for (String seatNumber : seatNumbers) {
-
-            Seat seat = seatRepository
-                    .findByEventIdAndSeatNumber(eventId, seatNumber)
-                    .orElse(null);
-
-            if (seat == null) {
-                failedSeats.add(seatNumber);
-                continue;
-            }
-
-            boolean alreadyBought = ticketRepository
-                    .findByEventIdAndSeatId(eventId, seat.getId())
-                    .isPresent();
-
-            if (alreadyBought) {
-                failedSeats.add(seatNumber);
-                continue;
-            }
-
-            Ticket ticket = new Ticket();
-            ticket.setEvent(event);
-            ticket.setSeatNumber(seatNumber);
-            ticket.setSeatId(seat.getId());
-            userOpt.ifPresent(ticket::setUser);
-
-            // 🔥 ВАЖНО — сохраняем через service
-            savedTickets.add(ticketService.save(ticket));
-        }
-
-        if (!failedSeats.isEmpty()) {
-            throw new SeatConflictException(failedSeats);
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "Покупка успешна!");
-        response.put("created", savedTickets.size());
-        return ResponseEntity.ok(response);
+        // the request thread is released while the order waits in the event's purchase queue
+        return purchaseSequencer
+                .submit(event, userOpt.orElse(null), seatNumbers)
+                .thenApply(savedTickets -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("message", "Покупка успешна!");
+                    response.put("created", savedTickets.size());
+                    return ResponseEntity.ok(response);
+                });
     }
 
     @GetMapping("/myTickets")
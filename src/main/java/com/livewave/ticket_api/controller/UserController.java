@@ -4,9 +4,12 @@ import com.livewave.ticket_api.exception.BadRequestException;
 import com.livewave.ticket_api.model.User;
 import com.livewave.ticket_api.repository.UserRepository;
 import com.livewave.ticket_api.service.UserService;
-import com.livewave.ticket_api.config.JwtUtil;
+import com.livewave.ticket_api.config.AuthPrincipal;
+import com.livewave.ticket_api.config.AuthPrincipalCache;
+import com.livewave.ticket_api.exception.UnauthorizedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,7 +27,7 @@ public class UserController {
     private UserRepository userRepository;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private AuthPrincipalCache principalCache;
 
     @GetMapping
     public List<User> getAllUsers() {
@@ -62,23 +65,24 @@ public class UserController {
         }
 
         user.setRole(body.get("role"));
-        return service.saveDirect(user);
+        User saved = service.saveDirect(user);
+
+        // tokens issued with the old role stop being trusted
+        principalCache.invalidate(saved.getEmail());
+        return saved;
     }
 
     @PutMapping("/update")
     public ResponseEntity<?> updateProfile(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal AuthPrincipal principal,
             @RequestBody Map<String, String> updates
     ) {
-        String jwt = token.replace("Bearer ", "").trim();
-        String email = jwtUtil.extractEmail(jwt);
+        if (principal == null) {
+            throw new UnauthorizedException("Unauthorized");
+        }
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() ->
-                        new com.livewave.ticket_api.exception.ResourceNotFoundException(
-                                "User", "email", email
-                        )
-                );
+        User user = service.getById(principal.userId());
+        String oldEmail = user.getEmail();
 
         if (updates.containsKey("name") && updates.get("name") != null) {
             user.setName(updates.get("name"));
@@ -90,6 +94,12 @@ public class UserController {
 
         userRepository.save(user);
 
+        if (!user.getEmail().equals(oldEmail)) {
+            // tokens still name the old email
+            principalCache.invalidate(oldEmail);
+            principalCache.invalidate(user.getEmail());
+        }
+
         return ResponseEntity.ok(
                 Map.of("message", "Profile updated successfully")
         );
@@ -97,22 +107,23 @@ public class UserController {
 
     @PostMapping("/fcm-token")
     public ResponseEntity<?> updateFcmToken(
-            @RequestHeader("Authorization") String token,
+            @AuthenticationPrincipal AuthPrincipal principal,
             @RequestBody Map<String, String> body
     ) { System.out.println("FCM CONTROLLER HIT");
         System.out.println("===== FCM TOKEN REQUEST =====");
         System.out.println(body);
 
-        String jwt = token.replace("Bearer ", "").trim();
-        String email = jwtUtil.extractEmail(jwt);
+        if (principal == null) {
+            throw new UnauthorizedException("Unauthorized");
+        }
 
-        System.out.println("JWT EMAIL = " + email);
+        System.out.println("JWT EMAIL = " + principal.email());
 
         if (!body.containsKey("fcmToken")) {
             throw new BadRequestException("fcmToken is required");
         }
 
-        service.updateFcmToken(email, body.get("fcmToken"));
+        service.updateFcmToken(principal.userId(), body.get("fcmToken"));
 
         System.out.println("FCM TOKEN SAVED SUCCESSFULLY");
 
@@ -0,0 +1,31 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Counters of one in-process cache region since startup.
+ */
+public class CacheStats {
+    private final String name;
+    private final long size;
+    private final long maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public CacheStats(String name, long size, long maxSize, long hits, long misses, long evictions) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    // getters
+    public String getName() { return name; }
+    public long getSize() { return size; }
+    public long getMaxSize() { return maxSize; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public double getHitRatio() { return hits + misses == 0 ? 0 : (double) hits / (hits + misses); }
+}
@@ -0,0 +1,24 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * A city of the catalog with its number of upcoming events; cityKey is what ?city= matches on.
+ */
+public class CityFacet {
+    private final String city;
+    private final String cityKey;
+    private final int upcomingEvents;
+    private final int totalEvents;
+
+    public CityFacet(String city, String cityKey, int upcomingEvents, int totalEvents) {
+        this.city = city;
+        this.cityKey = cityKey;
+        this.upcomingEvents = upcomingEvents;
+        this.totalEvents = totalEvents;
+    }
+
+    // getters
+    public String getCity() { return city; }
+    public String getCityKey() { return cityKey; }
+    public int getUpcomingEvents() { return upcomingEvents; }
+    public int getTotalEvents() { return totalEvents; }
+}
@@ -0,0 +1,41 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Counters of the local disk cache in front of SFTP since startup (see SftpDiskCache).
+ */
+public class DiskCacheStats {
+    private final long files;
+    private final long bytes;
+    private final long maxBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long bytesServed;
+    private final long bytesFetched;
+    private final long rejected;
+
+    public DiskCacheStats(long files, long bytes, long maxBytes, long hits, long misses, long evictions,
+                          long bytesServed, long bytesFetched, long rejected) {
+        this.files = files;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.bytesServed = bytesServed;
+        this.bytesFetched = bytesFetched;
+        this.rejected = rejected;
+    }
+
+    // getters
+    public long getFiles() { return files; }
+    public long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getBytesServed() { return bytesServed; }
+    public long getBytesFetched() { return bytesFetched; }
+    public long getRejected() { return rejected; }
+    public double getHitRatio() { return hits + misses == 0 ? 0 : (double) hits / (hits + misses); }
+}
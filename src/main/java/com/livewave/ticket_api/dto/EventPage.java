@@ -0,0 +1,23 @@
+package com.livewave.ticket_api.dto;
+
+import com.livewave.ticket_api.model.Event;
+
+import java.util.List;
+
+/**
+ * One keyset page of events in (date, id) order; nextCursor is null on the last page.
+ */
+public class EventPage {
+    private final List<Event> items;
+    private final String nextCursor;
+
+    public EventPage(List<Event> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // getters
+    public List<Event> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,25 @@
+package com.livewave.ticket_api.dto;
+
+import com.livewave.ticket_api.model.Event;
+
+import java.util.List;
+
+/**
+ * One page of search results, best match first; total counts all matches.
+ */
+public class EventSearchPage {
+    private final String query;
+    private final int total;
+    private final List<Event> items;
+
+    public EventSearchPage(String query, int total, List<Event> items) {
+        this.query = query;
+        this.total = total;
+        this.items = items;
+    }
+
+    // getters
+    public String getQuery() { return query; }
+    public int getTotal() { return total; }
+    public List<Event> getItems() { return items; }
+}
@@ -0,0 +1,26 @@
+package com.livewave.ticket_api.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Type-ahead hit: just enough to render a suggestion row, served from the search index.
+ */
+public class EventSuggestion {
+    private final Long id;
+    private final String title;
+    private final String city;
+    private final LocalDateTime date;
+
+    public EventSuggestion(Long id, String title, String city, LocalDateTime date) {
+        this.id = id;
+        this.title = title;
+        this.city = city;
+        this.date = date;
+    }
+
+    // getters
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getCity() { return city; }
+    public LocalDateTime getDate() { return date; }
+}
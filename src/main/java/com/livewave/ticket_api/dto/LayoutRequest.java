@@ -0,0 +1,24 @@
+package com.livewave.ticket_api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LayoutRequest {
+    private String name;
+    private String venue;
+    private int rows;
+    private int cols;
+    private List<ZoneRange> zones = new ArrayList<>();
+
+    // getters & setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getVenue() { return venue; }
+    public void setVenue(String venue) { this.venue = venue; }
+    public int getRows() { return rows; }
+    public void setRows(int rows) { this.rows = rows; }
+    public int getCols() { return cols; }
+    public void setCols(int cols) { this.cols = cols; }
+    public List<ZoneRange> getZones() { return zones; }
+    public void setZones(List<ZoneRange> zones) { this.zones = zones; }
+}
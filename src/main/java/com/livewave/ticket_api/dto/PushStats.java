@@ -0,0 +1,47 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * State and counters of the push dispatcher since startup (see PushDispatcher).
+ */
+public class PushStats {
+    private final int queued;
+    private final long waitingRetry;
+    private final int batchesInFlight;
+    private final long submitted;
+    private final long sent;
+    private final long retried;
+    private final long invalidTokens;
+    private final long failed;
+    private final long dropped;
+    private final long batches;
+    private final double avgBatchSize;
+
+    public PushStats(int queued, long waitingRetry, int batchesInFlight, long submitted, long sent,
+                     long retried, long invalidTokens, long failed, long dropped,
+                     long batches, double avgBatchSize) {
+        this.queued = queued;
+        this.waitingRetry = waitingRetry;
+        this.batchesInFlight = batchesInFlight;
+        this.submitted = submitted;
+        this.sent = sent;
+        this.retried = retried;
+        this.invalidTokens = invalidTokens;
+        this.failed = failed;
+        this.dropped = dropped;
+        this.batches = batches;
+        this.avgBatchSize = avgBatchSize;
+    }
+
+    // getters
+    public int getQueued() { return queued; }
+    public long getWaitingRetry() { return waitingRetry; }
+    public int getBatchesInFlight() { return batchesInFlight; }
+    public long getSubmitted() { return submitted; }
+    public long getSent() { return sent; }
+    public long getRetried() { return retried; }
+    public long getInvalidTokens() { return invalidTokens; }
+    public long getFailed() { return failed; }
+    public long getDropped() { return dropped; }
+    public long getBatches() { return batches; }
+    public double getAvgBatchSize() { return avgBatchSize; }
+}
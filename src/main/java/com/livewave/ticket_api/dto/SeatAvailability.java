@@ -0,0 +1,25 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Seat states of one event in layout order, encoded by SeatMapCodec
+ * (data is the Base64 payload, encoding is "bitset" or "rle").
+ */
+public class SeatAvailability {
+    private final String layoutKey;
+    private final int size;
+    private final String encoding;
+    private final String data;
+
+    public SeatAvailability(String layoutKey, int size, String encoding, String data) {
+        this.layoutKey = layoutKey;
+        this.size = size;
+        this.encoding = encoding;
+        this.data = data;
+    }
+
+    // getters
+    public String getLayoutKey() { return layoutKey; }
+    public int getSize() { return size; }
+    public String getEncoding() { return encoding; }
+    public String getData() { return data; }
+}
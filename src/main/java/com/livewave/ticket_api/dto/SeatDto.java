@@ -7,6 +7,8 @@ public class SeatDto {
     private Integer rowNum;
     private Integer colNum;
     private boolean booked;
+    private boolean held;
+    private String zone;
 
     public SeatDto() {}
 
@@ -19,6 +21,11 @@ public class SeatDto {
         this.booked = booked;
     }
 
+    public SeatDto(Long id, Long eventId, String seatNumber, Integer rowNum, Integer colNum, boolean booked, boolean held) {
+        this(id, eventId, seatNumber, rowNum, colNum, booked);
+        this.held = held;
+    }
+
     // getters & setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -32,4 +39,14 @@ public class SeatDto {
     public void setColNum(Integer colNum) { this.colNum = colNum; }
     public boolean isBooked() { return booked; }
     public void setBooked(boolean booked) { this.booked = booked; }
+    public boolean isHeld() { return held; }
+    public void setHeld(boolean held) { this.held = held; }
+    public String getZone() { return zone; }
+    public void setZone(String zone) { this.zone = zone; }
+
+    // available / held / booked
+    public String getStatus() {
+        if (booked) return "booked";
+        return held ? "held" : "available";
+    }
 }
@@ -0,0 +1,33 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Column-wise seat layout for clients that cache the geometry by key
+ * and poll only availability (see SeatMapCodec). Arrays are in layout order.
+ */
+public class SeatLayoutView {
+    private final String key;
+    private final long[] ids;
+    private final String[] labels;
+    private final int[] rows;
+    private final int[] cols;
+    // null when the hall has no zones
+    private final String[] zones;
+
+    public SeatLayoutView(String key, long[] ids, String[] labels, int[] rows, int[] cols, String[] zones) {
+        this.key = key;
+        this.ids = ids;
+        this.labels = labels;
+        this.rows = rows;
+        this.cols = cols;
+        this.zones = zones;
+    }
+
+    // getters
+    public String getKey() { return key; }
+    public int getSize() { return ids.length; }
+    public long[] getIds() { return ids; }
+    public String[] getLabels() { return labels; }
+    public int[] getRows() { return rows; }
+    public int[] getCols() { return cols; }
+    public String[] getZones() { return zones; }
+}
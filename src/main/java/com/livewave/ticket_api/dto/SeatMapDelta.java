@@ -0,0 +1,27 @@
+package com.livewave.ticket_api.dto;
+
+import java.util.List;
+
+/**
+ * Seats changed since a known seat-map version. When full is true the list is the whole map
+ * (no version given, or the change history no longer reaches back to it) and replaces the client's copy.
+ */
+public class SeatMapDelta {
+    private final Long eventId;
+    private final long version;
+    private final boolean full;
+    private final List<SeatDto> seats;
+
+    public SeatMapDelta(Long eventId, long version, boolean full, List<SeatDto> seats) {
+        this.eventId = eventId;
+        this.version = version;
+        this.full = full;
+        this.seats = seats;
+    }
+
+    // getters
+    public Long getEventId() { return eventId; }
+    public long getVersion() { return version; }
+    public boolean isFull() { return full; }
+    public List<SeatDto> getSeats() { return seats; }
+}
@@ -0,0 +1,24 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Live state of one /topic/seats/{eventId} topic (see SeatTopicMonitor).
+ */
+public class SeatTopicStats {
+    private final Long eventId;
+    private final int subscribers;
+    private final int queued;
+    private final long dropped;
+
+    public SeatTopicStats(Long eventId, int subscribers, int queued, long dropped) {
+        this.eventId = eventId;
+        this.subscribers = subscribers;
+        this.queued = queued;
+        this.dropped = dropped;
+    }
+
+    // getters
+    public Long getEventId() { return eventId; }
+    public int getSubscribers() { return subscribers; }
+    public int getQueued() { return queued; }
+    public long getDropped() { return dropped; }
+}
@@ -0,0 +1,31 @@
+package com.livewave.ticket_api.dto;
+
+import java.util.List;
+
+/**
+ * One STOMP frame on /topic/seats/{eventId}: all seat changes of the event collected
+ * during one coalescing window, latest state per seat, in the order they last changed.
+ * seq grows by exactly one per frame of the event, so a client that sees a jump knows it missed frames
+ * and can ask for them (GET /seats/{eventId}/updates?after=lastSeq).
+ */
+public class SeatUpdateBatch {
+    private Long eventId;
+    private long seq;
+    private List<SeatDto> seats;
+
+    public SeatUpdateBatch() {}
+
+    public SeatUpdateBatch(Long eventId, long seq, List<SeatDto> seats) {
+        this.eventId = eventId;
+        this.seq = seq;
+        this.seats = seats;
+    }
+
+    // getters & setters
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    public List<SeatDto> getSeats() { return seats; }
+    public void setSeats(List<SeatDto> seats) { this.seats = seats; }
+}
@@ -0,0 +1,40 @@
+package com.livewave.ticket_api.dto;
+
+import java.util.List;
+
+/**
+ * Answer to "everything after sequence N" for a reconnecting WebSocket client.
+ * Normally the missed frames (updates); if N has already left the replay ring, full is true
+ * and seats is the whole map as of seq. Either way the client continues from seq.
+ */
+public class SeatUpdateReplay {
+    private final Long eventId;
+    private final long seq;
+    private final boolean full;
+    private final List<SeatUpdateBatch> updates;
+    private final List<SeatDto> seats;
+
+    private SeatUpdateReplay(Long eventId, long seq, boolean full,
+                             List<SeatUpdateBatch> updates, List<SeatDto> seats) {
+        this.eventId = eventId;
+        this.seq = seq;
+        this.full = full;
+        this.updates = updates;
+        this.seats = seats;
+    }
+
+    public static SeatUpdateReplay missed(Long eventId, long seq, List<SeatUpdateBatch> updates) {
+        return new SeatUpdateReplay(eventId, seq, false, updates, List.of());
+    }
+
+    public static SeatUpdateReplay snapshot(Long eventId, long seq, List<SeatDto> seats) {
+        return new SeatUpdateReplay(eventId, seq, true, List.of(), seats);
+    }
+
+    // getters
+    public Long getEventId() { return eventId; }
+    public long getSeq() { return seq; }
+    public boolean isFull() { return full; }
+    public List<SeatUpdateBatch> getUpdates() { return updates; }
+    public List<SeatDto> getSeats() { return seats; }
+}
@@ -0,0 +1,34 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Counters of the seat-update fan-out since startup (see WebSocketService).
+ */
+public class SeatUpdateStats {
+    private final long updates;
+    private final long coalesced;
+    private final long batches;
+    private final long maxBatchSize;
+    private final double avgBatchSize;
+    private final double avgLatencyMs;
+    private final double maxLatencyMs;
+
+    public SeatUpdateStats(long updates, long coalesced, long batches, long maxBatchSize,
+                           double avgBatchSize, double avgLatencyMs, double maxLatencyMs) {
+        this.updates = updates;
+        this.coalesced = coalesced;
+        this.batches = batches;
+        this.maxBatchSize = maxBatchSize;
+        this.avgBatchSize = avgBatchSize;
+        this.avgLatencyMs = avgLatencyMs;
+        this.maxLatencyMs = maxLatencyMs;
+    }
+
+    // getters
+    public long getUpdates() { return updates; }
+    public long getCoalesced() { return coalesced; }
+    public long getBatches() { return batches; }
+    public long getMaxBatchSize() { return maxBatchSize; }
+    public double getAvgBatchSize() { return avgBatchSize; }
+    public double getAvgLatencyMs() { return avgLatencyMs; }
+    public double getMaxLatencyMs() { return maxLatencyMs; }
+}
@@ -0,0 +1,30 @@
+package com.livewave.ticket_api.dto;
+
+/**
+ * Rows fromRow..toRow (inclusive, 1-based) of a layout belong to the zone.
+ */
+public class ZoneRange {
+    private String name;
+    private int fromRow;
+    private int toRow;
+
+    public ZoneRange() {}
+
+    public ZoneRange(String name, int fromRow, int toRow) {
+        this.name = name;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    // getters & setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getFromRow() { return fromRow; }
+    public void setFromRow(int fromRow) { this.fromRow = fromRow; }
+    public int getToRow() { return toRow; }
+    public void setToRow(int toRow) { this.toRow = toRow; }
+
+    public boolean contains(int row) {
+        return row >= fromRow && row <= toRow;
+    }
+}
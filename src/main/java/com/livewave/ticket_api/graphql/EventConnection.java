@@ -0,0 +1,34 @@
+package com.livewave.ticket_api.graphql;
+
+import com.livewave.ticket_api.dto.EventPage;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.service.EventCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relay-style connection over a keyset page of events.
+ */
+public class EventConnection {
+    private final List<EventEdge> edges;
+    private final PageInfo pageInfo;
+
+    public EventConnection(List<EventEdge> edges, PageInfo pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    public static EventConnection of(EventPage page) {
+        List<EventEdge> edges = new ArrayList<>(page.getItems().size());
+        for (Event event : page.getItems()) {
+            edges.add(new EventEdge(EventCursor.after(event).encode(), event));
+        }
+
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new EventConnection(edges, new PageInfo(page.isHasNext(), endCursor));
+    }
+
+    public List<EventEdge> getEdges() { return edges; }
+    public PageInfo getPageInfo() { return pageInfo; }
+}
@@ -0,0 +1,16 @@
+package com.livewave.ticket_api.graphql;
+
+import com.livewave.ticket_api.model.Event;
+
+public class EventEdge {
+    private final String cursor;
+    private final Event node;
+
+    public EventEdge(String cursor, Event node) {
+        this.cursor = cursor;
+        this.node = node;
+    }
+
+    public String getCursor() { return cursor; }
+    public Event getNode() { return node; }
+}
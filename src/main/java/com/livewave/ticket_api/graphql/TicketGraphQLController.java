@@ -1,17 +1,24 @@
 package com.livewave.ticket_api.graphql;
 
+import com.livewave.ticket_api.dto.EventSearchPage;
+import com.livewave.ticket_api.dto.SeatAvailability;
 import com.livewave.ticket_api.dto.SeatDto;
-import com.livewave.ticket_api.exception.SeatConflictException;
+import com.livewave.ticket_api.dto.SeatLayoutView;
+import com.livewave.ticket_api.dto.SeatMapDelta;
 import com.livewave.ticket_api.exception.UnauthorizedException;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.model.Seat;
 import com.livewave.ticket_api.model.Ticket;
 import com.livewave.ticket_api.model.User;
 import com.livewave.ticket_api.repository.EventRepository;
-import com.livewave.ticket_api.repository.SeatRepository;
 import com.livewave.ticket_api.repository.TicketRepository;
 import com.livewave.ticket_api.repository.UserRepository;
-import com.livewave.ticket_api.service.TicketService;
+import com.livewave.ticket_api.service.EventService;
+import com.livewave.ticket_api.service.PurchaseSequencer;
+import com.livewave.ticket_api.service.SeatHold;
+import com.livewave.ticket_api.service.SeatHoldService;
+import com.livewave.ticket_api.service.SeatLayoutService;
+import com.livewave.ticket_api.service.SeatMapCodec;
+import com.livewave.ticket_api.service.SeatOccupancyService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.graphql.data.method.annotation.*;
 import org.springframework.stereotype.Controller;
@@ -19,29 +26,39 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Controller
 public class TicketGraphQLController {
 
     private final EventRepository eventRepository;
-    private final SeatRepository seatRepository;
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
-    private final TicketService ticketService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final SeatHoldService seatHoldService;
+    private final PurchaseSequencer purchaseSequencer;
+    private final SeatLayoutService seatLayoutService;
+    private final EventService eventService;
 
     public TicketGraphQLController(
             EventRepository eventRepository,
-            SeatRepository seatRepository,
             TicketRepository ticketRepository,
             UserRepository userRepository,
-            TicketService ticketService
+            SeatOccupancyService seatOccupancyService,
+            SeatHoldService seatHoldService,
+            PurchaseSequencer purchaseSequencer,
+            SeatLayoutService seatLayoutService,
+            EventService eventService
     ) {
         this.eventRepository = eventRepository;
-        this.seatRepository = seatRepository;
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
-        this.ticketService = ticketService;
+        this.seatOccupancyService = seatOccupancyService;
+        this.seatHoldService = seatHoldService;
+        this.purchaseSequencer = purchaseSequencer;
+        this.seatLayoutService = seatLayoutService;
+        this.eventService = eventService;
     }
 
     private HttpServletRequest getRequest() {
@@ -56,48 +73,66 @@ public class TicketGraphQLController {
     public List<Event> events(
             @Argument String city,
             @Argument Integer limit,
-            @Argument Integer offset
+            @Argument Integer offset,
+            @Argument String after
     ) {
-        List<Event> list = (city != null && !city.isBlank())
-                ? eventRepository.findByCityIgnoreCase(city)
-                : eventRepository.findAll();
+        int lim = (limit == null) ? EventService.DEFAULT_PAGE_SIZE : limit;
 
-        int off = (offset == null) ? 0 : Math.max(0, offset);
-        int lim = (limit == null) ? 20 : Math.max(1, Math.min(200, limit));
+        // deprecated: O(offset) in the database, see EventService#findOffsetPage
+        if (offset != null && offset > 0 && after == null) {
+            return eventService.findOffsetPage(city, offset, lim);
+        }
+        return eventService.findPage(city, after, lim).getItems();
+    }
 
-        if (off >= list.size()) return List.of();
-        int to = Math.min(list.size(), off + lim);
-        return list.subList(off, to);
+    @QueryMapping
+    public EventConnection eventsConnection(
+            @Argument String city,
+            @Argument Integer first,
+            @Argument String after
+    ) {
+        return EventConnection.of(eventService.findPage(city, after, first));
+    }
+
+    @QueryMapping
+    public EventSearchPage searchEvents(
+            @Argument String query,
+            @Argument Integer limit,
+            @Argument Integer offset
+    ) {
+        return eventService.search(query, offset, limit);
     }
 
     @QueryMapping
     public Event event(@Argument Long id) {
-        return eventRepository.findById(id).orElse(null);
+        return eventService.findOptional(id).orElse(null);
     }
 
     @QueryMapping
     public List<SeatDto> seats(@Argument Long eventId) {
-        List<Seat> seats = seatRepository.findByEventIdOrderByRowNumAscColNumAsc(eventId);
+        return seatOccupancyService.seatMap(eventId);
+    }
 
-        List<Ticket> tickets = ticketRepository.findByEventId(eventId);
-        Set<Long> bookedSeatIds = tickets.stream()
-                .map(Ticket::getSeatId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+    // compact seat map: layout once (cache by key), then availability polls
+    @QueryMapping
+    public SeatLayoutView seatLayout(@Argument Long eventId) {
+        return SeatMapCodec.layoutView(seatLayoutService.forEvent(eventId));
+    }
 
-        List<SeatDto> dto = new ArrayList<>(seats.size());
-        for (Seat s : seats) {
-            boolean booked = s.getId() != null && bookedSeatIds.contains(s.getId());
-            dto.add(new SeatDto(
-                    s.getId(),
-                    s.getEventId(),
-                    s.getSeatNumber(),
-                    s.getRowNum(),
-                    s.getColNum(),
-                    booked
-            ));
-        }
-        return dto;
+    @QueryMapping
+    public SeatAvailability seatAvailability(@Argument Long eventId) {
+        return seatOccupancyService.availability(eventId);
+    }
+
+    // versions exceed Int, so they travel as strings
+    @QueryMapping
+    public SeatMapDelta seatChanges(@Argument Long eventId, @Argument String since) {
+        return seatOccupancyService.seatMapSince(eventId, since != null ? Long.valueOf(since) : null);
+    }
+
+    @SchemaMapping(typeName = "SeatMapDelta", field = "version")
+    public String seatMapVersion(SeatMapDelta delta) {
+        return String.valueOf(delta.getVersion());
     }
 
     @QueryMapping
@@ -126,12 +161,12 @@ public class TicketGraphQLController {
     // -------------------- Mutations --------------------
 
     @MutationMapping
-    public BuyResult buyTickets(
+    public CompletableFuture<BuyResult> buyTickets(
             @Argument Long eventId,
             @Argument List<String> seatNumbers
     ) {
         if (seatNumbers == null || seatNumbers.isEmpty()) {
-            return new BuyResult("Список мест пуст", 0);
+            return CompletableFuture.completedFuture(new BuyResult("Список мест пуст", 0));
         }
 
         HttpServletRequest req = getRequest();
@@ -144,43 +179,31 @@ public class TicketGraphQLController {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
 
-        List<String> failedSeats = new ArrayList<>();
-        int created = 0;
-
-        for (String seatNumber : seatNumbers) {
-            Seat seat = seatRepository
-                    .findByEventIdAndSeatNumber(eventId, seatNumber)
-                    .orElse(null);
-
-            if (seat == null) {
-                failedSeats.add(seatNumber);
-                continue;
-            }
-
-            boolean alreadyBought = ticketRepository
-                    .findByEventIdAndSeatId(eventId, seat.getId())
-                    .isPresent();
-
-            if (alreadyBought) {
-                failedSeats.add(seatNumber);
-                continue;
-            }
+        return purchaseSequencer
+                .submit(event, user, seatNumbers)
+                .thenApply(created -> new BuyResult("Покупка успешна!", created.size()));
+    }
 
-            Ticket ticket = new Ticket();
-            ticket.setEvent(event);
-            ticket.setUser(user);
-            ticket.setSeatNumber(seatNumber);
-            ticket.setSeatId(seat.getId());
+    @MutationMapping
+    public SeatHold holdSeats(
+            @Argument Long eventId,
+            @Argument List<String> seatNumbers
+    ) {
+        HttpServletRequest req = getRequest();
+        String email = (req != null) ? (String) req.getAttribute("email") : null;
+        if (email == null) throw new UnauthorizedException("Unauthorized");
 
-            ticketService.save(ticket);
-            created++;
-        }
+        return seatHoldService.hold(eventId, seatNumbers, email);
+    }
 
-        if (!failedSeats.isEmpty()) {
-            throw new SeatConflictException(failedSeats);
-        }
+    @MutationMapping
+    public boolean releaseHold(@Argument String holdId) {
+        HttpServletRequest req = getRequest();
+        String email = (req != null) ? (String) req.getAttribute("email") : null;
+        if (email == null) throw new UnauthorizedException("Unauthorized");
 
-        return new BuyResult("Покупка успешна!", created);
+        seatHoldService.release(holdId, email);
+        return true;
     }
 
     // -------------------- Field resolvers (optimized) --------------------
@@ -204,46 +227,11 @@ public class TicketGraphQLController {
 
     @BatchMapping(typeName = "Event", field = "seats")
     public Map<Event, List<SeatDto>> eventSeats(List<Event> events) {
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        if (eventIds.isEmpty()) {
-            return events.stream().collect(Collectors.toMap(e -> e, e -> List.of()));
-        }
-
-        List<Seat> seats = seatRepository.findByEventIdInOrderByRowNumAscColNumAsc(eventIds);
-
-        List<Ticket> tickets = ticketRepository.findByEventIds(eventIds);
-
-        Map<Long, Set<Long>> bookedByEvent = new HashMap<>();
-        for (Ticket t : tickets) {
-            if (t.getEvent() == null || t.getEvent().getId() == null || t.getSeatId() == null) continue;
-            bookedByEvent.computeIfAbsent(t.getEvent().getId(), k -> new HashSet<>()).add(t.getSeatId());
-        }
-
-        Map<Long, List<Seat>> seatsByEvent = seats.stream()
-                .collect(Collectors.groupingBy(Seat::getEventId, LinkedHashMap::new, Collectors.toList()));
-
+        // layouts and occupancy are cached in memory, so no per-event queries here
         Map<Event, List<SeatDto>> out = new LinkedHashMap<>();
         for (Event e : events) {
-            List<Seat> list = seatsByEvent.getOrDefault(e.getId(), List.of());
-            Set<Long> booked = bookedByEvent.getOrDefault(e.getId(), Set.of());
-
-            List<SeatDto> dto = new ArrayList<>(list.size());
-            for (Seat s : list) {
-                dto.add(new SeatDto(
-                        s.getId(),
-                        s.getEventId(),
-                        s.getSeatNumber(),
-                        s.getRowNum(),
-                        s.getColNum(),
-                        s.getId() != null && booked.contains(s.getId())
-                ));
-            }
-            out.put(e, dto);
+            out.put(e, e.getId() != null ? seatOccupancyService.seatMap(e.getId()) : List.of());
         }
         return out;
     }
-}
\ No newline at end of file
+}
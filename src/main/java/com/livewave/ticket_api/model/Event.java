@@ -3,12 +3,22 @@ package com.livewave.ticket_api.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.Locale;
 
 
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name = "events")
+@Table(
+        name = "events",
+        // keyset pagination over the catalog (see EventRepository)
+        indexes = {
+                @Index(name = "idx_events_date_id", columnList = "date, id"),
+                // city filters and city keyset pages (see EventRepository)
+                @Index(name = "idx_events_city_key_date_id", columnList = "city_key, date, id")
+        }
+)
 @Data
 public class Event {
     @Id
@@ -21,6 +31,12 @@ public class Event {
     private Double price;
 
     private String city;
+
+    // normalized city for lookups, kept in sync with city (see cityKeyOf)
+    @JsonIgnore
+    @Column(name = "city_key")
+    private String cityKey;
+
     private String venue;
 
     private String location;
@@ -28,5 +44,25 @@ public class Event {
     private String imageBanner;
     private String imageKey;
 
+    // shared hall template; null for older events that still own rows in the seats table
+    @Column(name = "layout_id")
+    private Long layoutId;
+
+    @PrePersist
+    @PreUpdate
+    void updateCityKey() {
+        this.cityKey = cityKeyOf(city);
+    }
+
+    /**
+     * Case-, whitespace- and ё-insensitive form of a city name; null for a blank one.
+     */
+    public static String cityKeyOf(String city) {
+        if (city == null || city.isBlank()) return null;
 
+        return city.trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT)
+                .replace('ё', 'е');
+    }
 }
@@ -0,0 +1,32 @@
+package com.livewave.ticket_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Entity
+@Table(
+        name = "layout_seats",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"layout_id", "seat_number"})
+)
+@Data
+public class LayoutSeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "layout_id", nullable = false)
+    private Long layoutId;
+
+    @Column(name = "seat_number", nullable = false)
+    private String seatNumber;
+
+    @Column(name = "row_num")
+    private Integer rowNum;
+
+    @Column(name = "col_num")
+    private Integer colNum;
+
+    // e.g. VIP, Parterre; null when the hall has no zones
+    private String zone;
+}
@@ -0,0 +1,39 @@
+package com.livewave.ticket_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Side effect of a committed write, stored in the same transaction as the write itself
+ * and delivered afterwards by OutboxRelay. The row is deleted once delivered.
+ */
+@Data
+@Entity
+@Table(name = "outbox_messages")
+public class OutboxMessage {
+
+    public enum Type { SEAT_UPDATE, PUSH }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    // one row per side effect, however many times the write is retried
+    @Column(name = "dedupe_key", nullable = false, unique = true)
+    private String dedupeKey;
+
+    // JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
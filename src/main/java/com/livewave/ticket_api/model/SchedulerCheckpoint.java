@@ -0,0 +1,21 @@
+package com.livewave.ticket_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * How far an in-memory scheduler has got; everything due up to reachedAt is done.
+ * Lets the scheduler rebuild its state after a restart from this one row.
+ */
+@Data
+@Entity
+@Table(name = "scheduler_checkpoints")
+public class SchedulerCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(name = "reached_at", nullable = false)
+    private LocalDateTime reachedAt;
+}
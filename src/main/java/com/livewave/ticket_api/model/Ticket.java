@@ -9,7 +9,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @Entity
 @Table(
         name = "tickets",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "seat_id"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "seat_id"}),
+        // tickets of one event (reminder recipients), and the instant-reminder flag
+        indexes = @Index(name = "idx_tickets_event_reminder", columnList = "event_id, reminder_sent")
 )
 public class Ticket {
 
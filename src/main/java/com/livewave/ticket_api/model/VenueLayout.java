@@ -0,0 +1,38 @@
+package com.livewave.ticket_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Seat geometry of a hall, stored once and shared by every event held there.
+ */
+@Data
+@Entity
+@Table(name = "venue_layouts")
+public class VenueLayout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    private String venue;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "col_count", nullable = false)
+    private Integer colCount;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    // venue + size of an auto-created plain grid, so each grid exists only once; null otherwise
+    @Column(name = "grid_key", unique = true)
+    private String gridKey;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,9 +1,58 @@
 package com.livewave.ticket_api.repository;
 
 import com.livewave.ticket_api.model.Event;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
-    List<Event> findByCityIgnoreCase(String city);
+    // city_key is maintained by Event itself; see Event#cityKeyOf
+    List<Event> findByCityKeyOrderByDateAscIdAsc(String cityKey);
+
+    @Query("SELECT e FROM Event e WHERE e.cityKey IS NULL AND e.city IS NOT NULL")
+    List<Event> findWithoutCityKey();
+
+    // rows of the in-memory city index: id, city, cityKey, date
+    @Query("SELECT e.id, e.city, e.cityKey, e.date FROM Event e WHERE e.cityKey IS NOT NULL")
+    List<Object[]> findCityIndexRows();
+
+    // reminder schedule: id, date of events that have not started by the given time
+    @Query("SELECT e.id, e.date FROM Event e WHERE e.date > :after")
+    List<Object[]> findScheduleRows(@Param("after") LocalDateTime after);
+
+    @Query("SELECT e.layoutId FROM Event e WHERE e.id = :id")
+    Long findLayoutIdById(@Param("id") Long id);
+
+    // Keyset pages in (date, id) order, served by idx_events_date_id (idx_events_city_key_date_id
+    // with a city key). The city key is optional.
+    // Events without a date follow the dated ones, in id order.
+
+    @Query("SELECT e FROM Event e WHERE e.date IS NOT NULL " +
+            "AND (:cityKey IS NULL OR e.cityKey = :cityKey) " +
+            "ORDER BY e.date ASC, e.id ASC")
+    List<Event> findFirstDatedPage(@Param("cityKey") String cityKey, Pageable page);
+
+    @Query("SELECT e FROM Event e WHERE e.date >= :date AND (e.date > :date OR e.id > :id) " +
+            "AND (:cityKey IS NULL OR e.cityKey = :cityKey) " +
+            "ORDER BY e.date ASC, e.id ASC")
+    List<Event> findDatedPageAfter(@Param("cityKey") String cityKey,
+                                   @Param("date") LocalDateTime date,
+                                   @Param("id") Long id,
+                                   Pageable page);
+
+    @Query("SELECT e FROM Event e WHERE e.date IS NULL AND e.id > :id " +
+            "AND (:cityKey IS NULL OR e.cityKey = :cityKey) " +
+            "ORDER BY e.id ASC")
+    List<Event> findUndatedPageAfter(@Param("cityKey") String cityKey,
+                                     @Param("id") Long id,
+                                     Pageable page);
+
+    // offset paging for the legacy GraphQL events(offset:) argument, same order as the keyset pages
+    @Query("SELECT e FROM Event e WHERE (:cityKey IS NULL OR e.cityKey = :cityKey) " +
+            "ORDER BY e.date ASC NULLS LAST, e.id ASC")
+    List<Event> findOrdered(@Param("cityKey") String cityKey, Pageable page);
 }
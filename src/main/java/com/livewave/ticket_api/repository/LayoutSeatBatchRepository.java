@@ -0,0 +1,13 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.LayoutSeat;
+
+import java.util.List;
+
+public interface LayoutSeatBatchRepository {
+
+    /**
+     * Inserts the seats with one JDBC batch and assigns their generated ids.
+     */
+    void insertAll(List<LayoutSeat> seats);
+}
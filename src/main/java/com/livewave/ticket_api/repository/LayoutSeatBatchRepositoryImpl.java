@@ -0,0 +1,46 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.LayoutSeat;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+public class LayoutSeatBatchRepositoryImpl implements LayoutSeatBatchRepository {
+
+    private static final String NEXT_IDS_SQL = """
+        SELECT nextval(pg_get_serial_sequence('layout_seats', 'id'))
+        FROM generate_series(1, ?)
+    """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO layout_seats (id, layout_id, seat_number, row_num, col_num, zone)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LayoutSeatBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<LayoutSeat> seats) {
+        if (seats.isEmpty()) return;
+
+        // ids up front: the batch needs no RETURNING and stays rewritable into multi-row INSERTs
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, seats.size());
+        for (int i = 0; i < seats.size(); i++) {
+            seats.get(i).setId(ids.get(i));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, seats, seats.size(), (ps, s) -> {
+            ps.setLong(1, s.getId());
+            ps.setLong(2, s.getLayoutId());
+            ps.setString(3, s.getSeatNumber());
+            ps.setObject(4, s.getRowNum(), Types.INTEGER);
+            ps.setObject(5, s.getColNum(), Types.INTEGER);
+            ps.setString(6, s.getZone());
+        });
+    }
+}
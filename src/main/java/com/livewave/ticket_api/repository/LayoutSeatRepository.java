@@ -0,0 +1,10 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.LayoutSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LayoutSeatRepository extends JpaRepository<LayoutSeat, Long>, LayoutSeatBatchRepository {
+    List<LayoutSeat> findByLayoutIdOrderByRowNumAscColNumAsc(Long layoutId);
+}
@@ -0,0 +1,13 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.OutboxMessage;
+
+import java.util.List;
+
+public interface OutboxBatchRepository {
+
+    /**
+     * Inserts all messages with a single JDBC batch; a message whose dedupe key already exists is skipped.
+     */
+    void insertAll(List<OutboxMessage> messages);
+}
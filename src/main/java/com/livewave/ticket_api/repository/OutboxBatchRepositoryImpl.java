@@ -0,0 +1,47 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.OutboxMessage;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+public class OutboxBatchRepositoryImpl implements OutboxBatchRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO outbox_messages (type, event_id, dedupe_key, payload, created_at)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (dedupe_key) DO NOTHING
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OutboxMessage m = messages.get(i);
+                ps.setString(1, m.getType().name());
+                ps.setObject(2, m.getEventId(), Types.BIGINT);
+                ps.setString(3, m.getDedupeKey());
+                ps.setString(4, m.getPayload());
+                ps.setObject(5, m.getCreatedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return messages.size();
+            }
+        });
+    }
+}
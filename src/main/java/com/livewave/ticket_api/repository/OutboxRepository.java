@@ -0,0 +1,23 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long>, OutboxBatchRepository {
+
+    /**
+     * Oldest undelivered messages, locked until the transaction ends;
+     * rows locked by another instance's relay are skipped, not waited for.
+     */
+    @Query(value = """
+        SELECT * FROM outbox_messages
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<OutboxMessage> lockBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,7 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.SchedulerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SchedulerCheckpointRepository extends JpaRepository<SchedulerCheckpoint, String> {
+}
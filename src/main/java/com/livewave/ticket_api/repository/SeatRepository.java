@@ -2,12 +2,16 @@ package com.livewave.ticket_api.repository;
 
 import com.livewave.ticket_api.model.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Per-event seat rows of events created before venue layouts (see VenueLayout).
+ */
 public interface SeatRepository extends JpaRepository<Seat, Long> {
     List<Seat> findByEventIdOrderByRowNumAscColNumAsc(Long eventId);
     Optional<Seat> findByEventIdAndSeatNumber(Long eventId, String seatNumber);
@@ -18,4 +22,8 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
         ORDER BY s.rowNum ASC, s.colNum ASC
     """)
     List<Seat> findByEventIdInOrderByRowNumAscColNumAsc(@Param("eventIds") List<Long> eventIds);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+}
@@ -0,0 +1,13 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.Ticket;
+
+import java.util.List;
+
+public interface TicketBatchRepository {
+
+    /**
+     * Inserts all tickets with a single JDBC batch and assigns the generated ids.
+     */
+    void insertAll(List<Ticket> tickets);
+}
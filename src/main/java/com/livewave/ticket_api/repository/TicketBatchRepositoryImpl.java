@@ -0,0 +1,61 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.Ticket;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+public class TicketBatchRepositoryImpl implements TicketBatchRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO tickets (event_id, seat_id, seat_number, user_id, purchase_date, reminder_sent)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Ticket> tickets) {
+        if (tickets.isEmpty()) return;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Ticket t = tickets.get(i);
+                        ps.setLong(1, t.getEvent().getId());
+                        ps.setObject(2, t.getSeatId(), Types.BIGINT);
+                        ps.setString(3, t.getSeatNumber());
+                        ps.setObject(4, t.getUser() != null ? t.getUser().getId() : null, Types.BIGINT);
+                        ps.setObject(5, t.getPurchaseDate());
+                        ps.setBoolean(6, t.isReminderSent());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return tickets.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < tickets.size() && i < keys.size(); i++) {
+            tickets.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
+}
@@ -2,14 +2,17 @@ package com.livewave.ticket_api.repository;
 
 import com.livewave.ticket_api.model.Ticket;
 import com.livewave.ticket_api.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, TicketBatchRepository {
 
     Optional<Ticket> findByEventIdAndSeatNumber(Long eventId, String seatNumber);
 
@@ -27,10 +30,56 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     List<Ticket> findByEventIds(@Param("eventIds") List<Long> eventIds);
 
     @Query("""
-        SELECT t FROM Ticket t
-        JOIN FETCH t.user
-        JOIN FETCH t.event
-        WHERE t.reminderSent = false
+        SELECT t.seatId FROM Ticket t
+        WHERE t.event.id = :eventId AND t.seatId IS NOT NULL
+    """)
+    List<Long> findBookedSeatIdsByEventId(@Param("eventId") Long eventId);
+
+    @Query("""
+        SELECT t.seatId FROM Ticket t
+        WHERE t.event.id = :eventId AND t.seatId IN :seatIds
+    """)
+    List<Long> findBookedSeatIds(@Param("eventId") Long eventId,
+                                 @Param("seatIds") Collection<Long> seatIds);
+
+    @Query("""
+        SELECT COUNT(t) FROM Ticket t
+        WHERE t.event.id = :eventId
+          AND (t.seatNumber IS NULL OR t.seatNumber NOT IN (
+              SELECT ls.seatNumber FROM LayoutSeat ls WHERE ls.layoutId = :layoutId
+          ))
+    """)
+    long countTicketsMissingFromLayout(@Param("eventId") Long eventId,
+                                       @Param("layoutId") Long layoutId);
+
+    // two steps: cleared first so the (event_id, seat_id) constraint never sees an old/new id clash
+    @Modifying
+    @Query("UPDATE Ticket t SET t.seatId = NULL WHERE t.event.id = :eventId")
+    int clearSeatIds(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query(value = """
+        UPDATE tickets t SET seat_id = ls.id
+        FROM layout_seats ls
+        WHERE t.event_id = :eventId
+          AND ls.layout_id = :layoutId
+          AND ls.seat_number = t.seat_number
+    """, nativeQuery = true)
+    int remapSeatIdsToLayout(@Param("eventId") Long eventId,
+                             @Param("layoutId") Long layoutId);
+
+    /**
+     * Push tokens of the event's ticket holders, each once, in token order after the given one.
+     * Read chunk by chunk via the pageable size; start with "" (empty tokens are skipped).
+     */
+    @Query("""
+        SELECT DISTINCT u.fcmToken FROM Ticket t
+        JOIN t.user u
+        WHERE t.event.id = :eventId
+          AND u.fcmToken > :after
+        ORDER BY u.fcmToken
     """)
-    List<Ticket> findTicketsForReminder();
-}
\ No newline at end of file
+    List<String> findReminderTokens(@Param("eventId") Long eventId,
+                                    @Param("after") String after,
+                                    Pageable pageable);
+}
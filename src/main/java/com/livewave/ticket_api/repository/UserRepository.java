@@ -2,10 +2,26 @@ package com.livewave.ticket_api.repository;
 
 import com.livewave.ticket_api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByResetToken(String token);
+
+    @Modifying
+    @Query("UPDATE User u SET u.fcmToken = :fcmToken WHERE u.id = :id")
+    int updateFcmToken(@Param("id") Long id, @Param("fcmToken") String fcmToken);
+
+    // tokens FCM reported as unregistered
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") Collection<String> tokens);
 }
 
@@ -0,0 +1,10 @@
+package com.livewave.ticket_api.repository;
+
+import com.livewave.ticket_api.model.VenueLayout;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface VenueLayoutRepository extends JpaRepository<VenueLayout, Long> {
+    Optional<VenueLayout> findByGridKey(String gridKey);
+}
@@ -0,0 +1,131 @@
+package com.livewave.ticket_api.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: O(1) schedule, no scanning of pending items.
+ * Items are handed over through a lock-free queue and only the ticker thread touches the buckets.
+ * Deadlines are epoch millis; an item never fires before its deadline and at most one tick after it.
+ */
+public class HashedTimingWheel<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final String name;
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Entry<T>>[] buckets;
+    private final Consumer<T> onExpire;
+
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final long startMillis = System.currentTimeMillis();
+    private long currentTick = 0;
+
+    private ScheduledExecutorService ticker;
+
+    private record Entry<T>(T item, long deadlineTick) {}
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpire) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+
+        this.name = name;
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.onExpire = onExpire;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public synchronized void start() {
+        if (ticker != null) return;
+
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        long delta = Math.max(0, deadlineMillis - startMillis);
+        long deadlineTick = (delta + tickMillis - 1) / tickMillis;
+        incoming.add(new Entry<>(item, deadlineTick));
+        size.incrementAndGet();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Processes every tick that is due by now. Runs on the ticker thread only.
+     */
+    void advance() {
+        try {
+            long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+
+            while (currentTick <= targetTick) {
+                transferIncoming();
+                expireBucket(currentTick);
+                currentTick++;
+            }
+        } catch (Exception e) {
+            logger.error("Timing wheel {} tick failed", name, e);
+        }
+    }
+
+    private void transferIncoming() {
+        Entry<T> e;
+        while ((e = incoming.poll()) != null) {
+            // late items go to the current tick so they fire right away
+            long tick = Math.max(e.deadlineTick(), currentTick);
+            buckets[(int) (tick & mask)].add(e);
+        }
+    }
+
+    private void expireBucket(long tick) {
+        Queue<Entry<T>> bucket = buckets[(int) (tick & mask)];
+
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            Entry<T> e = bucket.poll();
+
+            if (e.deadlineTick() > tick) {
+                // not due yet — later round of the wheel
+                bucket.add(e);
+                continue;
+            }
+
+            size.decrementAndGet();
+            try {
+                onExpire.accept(e.item());
+            } catch (Exception ex) {
+                logger.error("Timing wheel {} callback failed", name, ex);
+            }
+        }
+    }
+}
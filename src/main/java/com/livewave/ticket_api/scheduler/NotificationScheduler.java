@@ -1,75 +1,317 @@
 package com.livewave.ticket_api.scheduler;
 
 import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.SchedulerCheckpoint;
 import com.livewave.ticket_api.model.Ticket;
+import com.livewave.ticket_api.repository.EventRepository;
+import com.livewave.ticket_api.repository.SchedulerCheckpointRepository;
 import com.livewave.ticket_api.repository.TicketRepository;
 import com.livewave.ticket_api.service.NotificationService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import com.livewave.ticket_api.service.PushMessage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Event reminders at their exact due time, one per configured offset before the event (24h and 1h by default).
+ * Reminders are per event, not per ticket: they sit in a timing wheel and, when one fires,
+ * the push tokens of the event's ticket holders are streamed from the database.
+ * The wheel is loaded at startup and kept current by EventService (created, rescheduled, deleted events);
+ * a reminder whose event date changed meanwhile is skipped.
+ * Only a high-water mark is persisted: after a restart, reminders due after it are scheduled again
+ * and the ones missed while the app was down go out right away.
+ * A reminder that fails (e.g. the database is down) is retried with backoff until its event starts,
+ * and holds the mark back until it succeeds.
+ */
 @Component
-@RequiredArgsConstructor
 public class NotificationScheduler {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationScheduler.class);
+
+    static final String CHECKPOINT = "event-reminders";
+
+    private final EventRepository eventRepository;
     private final TicketRepository ticketRepository;
     private final NotificationService notificationService;
+    private final SchedulerCheckpointRepository checkpointRepository;
+
+    // minutes before the event
+    @Value("${notifications.reminders.offsets-minutes:1440,60}")
+    private long[] offsetsMinutes = {1440, 60};
+
+    // push tokens read per round trip
+    @Value("${notifications.reminders.chunk-size:500}")
+    private int chunkSize = 500;
+
+    // first retry delay of a failed reminder; doubles per attempt up to max-retry-ms
+    @Value("${notifications.reminders.retry-ms:30000}")
+    private long retryMs = 30000;
+
+    @Value("${notifications.reminders.max-retry-ms:600000}")
+    private long maxRetryMs = 600000;
+
+    // ~68 minutes per lap of the wheel; reminders further out wait for later laps
+    private final HashedTimingWheel<Reminder> wheel =
+            new HashedTimingWheel<>("event-reminder", 1000, 4096, this::fire);
+
+    // reminders fire one at a time, in wheel order, off the ticker thread
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "event-reminder-sender");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // current date of every scheduled event; reminders carrying another date are stale
+    private final ConcurrentMap<Long, LocalDateTime> eventDates = new ConcurrentHashMap<>();
 
-    // каждые 10 минут
-    @Scheduled(fixedRate = 600000)
-    public void sendEventReminders() {
+    // every reminder due up to here has been sent
+    private volatile LocalDateTime highWaterMark;
 
+    // failed reminders waiting for a retry -> attempts so far; only touched on the sender thread
+    private final Map<Reminder, Integer> failing = new HashMap<>();
+
+    record Reminder(Long eventId, LocalDateTime eventDate, long offsetMinutes, LocalDateTime fireAt) {}
+
+    public NotificationScheduler(EventRepository eventRepository,
+                                 TicketRepository ticketRepository,
+                                 NotificationService notificationService,
+                                 SchedulerCheckpointRepository checkpointRepository) {
+        this.eventRepository = eventRepository;
+        this.ticketRepository = ticketRepository;
+        this.notificationService = notificationService;
+        this.checkpointRepository = checkpointRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
         LocalDateTime now = LocalDateTime.now();
-        System.out.println("Scheduler run at: " + now);
+        highWaterMark = checkpointRepository.findById(CHECKPOINT)
+                .map(SchedulerCheckpoint::getReachedAt)
+                .orElse(now);
 
-        List<Ticket> tickets = ticketRepository.findTicketsForReminder();
-        System.out.println("Tickets to check: " + tickets.size());
+        List<Object[]> rows = eventRepository.findScheduleRows(highWaterMark);
+        for (Object[] row : rows) {
+            Long eventId = (Long) row[0];
+            LocalDateTime date = (LocalDateTime) row[1];
+            eventDates.put(eventId, date);
+            scheduleReminders(eventId, date, highWaterMark, now);
+        }
 
-        for (Ticket ticket : tickets) {
-            try {
+        wheel.start();
+        logger.info("Event reminders: {} events loaded, {} reminders pending since {}",
+                rows.size(), wheel.size(), highWaterMark);
+    }
 
-                Event event = ticket.getEvent();
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+        sender.shutdownNow();
+    }
 
-                if (event == null || event.getDate() == null)
-                    continue;
+    /**
+     * Called after an event is created or saved. A new date replaces the old reminders;
+     * those already past for the new date are collapsed into one reminder sent now.
+     */
+    public void schedule(Event event) {
+        if (event.getId() == null) return;
 
-                LocalDateTime eventDate = event.getDate();
+        if (event.getDate() == null) {
+            eventDates.remove(event.getId());
+            return;
+        }
 
-                long hours = Duration.between(now, eventDate).toHours();
+        LocalDateTime previous = eventDates.put(event.getId(), event.getDate());
+        if (event.getDate().equals(previous)) return;
 
-                System.out.println("Event: " + event.getTitle());
-                System.out.println("Hours until event: " + hours);
+        LocalDateTime now = LocalDateTime.now();
+        // nothing was sent for a new date yet; a new event starts from the high-water mark
+        LocalDateTime sentUpTo = (previous == null) ? highWaterMark() : LocalDateTime.MIN;
+        scheduleReminders(event.getId(), event.getDate(), sentUpTo, now);
+    }
+
+    public void remove(Long eventId) {
+        eventDates.remove(eventId);
+    }
 
-                // окно 24 часа
-                if (hours <= 24 && hours >= 23) {
+    /**
+     * Reminder for a ticket bought after the event's first reminder already went out,
+     * or empty if the buyer gets the regular ones. Only decides; TicketService stores it
+     * in the outbox with the ticket.
+     */
+    public Optional<PushMessage> instantReminder(Ticket ticket) {
+        Event event = ticket.getEvent();
+        if (event == null || event.getDate() == null || ticket.getUser() == null) return Optional.empty();
 
-                    if (ticket.getUser() == null)
-                        continue;
+        String token = ticket.getUser().getFcmToken();
+        if (token == null || token.isBlank()) return Optional.empty();
 
-                    String token = ticket.getUser().getFcmToken();
+        // strictly inside an offset: at its exact boundary the scheduled reminder still reaches this buyer
+        long secondsLeft = Duration.between(LocalDateTime.now(), event.getDate()).toSeconds();
+        Long offset = smallestOffsetAbove(secondsLeft);
+        if (secondsLeft < 0 || offset == null) return Optional.empty();
+
+        return Optional.of(new PushMessage(
+                token,
+                "Билет успешно куплен",
+                "Событие \"" + event.getTitle() + "\" начнётся менее чем через " + untilText(offset),
+                Map.of("type", "EVENT_REMINDER")
+        ));
+    }
+
+    int pending() {
+        return wheel.size();
+    }
 
-                    if (token == null || token.isBlank())
-                        continue;
+    LocalDateTime highWaterMark() {
+        LocalDateTime mark = highWaterMark;
+        return (mark != null) ? mark : LocalDateTime.now();
+    }
 
-                    notificationService.sendPush(
-                            token,
-                            "Напоминание о событии",
-                            "Событие \"" + event.getTitle() + "\" начнётся через 24 часа"
-                    );
+    private void scheduleReminders(Long eventId, LocalDateTime date, LocalDateTime sentUpTo, LocalDateTime now) {
+        if (!date.isAfter(now)) return;
 
-                    ticket.setReminderSent(true);
-                    ticketRepository.save(ticket);
+        // offsets already past for this date: only the closest one is sent, right away
+        Long catchUp = null;
 
-                    System.out.println("Reminder sent for ticket " + ticket.getId());
-                }
+        for (long offset : offsetsMinutes) {
+            LocalDateTime fireAt = date.minusMinutes(offset);
 
-            } catch (Exception e) {
-                e.printStackTrace();
+            if (fireAt.isAfter(now)) {
+                wheel.schedule(new Reminder(eventId, date, offset, fireAt), toMillis(fireAt));
+            } else if (fireAt.isAfter(sentUpTo) && (catchUp == null || offset < catchUp)) {
+                catchUp = offset;
             }
         }
+
+        if (catchUp != null) {
+            wheel.schedule(new Reminder(eventId, date, catchUp, now), toMillis(now));
+        }
+    }
+
+    private void fire(Reminder reminder) {
+        sender.execute(() -> deliver(reminder));
+    }
+
+    void deliver(Reminder reminder) {
+        try {
+            if (reminder.eventDate().equals(eventDates.get(reminder.eventId()))) {
+                send(reminder);
+            }
+            failing.remove(reminder);
+        } catch (Exception e) {
+            retryLater(reminder, e);
+        }
+        advanceHighWaterMark(reminder.fireAt());
+    }
+
+    private void retryLater(Reminder reminder, Exception e) {
+        int attempt = failing.merge(reminder, 1, Integer::sum);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!reminder.eventDate().isAfter(now)) {
+            failing.remove(reminder);
+            logger.error("Event reminder for event {} failed, event has started, giving up",
+                    reminder.eventId(), e);
+            return;
+        }
+
+        long delay = Math.min(maxRetryMs, retryMs << Math.min(attempt - 1, 20));
+        logger.warn("Event reminder for event {} failed (attempt {}), retrying in {} ms: {}",
+                reminder.eventId(), attempt, delay, e.getMessage());
+        wheel.schedule(reminder, toMillis(now) + delay);
+    }
+
+    private void send(Reminder reminder) {
+        Event event = eventRepository.findById(reminder.eventId()).orElse(null);
+        if (event == null) return;
+
+        // a catch-up reminder goes out later than its offset
+        boolean late = reminder.fireAt().isAfter(reminder.eventDate().minusMinutes(reminder.offsetMinutes()));
+        String body = "Событие \"" + event.getTitle() + "\" начнётся "
+                + (late ? "менее чем через " : "через ") + untilText(reminder.offsetMinutes());
+        int queued = 0;
+        String after = "";
+
+        while (true) {
+            List<String> tokens = ticketRepository.findReminderTokens(
+                    reminder.eventId(), after, PageRequest.ofSize(chunkSize));
+
+            for (String token : tokens) {
+                if (notificationService.enqueuePush(token, "Напоминание о событии", body)) queued++;
+            }
+
+            if (tokens.size() < chunkSize) break;
+            after = tokens.get(tokens.size() - 1);
+        }
+
+        logger.info("Event reminder ({} min) for event {}: {} pushes queued",
+                reminder.offsetMinutes(), reminder.eventId(), queued);
+    }
+
+    private void advanceHighWaterMark(LocalDateTime reached) {
+        // not past a reminder that still has to be retried
+        for (Reminder pending : failing.keySet()) {
+            LocalDateTime before = pending.fireAt().minusSeconds(1);
+            if (before.isBefore(reached)) reached = before;
+        }
+
+        if (highWaterMark != null && !reached.isAfter(highWaterMark)) return;
+        highWaterMark = reached;
+
+        try {
+            SchedulerCheckpoint checkpoint = new SchedulerCheckpoint();
+            checkpoint.setName(CHECKPOINT);
+            checkpoint.setReachedAt(reached);
+            checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            // next reminder saves a later mark; a restart in between only resends this one
+            logger.warn("Failed to save reminder checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private Long smallestOffsetAbove(long seconds) {
+        Long best = null;
+        for (long offset : offsetsMinutes) {
+            if (offset * 60 > seconds && (best == null || offset < best)) best = offset;
+        }
+        return best;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // "24 часа", "1 час", "30 минут"
+    static String untilText(long minutes) {
+        if (minutes % 60 == 0) {
+            long hours = minutes / 60;
+            return hours + " " + plural(hours, "час", "часа", "часов");
+        }
+        return minutes + " " + plural(minutes, "минуту", "минуты", "минут");
+    }
+
+    private static String plural(long n, String one, String few, String many) {
+        long mod100 = n % 100;
+        long mod10 = n % 10;
+        if (mod10 == 1 && mod100 != 11) return one;
+        if (mod10 >= 2 && mod10 <= 4 && (mod100 < 12 || mod100 > 14)) return few;
+        return many;
     }
 }
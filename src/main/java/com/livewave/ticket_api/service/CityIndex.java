@@ -0,0 +1,178 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.CityFacet;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * In-memory city key -> events index of the catalog.
+ * Loaded once at startup, then kept in sync by EventService after each committed write,
+ * so city facets are answered without a GROUP BY over events.
+ */
+@Service
+public class CityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CityIndex.class);
+
+    // catalog order: by date, events without a date last, then by id
+    private static final Comparator<EventCursor> ORDER = Comparator
+            .comparing(EventCursor::date, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(EventCursor::id);
+
+    private final EventRepository eventRepository;
+
+    private static final class CityEvents {
+        String name;
+        final NavigableSet<EventCursor> events = new TreeSet<>(ORDER);
+    }
+
+    // committed city and date of one event; a null key records its removal
+    private record Write(Long id, String name, String key, LocalDateTime date) {}
+
+    private static final class Cities {
+        final Map<String, CityEvents> byKey = new HashMap<>();
+        final Map<Long, EventCursor> positions = new HashMap<>();
+        final Map<Long, String> cityKeys = new HashMap<>();
+
+        void apply(Write write) {
+            remove(write.id());
+            add(write);
+        }
+
+        private void remove(Long eventId) {
+            String key = cityKeys.remove(eventId);
+            EventCursor position = positions.remove(eventId);
+            if (key == null) return;
+
+            CityEvents city = byKey.get(key);
+            city.events.remove(position);
+            if (city.events.isEmpty()) {
+                byKey.remove(key);
+            }
+        }
+
+        private void add(Write write) {
+            if (write.key() == null) return;
+
+            EventCursor position = new EventCursor(write.date(), write.id());
+            CityEvents city = byKey.computeIfAbsent(write.key(), k -> new CityEvents());
+            // the most recently written spelling is shown
+            city.name = write.name().trim();
+            city.events.add(position);
+
+            positions.put(write.id(), position);
+            cityKeys.put(write.id(), write.key());
+        }
+    }
+
+    // both guarded by this; pending is non-null only while load() is reading the table
+    private Cities cities = new Cities();
+    private List<Write> pending;
+
+    public CityIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Rebuilds the index from the table off to the side and swaps it in; writes recorded
+     * while the rows were being read are replayed over it first, so none of them is lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        backfillCityKeys();
+
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+
+        Cities loaded = new Cities();
+        List<Object[]> rows;
+        try {
+            rows = eventRepository.findCityIndexRows();
+            for (Object[] row : rows) {
+                loaded.add(new Write((Long) row[0], (String) row[1], (String) row[2], (LocalDateTime) row[3]));
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pending.forEach(loaded::apply);
+            pending = null;
+            cities = loaded;
+        }
+        logger.info("City index loaded: {} events in {} cities", rows.size(), loaded.byKey.size());
+    }
+
+    // events written before city_key existed
+    private void backfillCityKeys() {
+        List<Event> missing = eventRepository.findWithoutCityKey();
+        if (missing.isEmpty()) return;
+
+        for (Event event : missing) {
+            event.setCityKey(Event.cityKeyOf(event.getCity()));
+        }
+        eventRepository.saveAll(missing);
+        logger.info("Filled city_key for {} events", missing.size());
+    }
+
+    /**
+     * Records the committed state of an event, moving it if its city or date changed.
+     */
+    public void put(Event event) {
+        write(new Write(event.getId(), event.getCity(), Event.cityKeyOf(event.getCity()), event.getDate()));
+    }
+
+    public void remove(Long eventId) {
+        write(new Write(eventId, null, null, null));
+    }
+
+    private synchronized void write(Write write) {
+        cities.apply(write);
+        if (pending != null) pending.add(write);
+    }
+
+    /**
+     * Cities with their upcoming-event counts, most upcoming events first.
+     */
+    public List<CityFacet> facets(LocalDateTime now) {
+        // events from now on: anything after (now, -1) in catalog order, undated ones excluded
+        EventCursor from = new EventCursor(now, Long.MIN_VALUE);
+
+        List<CityFacet> facets = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, CityEvents> entry : cities.byKey.entrySet()) {
+                NavigableSet<EventCursor> events = entry.getValue().events;
+
+                int upcoming = 0;
+                for (EventCursor position : events.tailSet(from, false)) {
+                    if (position.date() == null) break;
+                    upcoming++;
+                }
+
+                facets.add(new CityFacet(entry.getValue().name, entry.getKey(), upcoming, events.size()));
+            }
+        }
+
+        facets.sort(Comparator.comparingInt(CityFacet::getUpcomingEvents).reversed()
+                .thenComparing(CityFacet::getCity));
+        return facets;
+    }
+}
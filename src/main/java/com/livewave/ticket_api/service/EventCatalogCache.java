@@ -0,0 +1,189 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.CacheStats;
+import com.livewave.ticket_api.model.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * In-process cache of the event catalog: events by id and whole listings (all events, or one city)
+ * in catalog order. Both regions are LRU-bounded.
+ * The catalog only changes through EventService, which updates the cache after each commit;
+ * a write bumps the generation, so a read that started before it cannot put stale rows back.
+ */
+@Service
+public class EventCatalogCache {
+
+    private static final String ALL = "";
+
+    // marks a listing too large to cache; those reads go to the DB page by page.
+    // Compared by identity, so it must not be List.of(): that is also what an empty listing is cached as
+    private static final List<Event> TOO_LARGE = Collections.unmodifiableList(new ArrayList<>());
+
+    @Value("${events.cache.max-events:10000}")
+    private int maxEvents = 10_000;
+
+    @Value("${events.cache.max-listings:256}")
+    private int maxListings = 256;
+
+    // listings with more events than this are never cached
+    @Value("${events.cache.max-listing-size:5000}")
+    private int maxListingSize = 5000;
+
+    // all state below is guarded by this
+    private final Lru<Long, Event> events = new Lru<>(() -> maxEvents);
+    private final Lru<String, List<Event>> listings = new Lru<>(() -> maxListings);
+    private long generation;
+
+    private long eventHits;
+    private long eventMisses;
+    private long listingHits;
+    private long listingMisses;
+
+    private static final class Lru<K, V> extends LinkedHashMap<K, V> {
+        private final IntSupplier maxSize;
+        private long evictions;
+
+        Lru(IntSupplier maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() <= maxSize.getAsInt()) return false;
+            evictions++;
+            return true;
+        }
+    }
+
+    public Optional<Event> get(Long id, Function<Long, Optional<Event>> loader) {
+        long gen;
+        synchronized (this) {
+            Event cached = events.get(id);
+            if (cached != null) {
+                eventHits++;
+                return Optional.of(cached);
+            }
+            eventMisses++;
+            gen = generation;
+        }
+
+        Optional<Event> loaded = loader.apply(id);
+        loaded.ifPresent(event -> {
+            synchronized (this) {
+                if (generation == gen) events.put(id, event);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * The cached and loaded events of the given ids, by id; the loader reads all misses at once
+     * and ids it does not return are left out.
+     */
+    public Map<Long, Event> getAll(List<Long> ids, Function<List<Long>, List<Event>> loader) {
+        Map<Long, Event> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long gen;
+        synchronized (this) {
+            for (Long id : ids) {
+                Event cached = events.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+            eventHits += found.size();
+            eventMisses += missing.size();
+            gen = generation;
+        }
+        if (missing.isEmpty()) return found;
+
+        List<Event> loaded = loader.apply(missing);
+        synchronized (this) {
+            for (Event event : loaded) {
+                found.put(event.getId(), event);
+                if (generation == gen) events.put(event.getId(), event);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * All events (city null) or the city's events in catalog order, or null if there are
+     * more than max-listing-size of them. The loader gets the row limit to read.
+     */
+    public List<Event> listing(String city, IntFunction<List<Event>> loader) {
+        String key = listingKey(city);
+
+        long gen;
+        synchronized (this) {
+            List<Event> cached = listings.get(key);
+            if (cached != null) {
+                listingHits++;
+                return cached == TOO_LARGE ? null : cached;
+            }
+            listingMisses++;
+            gen = generation;
+        }
+
+        List<Event> loaded = loader.apply(maxListingSize + 1);
+        boolean tooLarge = loaded.size() > maxListingSize;
+
+        synchronized (this) {
+            if (generation == gen) {
+                listings.put(key, tooLarge ? TOO_LARGE : List.copyOf(loaded));
+                if (!tooLarge) {
+                    for (Event event : loaded) events.put(event.getId(), event);
+                }
+            }
+        }
+        return tooLarge ? null : loaded;
+    }
+
+    /**
+     * Stores the committed state of an event; listings are rebuilt on next read.
+     */
+    public synchronized void put(Event event) {
+        generation++;
+        events.put(event.getId(), event);
+        listings.clear();
+    }
+
+    public synchronized void evict(Long id) {
+        generation++;
+        events.remove(id);
+        listings.clear();
+    }
+
+    public synchronized void clear() {
+        generation++;
+        events.clear();
+        listings.clear();
+    }
+
+    public synchronized List<CacheStats> stats() {
+        return List.of(
+                new CacheStats("events", events.size(), maxEvents, eventHits, eventMisses, events.evictions),
+                new CacheStats("event-listings", listings.size(), maxListings, listingHits, listingMisses, listings.evictions)
+        );
+    }
+
+    private static String listingKey(String city) {
+        String key = Event.cityKeyOf(city);
+        return key != null ? key : ALL;
+    }
+}
@@ -0,0 +1,55 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.exception.BadRequestException;
+import com.livewave.ticket_api.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after an event in the (date, id) order of the catalog; events without a date come last.
+ * Sent to clients as an opaque URL-safe string.
+ */
+public record EventCursor(LocalDateTime date, long id) {
+
+    private static final String NO_DATE = "-";
+
+    public static EventCursor after(Event event) {
+        return new EventCursor(event.getDate(), event.getId());
+    }
+
+    /**
+     * True if the event comes after this position in catalog order.
+     */
+    public boolean isBefore(Event event) {
+        if (date == null) {
+            return event.getDate() == null && event.getId() > id;
+        }
+        if (event.getDate() == null) return true;
+
+        int byDate = event.getDate().compareTo(date);
+        return byDate > 0 || (byDate == 0 && event.getId() > id);
+    }
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : NO_DATE) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String date = raw.substring(0, sep);
+
+            return new EventCursor(
+                    NO_DATE.equals(date) ? null : LocalDateTime.parse(date),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
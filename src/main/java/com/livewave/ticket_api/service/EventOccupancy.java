@@ -0,0 +1,242 @@
+package com.livewave.ticket_api.service;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compact occupancy bitmap of one event's hall.
+ * The seat index (id <-> position) belongs to the shared SeatLayout; per event only the
+ * bitmap, the holds and the change log are kept.
+ * Bit i is set when the seat at position i (row/col order) is booked;
+ * slot i of the hold array references the active hold on that seat, if any.
+ *
+ * Every state change (booked, held, released) bumps the version and is kept in a bounded
+ * change log, so clients can fetch only the seats changed since a version they know.
+ */
+public class EventOccupancy {
+
+    public static final int DEFAULT_HISTORY_SIZE = 1024;
+
+    // shared by all events so versions keep growing when an index is rebuilt;
+    // seeded from the clock so they also grow across restarts
+    private static final AtomicLong VERSIONS = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    /**
+     * Positions changed after a version, and the version they bring the client to.
+     */
+    public record Changes(long version, int[] positions) {}
+
+    private final Long eventId;
+
+    // shared hall geometry; positions and seat ids come from here
+    private final SeatLayout layout;
+
+    private final AtomicLongArray bits;
+    private final AtomicReferenceArray<SeatHold> holds;
+
+    // change log ring, guarded by changeLock
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final long[] changeVersions;
+    private final int[] changePositions;
+    private long changeCount;
+    // every change after this version is still in the ring
+    private long baseVersion;
+    private volatile long version;
+
+    public EventOccupancy(Long eventId, SeatLayout layout) {
+        this(eventId, layout, DEFAULT_HISTORY_SIZE);
+    }
+
+    public EventOccupancy(Long eventId, SeatLayout layout, int historySize) {
+        this.eventId = eventId;
+        this.layout = layout;
+
+        int n = layout.size();
+        this.bits = new AtomicLongArray((n + 63) >>> 6);
+        this.holds = new AtomicReferenceArray<>(n);
+
+        this.changeVersions = new long[Math.max(1, historySize)];
+        this.changePositions = new int[changeVersions.length];
+        this.version = VERSIONS.incrementAndGet();
+        this.baseVersion = version;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * The layout this index was built from; positions are that layout's positions.
+     */
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public int size() {
+        return layout.size();
+    }
+
+    public long seatIdAt(int position) {
+        return layout.seatIdAt(position);
+    }
+
+    /**
+     * @return position of the seat in this hall, or -1 if the seat is unknown
+     */
+    public int positionOf(Long seatId) {
+        return layout.positionOfSeat(seatId);
+    }
+
+    public boolean isBooked(Long seatId) {
+        int pos = positionOf(seatId);
+        return pos >= 0 && isBookedAt(pos);
+    }
+
+    public boolean isBookedAt(int position) {
+        return (bits.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    /**
+     * @return true if the seat was free before this call
+     */
+    public boolean markBooked(Long seatId) {
+        int pos = positionOf(seatId);
+        return pos >= 0 && markBookedAt(pos);
+    }
+
+    public boolean markBookedAt(int position) {
+        if (!setBooked(position)) return false;
+        recordChange(position);
+        return true;
+    }
+
+    /**
+     * Marks a seat booked while the index is being loaded, without a version bump.
+     */
+    void loadBooked(Long seatId) {
+        int pos = positionOf(seatId);
+        if (pos >= 0) setBooked(pos);
+    }
+
+    private boolean setBooked(int position) {
+        int word = position >>> 6;
+        long mask = 1L << position;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) return false;
+            if (bits.compareAndSet(word, current, current | mask)) return true;
+        }
+    }
+
+    public int bookedCount() {
+        int count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    // ---------- holds ----------
+
+    public boolean isHeld(Long seatId, long nowMillis) {
+        return activeHold(seatId, nowMillis) != null;
+    }
+
+    public boolean isHeldAt(int position, long nowMillis) {
+        SeatHold hold = holds.get(position);
+        return hold != null && hold.isActive(nowMillis);
+    }
+
+    /**
+     * @return the unexpired hold on the seat, or null
+     */
+    public SeatHold activeHold(Long seatId, long nowMillis) {
+        int pos = positionOf(seatId);
+        if (pos < 0) return null;
+
+        SeatHold hold = holds.get(pos);
+        return hold != null && hold.isActive(nowMillis) ? hold : null;
+    }
+
+    /**
+     * Lock-free attempt to place the hold on a free seat. Expired holds are overwritten.
+     */
+    boolean tryHold(int position, SeatHold hold, long nowMillis) {
+        while (true) {
+            if (isBookedAt(position)) return false;
+
+            SeatHold current = holds.get(position);
+            if (current != null && current.isActive(nowMillis)) return false;
+
+            if (holds.compareAndSet(position, current, hold)) {
+                recordChange(position);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Clears the slot only if it still references this hold.
+     */
+    boolean releaseHold(int position, SeatHold hold) {
+        if (!holds.compareAndSet(position, hold, null)) return false;
+        recordChange(position);
+        return true;
+    }
+
+    // ---------- versions ----------
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Positions whose state changed after the given version,
+     * or null if the log no longer reaches back that far (or the version is unknown).
+     * Read the seat states after this call: a state newer than the returned version
+     * is simply sent again with the next delta.
+     */
+    public Changes changesSince(long since) {
+        changeLock.lock();
+        try {
+            if (since > version || since < baseVersion) return null;
+
+            int capacity = changeVersions.length;
+            long retained = Math.min(changeCount, capacity);
+            BitSet seen = new BitSet(layout.size());
+
+            for (long k = 0; k < retained; k++) {
+                int slot = (int) ((changeCount - 1 - k) % capacity);
+                if (changeVersions[slot] <= since) break;
+                seen.set(changePositions[slot]);
+            }
+
+            return new Changes(version, seen.stream().toArray());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private void recordChange(int position) {
+        changeLock.lock();
+        try {
+            long v = VERSIONS.incrementAndGet();
+            int slot = (int) (changeCount % changeVersions.length);
+
+            if (changeCount >= changeVersions.length) {
+                // overwriting the oldest entry: deltas from before it are no longer possible
+                baseVersion = changeVersions[slot];
+            }
+
+            changeVersions[slot] = v;
+            changePositions[slot] = position;
+            changeCount++;
+            version = v;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.EventSuggestion;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over event title, venue, city and description.
+ * Terms come from SearchTokenizer; the term dictionary is sorted, so the last word of a query
+ * is matched as a prefix (type-ahead) with one range lookup.
+ * Every query word must match; hits are ranked by field weight and term rarity, upcoming events first
+ * among equally good matches. Loaded at startup and updated by EventService after each committed write.
+ */
+@Service
+public class EventSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int VENUE_WEIGHT = 2;
+    private static final int CITY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // a word matched only as a prefix of a term counts less than a whole word
+    private static final double PREFIX_FACTOR = 0.6;
+
+    // past events stay findable but rank below upcoming ones
+    private static final double PAST_FACTOR = 0.5;
+
+    public record Hits(int total, List<Long> ids) {}
+
+    private record Doc(Long id, String title, String city, LocalDateTime date, Map<String, Integer> terms) {}
+
+    private record Scored(Doc doc, double score) {}
+
+    private final EventRepository eventRepository;
+
+    // the committed document of one event; a null doc records its removal
+    private record Write(Long id, Doc doc) {}
+
+    private static final class Index {
+        // term -> event id -> weight of the term in the event
+        final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        final Map<Long, Doc> docs = new HashMap<>();
+
+        void apply(Write write) {
+            remove(write.id());
+            if (write.doc() != null) add(write.doc());
+        }
+
+        private void add(Doc doc) {
+            docs.put(doc.id(), doc);
+            doc.terms().forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc.id(), weight));
+        }
+
+        private void remove(Long eventId) {
+            Doc doc = docs.remove(eventId);
+            if (doc == null) return;
+
+            for (String term : doc.terms().keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                posting.remove(eventId);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // both guarded by lock; pending is non-null only while load() is reading the table
+    private Index index = new Index();
+    private List<Write> pending;
+
+    public EventSearchIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Rebuilds the index from the table off to the side and swaps it in; writes recorded
+     * while the events were being read are replayed over it first, so none of them is lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index loaded = new Index();
+        try {
+            for (Event event : eventRepository.findAll()) loaded.add(doc(event));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(loaded::apply);
+            pending = null;
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index loaded: {} events, {} terms", loaded.docs.size(), loaded.postings.size());
+    }
+
+    public void put(Event event) {
+        write(new Write(event.getId(), doc(event)));
+    }
+
+    public void remove(Long eventId) {
+        write(new Write(eventId, null));
+    }
+
+    private void write(Write write) {
+        lock.writeLock().lock();
+        try {
+            index.apply(write);
+            if (pending != null) pending.add(write);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the matching events, best first, from offset; total counts all matches.
+     */
+    public Hits search(String query, int offset, int limit, LocalDateTime now) {
+        List<Scored> ranked = rank(query, now);
+
+        int from = Math.min(Math.max(0, offset), ranked.size());
+        int to = Math.min(from + Math.max(0, limit), ranked.size());
+
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Scored hit : ranked.subList(from, to)) ids.add(hit.doc().id());
+        return new Hits(ranked.size(), ids);
+    }
+
+    /**
+     * Best matches for what the user has typed so far, without leaving memory.
+     */
+    public List<EventSuggestion> suggest(String prefix, int limit, LocalDateTime now) {
+        List<Scored> ranked = rank(prefix, now);
+
+        List<EventSuggestion> suggestions = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Scored hit : ranked.subList(0, Math.min(Math.max(0, limit), ranked.size()))) {
+            Doc doc = hit.doc();
+            suggestions.add(new EventSuggestion(doc.id(), doc.title(), doc.city(), doc.date()));
+        }
+        return suggestions;
+    }
+
+    private List<Scored> rank(String query, LocalDateTime now) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.terms(query)));
+        if (words.isEmpty()) return List.of();
+
+        List<Scored> ranked = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                boolean last = i == words.size() - 1;
+                Map<Long, Double> wordScores = wordScores(words.get(i), last);
+
+                scores = (scores == null) ? wordScores : intersect(scores, wordScores);
+                if (scores.isEmpty()) return List.of();
+            }
+
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Doc doc = index.docs.get(entry.getKey());
+                boolean past = doc.date() != null && doc.date().isBefore(now);
+                ranked.add(new Scored(doc, entry.getValue() * (past ? PAST_FACTOR : 1)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ranked.sort(Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(s -> s.doc().date(), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(s -> s.doc().id()));
+        return ranked;
+    }
+
+    // best match of the word per event: the whole term, or (for the last word) any term it starts
+    private Map<Long, Double> wordScores(String word, boolean prefix) {
+        NavigableMap<String, Map<Long, Integer>> postings = index.postings;
+        Map<String, Map<Long, Integer>> matches = prefix
+                ? postings.subMap(word, true, word + Character.MAX_VALUE, false)
+                : (postings.containsKey(word) ? Map.of(word, postings.get(word)) : Map.of());
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term : matches.entrySet()) {
+            double idf = Math.log(1 + (double) index.docs.size() / term.getValue().size());
+            double factor = term.getKey().equals(word) ? 1 : PREFIX_FACTOR;
+
+            for (Map.Entry<Long, Integer> posting : term.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Long, Double> intersect(Map<Long, Double> a, Map<Long, Double> b) {
+        Map<Long, Double> small = a.size() <= b.size() ? a : b;
+        Map<Long, Double> large = (small == a) ? b : a;
+
+        Map<Long, Double> both = new HashMap<>();
+        for (Map.Entry<Long, Double> entry : small.entrySet()) {
+            Double other = large.get(entry.getKey());
+            if (other != null) both.put(entry.getKey(), entry.getValue() + other);
+        }
+        return both;
+    }
+
+    private static Doc doc(Event event) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, event.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, event.getVenue(), VENUE_WEIGHT);
+        addTerms(terms, event.getCity(), CITY_WEIGHT);
+        addTerms(terms, event.getDescription(), DESCRIPTION_WEIGHT);
+
+        return new Doc(event.getId(), event.getTitle(), event.getCity(), event.getDate(), terms);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : SearchTokenizer.terms(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+}
@@ -1,48 +1,167 @@
 package com.livewave.ticket_api.service;
 
+import com.livewave.ticket_api.dto.CacheStats;
+import com.livewave.ticket_api.dto.CityFacet;
+import com.livewave.ticket_api.dto.EventPage;
+import com.livewave.ticket_api.dto.EventSearchPage;
+import com.livewave.ticket_api.dto.EventSuggestion;
 import com.livewave.ticket_api.exception.BadRequestException;
 import com.livewave.ticket_api.exception.ResourceNotFoundException;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.model.Seat;
+import com.livewave.ticket_api.model.VenueLayout;
 import com.livewave.ticket_api.repository.EventRepository;
 import com.livewave.ticket_api.repository.SeatRepository;
+import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.scheduler.NotificationScheduler;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class EventService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final EventRepository repo;
     private final SeatRepository seatRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatLayoutService seatLayoutService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final EventCatalogCache eventCatalogCache;
+    private final CityIndex cityIndex;
+    private final EventSearchIndex searchIndex;
+    private final NotificationScheduler notificationScheduler;
+    private final WebSocketService webSocketService;
 
-    public EventService(EventRepository repo, SeatRepository seatRepository) {
+    public EventService(EventRepository repo,
+                        SeatRepository seatRepository,
+                        TicketRepository ticketRepository,
+                        SeatLayoutService seatLayoutService,
+                        SeatOccupancyService seatOccupancyService,
+                        EventCatalogCache eventCatalogCache,
+                        CityIndex cityIndex,
+                        EventSearchIndex searchIndex,
+                        NotificationScheduler notificationScheduler,
+                        WebSocketService webSocketService) {
         this.repo = repo;
         this.seatRepository = seatRepository;
+        this.ticketRepository = ticketRepository;
+        this.seatLayoutService = seatLayoutService;
+        this.seatOccupancyService = seatOccupancyService;
+        this.eventCatalogCache = eventCatalogCache;
+        this.cityIndex = cityIndex;
+        this.searchIndex = searchIndex;
+        this.notificationScheduler = notificationScheduler;
+        this.webSocketService = webSocketService;
     }
 
     public List<Event> findAll(String city) {
+        List<Event> events = cachedListing(city);
+
         if (city != null && !city.isBlank()) {
-            List<Event> events = repo.findByCityIgnoreCase(city);
+            if (events == null) {
+                events = repo.findByCityKeyOrderByDateAscIdAsc(Event.cityKeyOf(city));
+            }
             if (events.isEmpty()) {
                 throw new ResourceNotFoundException("Events", "city", city);
             }
             return events;
         }
-        return repo.findAll();
+        return events != null ? events : repo.findAll();
     }
 
+    /**
+     * Keyset page of the catalog in (date, id) order, starting after the given cursor.
+     * Each page is one index range scan, so deep pages cost the same as the first one.
+     */
+    public EventPage findPage(String city, String after, Integer limit) {
+        int size = (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        String cityKey = Event.cityKeyOf(city);
+        EventCursor cursor = (after != null && !after.isBlank()) ? EventCursor.decode(after) : null;
+
+        List<Event> listing = cachedListing(city);
+        if (listing != null) {
+            return slice(listing, cursor, size);
+        }
+
+        // one extra row tells whether there is a next page
+        int fetch = size + 1;
+        List<Event> events = new ArrayList<>(fetch);
+
+        if (cursor == null) {
+            events.addAll(repo.findFirstDatedPage(cityKey, PageRequest.ofSize(fetch)));
+        } else if (cursor.date() != null) {
+            events.addAll(repo.findDatedPageAfter(cityKey, cursor.date(), cursor.id(), PageRequest.ofSize(fetch)));
+        }
+
+        if (events.size() < fetch) {
+            long afterId = (cursor != null && cursor.date() == null) ? cursor.id() : 0L;
+            events.addAll(repo.findUndatedPageAfter(cityKey, afterId, PageRequest.ofSize(fetch - events.size())));
+        }
+
+        if (events.size() <= size) {
+            return new EventPage(events, null);
+        }
+
+        List<Event> page = List.copyOf(events.subList(0, size));
+        return new EventPage(page, EventCursor.after(page.get(size - 1)).encode());
+    }
+
+    /**
+     * Legacy offset window in the same order as findPage, kept only for the deprecated
+     * GraphQL events(offset:) argument. Unless the listing is cached, this is SQL OFFSET:
+     * the database still walks and discards every row before the offset, so the cost grows
+     * with the offset (O(offset + limit)). It returns at most one page, fetched as up to two
+     * pages when the offset is not a multiple of the limit. New clients use findPage.
+     */
+    public List<Event> findOffsetPage(String city, int offset, int limit) {
+        int size = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        int from = Math.max(0, offset);
+        String cityKey = Event.cityKeyOf(city);
+
+        List<Event> listing = cachedListing(city);
+        if (listing != null) {
+            return listing.subList(Math.min(from, listing.size()), Math.min(from + size, listing.size()));
+        }
+
+        int page = from / size;
+        List<Event> rows = new ArrayList<>(repo.findOrdered(cityKey, PageRequest.of(page, size)));
+        if (from % size != 0 && rows.size() == size) {
+            rows.addAll(repo.findOrdered(cityKey, PageRequest.of(page + 1, size)));
+        }
+
+        int skip = Math.min(from % size, rows.size());
+        return List.copyOf(rows.subList(skip, Math.min(skip + size, rows.size())));
+    }
+
+    /**
+     * The shared cached instance; read-only, write paths load the row with repo.findById.
+     */
     public Event findById(Long id) {
-        return repo.findById(id)
+        return findOptional(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Event", "id", id)
                 );
     }
 
+    public Optional<Event> findOptional(Long id) {
+        return eventCatalogCache.get(id, repo::findById);
+    }
+
+    /**
+     * Creates the event on the venue's rows x cols grid layout.
+     * The layout is generated only the first time this grid is used at the venue.
+     */
     @Transactional
     public Event createEventWithSeats(
             Event event,
@@ -54,48 +173,225 @@ public class EventService {
             throw new BadRequestException("Rows and columns must be greater than zero");
         }
 
-        if (dateString != null) {
-            try {
-                DateTimeFormatter formatter =
-                        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-                event.setDate(LocalDateTime.parse(dateString, formatter));
-            } catch (Exception ex) {
-                throw new BadRequestException(
-                        "Invalid date format. Use 'yyyy-MM-dd HH:mm'"
+        applyDate(event, dateString);
+
+        VenueLayout layout = seatLayoutService.findOrCreateGrid(event.getVenue(), rows, cols);
+        event.setLayoutId(layout.getId());
+
+        return saved(repo.save(event));
+    }
+
+    @Transactional
+    public Event createEventWithSeats(Event event, int rows, int cols) {
+        return createEventWithSeats(event, rows, cols, null);
+    }
+
+    @Transactional
+    public Event createEventWithLayout(Event event, Long layoutId, String dateString) {
+        VenueLayout layout = seatLayoutService.findLayout(layoutId);
+
+        applyDate(event, dateString);
+        event.setLayoutId(layout.getId());
+
+        return saved(repo.save(event));
+    }
+
+    /**
+     * Moves an event that still owns rows in the seats table onto a shared layout.
+     * Sold tickets are re-pointed to the layout seat with the same label, then the event's
+     * seat rows are deleted. Active holds of the event are dropped.
+     */
+    @Transactional
+    public Event moveToLayout(Long eventId, Long layoutId) {
+        // the managed row, not the cached instance: readers must not see the change before commit
+        Event event = repo.findById(eventId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Event", "id", eventId)
                 );
-            }
+
+        if (event.getLayoutId() != null) {
+            throw new BadRequestException("Event already uses a venue layout");
         }
 
-        Event saved = repo.save(event);
-        generateSeatsForEvent(saved.getId(), rows, cols);
+        VenueLayout layout = seatLayoutService.findLayout(layoutId);
+
+        long missing = ticketRepository.countTicketsMissingFromLayout(eventId, layout.getId());
+        if (missing > 0) {
+            throw new BadRequestException(missing + " sold seats do not exist in the layout");
+        }
+
+        ticketRepository.clearSeatIds(eventId);
+        ticketRepository.remapSeatIdsToLayout(eventId, layout.getId());
+        seatRepository.deleteByEventId(eventId);
+
+        event.setLayoutId(layout.getId());
+        Event saved = saved(repo.save(event));
+
+        afterCommit(() -> seatOccupancyService.evict(eventId));
         return saved;
     }
 
+    /**
+     * Applies the non-null fields of the patch to the event.
+     */
     @Transactional
-    public void generateSeatsForEvent(Long eventId, int rows, int cols) {
-        List<Seat> seats = new ArrayList<>(rows * cols);
+    public Event update(Long id, Event patch) {
+        Event event = repo.findById(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException(
+                                "Event", "id", id
+                        )
+                );
 
-        for (int r = 1; r <= rows; r++) {
-            for (int c = 1; c <= cols; c++) {
-                Seat s = new Seat();
-                s.setEventId(eventId);
-                s.setRowNum(r);
-                s.setColNum(c);
+        if (patch.getTitle() != null)
+            event.setTitle(patch.getTitle());
 
-                String rowLabel = String.valueOf((char) ('A' + (r - 1)));
-                s.setSeatNumber(rowLabel + c);
+        if (patch.getDescription() != null)
+            event.setDescription(patch.getDescription());
 
-                seats.add(s);
-            }
+        if (patch.getDate() != null)
+            event.setDate(patch.getDate());
+
+        if (patch.getPrice() != null)
+            event.setPrice(patch.getPrice());
+
+        if (patch.getCity() != null)
+            event.setCity(patch.getCity());
+
+        if (patch.getVenue() != null)
+            event.setVenue(patch.getVenue());
+
+        if (patch.getImageBanner() != null)
+            event.setImageBanner(patch.getImageBanner());
+
+        if (patch.getImageKey() != null)
+            event.setImageKey(patch.getImageKey());
+
+        if (patch.getLocation() != null)
+            event.setLocation(patch.getLocation());
+
+        return saved(repo.save(event));
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        if (!repo.existsById(id)) {
+            throw new ResourceNotFoundException(
+                    "Event", "id", id
+            );
         }
 
-        seatRepository.saveAll(seats);
+        repo.deleteById(id);
+
+        afterCommit(() -> {
+            eventCatalogCache.evict(id);
+            cityIndex.remove(id);
+            searchIndex.remove(id);
+            notificationScheduler.remove(id);
+            seatOccupancyService.evict(id);
+            webSocketService.forget(id);
+        });
     }
 
+    /**
+     * Cities with their upcoming-event counts, from the in-memory city index.
+     */
+    public List<CityFacet> cityFacets() {
+        return cityIndex.facets(LocalDateTime.now());
+    }
 
-    @Transactional
-    public Event createEventWithSeats(Event event, int rows, int cols) {
-        return createEventWithSeats(event, rows, cols, null);
+    /**
+     * Ranked full-text search; the index picks the ids, the page is read through the event cache.
+     */
+    public EventSearchPage search(String query, Integer offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+
+        int size = (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        int from = (offset == null) ? 0 : Math.max(0, offset);
+
+        EventSearchIndex.Hits hits = searchIndex.search(query, from, size, LocalDateTime.now());
+
+        // one query for the misses; items keep the index's ranking
+        Map<Long, Event> found = eventCatalogCache.getAll(hits.ids(), repo::findAllById);
+        List<Event> items = new ArrayList<>(hits.ids().size());
+        for (Long id : hits.ids()) {
+            Event event = found.get(id);
+            if (event != null) items.add(event);
+        }
+        return new EventSearchPage(query, hits.total(), items);
+    }
+
+    public List<EventSuggestion> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) return List.of();
+
+        int size = (limit == null) ? 10 : Math.max(1, Math.min(50, limit));
+        return searchIndex.suggest(prefix, size, LocalDateTime.now());
+    }
+
+    public List<CacheStats> cacheStats() {
+        return eventCatalogCache.stats();
+    }
+
+    // every catalog write ends here, so the cache sees exactly the committed rows
+    private Event saved(Event event) {
+        afterCommit(() -> {
+            eventCatalogCache.put(event);
+            cityIndex.put(event);
+            searchIndex.put(event);
+            notificationScheduler.schedule(event);
+        });
+        return event;
+    }
+
+    private List<Event> cachedListing(String city) {
+        String cityKey = Event.cityKeyOf(city);
+        return eventCatalogCache.listing(cityKey,
+                limit -> repo.findOrdered(cityKey, PageRequest.ofSize(limit)));
+    }
+
+    private static EventPage slice(List<Event> listing, EventCursor cursor, int size) {
+        // first event after the cursor; the listing is in catalog order
+        int lo = 0;
+        int hi = listing.size();
+        while (cursor != null && lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cursor.isBefore(listing.get(mid))) hi = mid;
+            else lo = mid + 1;
+        }
+
+        int to = Math.min(lo + size, listing.size());
+        List<Event> page = listing.subList(lo, to);
+        String next = (to < listing.size()) ? EventCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new EventPage(page, next);
     }
 
+    private void applyDate(Event event, String dateString) {
+        if (dateString == null) return;
+
+        try {
+            DateTimeFormatter formatter =
+                    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            event.setDate(LocalDateTime.parse(dateString, formatter));
+        } catch (Exception ex) {
+            throw new BadRequestException(
+                    "Invalid date format. Use 'yyyy-MM-dd HH:mm'"
+            );
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
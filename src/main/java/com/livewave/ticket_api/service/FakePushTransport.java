@@ -0,0 +1,69 @@
+package com.livewave.ticket_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for FCM, for load tests without Firebase.
+ * Each call waits latency-ms; messages fail transiently or with an invalid token
+ * at the configured rates, and tokens starting with "invalid" are always rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.push.transport", havingValue = "fake")
+public class FakePushTransport implements PushTransport {
+
+    @Value("${notifications.push.fake.latency-ms:20}")
+    private long latencyMs = 20;
+
+    @Value("${notifications.push.fake.transient-failure-rate:0.0}")
+    private double transientFailureRate = 0.0;
+
+    @Value("${notifications.push.fake.invalid-token-rate:0.0}")
+    private double invalidTokenRate = 0.0;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    @Override
+    public int maxBatchSize() {
+        return 500;
+    }
+
+    @Override
+    public List<PushOutcome> send(List<PushMessage> batch) throws InterruptedException {
+        calls.increment();
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<PushOutcome> outcomes = new ArrayList<>(batch.size());
+        for (PushMessage message : batch) {
+            PushOutcome outcome;
+            if (message.token().startsWith("invalid") || random.nextDouble() < invalidTokenRate) {
+                outcome = PushOutcome.INVALID_TOKEN;
+            } else if (random.nextDouble() < transientFailureRate) {
+                outcome = PushOutcome.RETRY;
+            } else {
+                outcome = PushOutcome.SENT;
+                delivered.increment();
+            }
+            outcomes.add(outcome);
+        }
+        return outcomes;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long delivered() {
+        return delivered.sum();
+    }
+}
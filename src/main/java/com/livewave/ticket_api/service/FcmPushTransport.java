@@ -0,0 +1,68 @@
+package com.livewave.ticket_api.service;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Firebase Cloud Messaging: one sendAll call per batch of up to 500 messages.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.push.transport", havingValue = "fcm", matchIfMissing = true)
+public class FcmPushTransport implements PushTransport {
+
+    // FCM limit for one batch request
+    private static final int MAX_BATCH = 500;
+
+    @Override
+    public int maxBatchSize() {
+        return MAX_BATCH;
+    }
+
+    @Override
+    public List<PushOutcome> send(List<PushMessage> batch) throws FirebaseMessagingException {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PushMessage push : batch) {
+            Message.Builder message = Message.builder()
+                    .setToken(push.token())
+                    .setNotification(Notification.builder()
+                            .setTitle(push.title())
+                            .setBody(push.body())
+                            .build());
+            if (push.data() != null) {
+                message.putAllData(push.data());
+            }
+            messages.add(message.build());
+        }
+
+        BatchResponse response = FirebaseMessaging.getInstance().sendAll(messages);
+
+        List<PushOutcome> outcomes = new ArrayList<>(batch.size());
+        for (SendResponse sent : response.getResponses()) {
+            outcomes.add(sent.isSuccessful() ? PushOutcome.SENT : outcomeOf(sent.getException()));
+        }
+        return outcomes;
+    }
+
+    static PushOutcome outcomeOf(FirebaseMessagingException e) {
+        MessagingErrorCode code = (e != null) ? e.getMessagingErrorCode() : null;
+        if (code == null) return PushOutcome.RETRY;
+
+        return switch (code) {
+            case UNREGISTERED, SENDER_ID_MISMATCH -> PushOutcome.INVALID_TOKEN;
+            // also sent for a bad payload: the message failed, the token may be fine
+            case INVALID_ARGUMENT -> PushOutcome.FAILED;
+            case UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED -> PushOutcome.RETRY;
+            default -> PushOutcome.FAILED;
+        };
+    }
+}
@@ -1,25 +1,39 @@
 package com.livewave.ticket_api.service;
 
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.Message;
-import com.google.firebase.messaging.Notification;
+import com.livewave.ticket_api.dto.PushStats;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
+/**
+ * Push notifications to users' devices. Messages are queued and sent in batches
+ * by PushDispatcher, so callers (purchase requests, the reminder scheduler) never
+ * wait for FCM.
+ */
 @Service
 public class NotificationService {
 
-    public void sendPush(String token, String title, String body) throws Exception {
+    private final PushDispatcher pushDispatcher;
+
+    public NotificationService(PushDispatcher pushDispatcher) {
+        this.pushDispatcher = pushDispatcher;
+    }
+
+    /**
+     * Queues an event reminder; false if it was not accepted (no token or queue full).
+     */
+    public boolean enqueuePush(String token, String title, String body) {
+        return pushDispatcher.submit(new PushMessage(token, title, body, Map.of("type", "EVENT_REMINDER")));
+    }
 
-        Message message = Message.builder()
-                .setToken(token)
-                .setNotification(Notification.builder()
-                        .setTitle(title)
-                        .setBody(body)
-                        .build())
-                .putData("type", "EVENT_REMINDER")
-                .build();
+    /**
+     * Queues a prepared message; false if it was not accepted.
+     */
+    public boolean enqueue(PushMessage message) {
+        return pushDispatcher.submit(message);
+    }
 
-        String response = FirebaseMessaging.getInstance().send(message);
-        System.out.println("PUSH SENT: " + response);
+    public PushStats pushStats() {
+        return pushDispatcher.stats();
     }
-}
\ No newline at end of file
+}
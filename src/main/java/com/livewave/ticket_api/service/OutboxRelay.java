@@ -0,0 +1,160 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.model.OutboxMessage;
+import com.livewave.ticket_api.repository.OutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers outbox messages to WebSocketService and NotificationService.
+ * Woken after every commit that wrote to the outbox, and polled as a fallback
+ * (messages left by a crash, a full push queue, another instance).
+ * Each batch is locked with SKIP LOCKED, delivered, and deleted in one transaction.
+ * Delivery is at least once: if the delete does not commit, the batch is read again;
+ * ids delivered recently are remembered so such a batch is not sent twice by this instance.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WebSocketService webSocketService;
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    // messages per transaction
+    @Value("${outbox.batch-size:200}")
+    private int batchSize = 200;
+
+    // ids of recently delivered messages kept for deduplication
+    @Value("${outbox.dedupe-window:10000}")
+    private int dedupeWindow = 10000;
+
+    // one drain at a time, off the committing thread
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    // only touched by the drain; access-ordered LRU
+    private final Map<Long, Boolean> recentlyDelivered = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > dedupeWindow;
+        }
+    };
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       PlatformTransactionManager transactionManager,
+                       WebSocketService webSocketService,
+                       NotificationService notificationService,
+                       ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.webSocketService = webSocketService;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Schedules a drain; wakes arriving while one is already queued are merged into it.
+     */
+    public void wake() {
+        if (!wakeQueued.compareAndSet(false, true)) return;
+
+        try {
+            worker.execute(this::drainAll);
+        } catch (RejectedExecutionException e) {
+            wakeQueued.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:1000}")
+    public void poll() {
+        wake();
+    }
+
+    private void drainAll() {
+        // messages committed from here on get a drain of their own
+        wakeQueued.set(false);
+
+        try {
+            while (drain() >= batchSize) {
+                // full batch: there may be more
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox drain failed, retrying on next poll: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delivers and deletes one batch; returns how many messages were done with.
+     */
+    int drain() {
+        Integer done = transactionTemplate.execute(status -> {
+            List<OutboxMessage> batch = outboxRepository.lockBatch(batchSize);
+            List<Long> handled = new ArrayList<>(batch.size());
+
+            for (OutboxMessage message : batch) {
+                if (!recentlyDelivered.containsKey(message.getId())) {
+                    // push queue full: stop here, the rest stays for the next poll
+                    if (!deliver(message)) break;
+                    recentlyDelivered.put(message.getId(), Boolean.TRUE);
+                }
+                handled.add(message.getId());
+            }
+
+            if (!handled.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(handled);
+            }
+            return handled.size();
+        });
+        return done != null ? done : 0;
+    }
+
+    // false if the message could not be handed over and has to stay
+    private boolean deliver(OutboxMessage message) {
+        try {
+            switch (message.getType()) {
+                case SEAT_UPDATE -> webSocketService.sendSeatUpdate(
+                        message.getEventId(), objectMapper.readValue(message.getPayload(), SeatDto.class));
+                case PUSH -> {
+                    PushMessage push = objectMapper.readValue(message.getPayload(), PushMessage.class);
+                    // without a token it would never be accepted
+                    return push.token() == null || push.token().isBlank() || notificationService.enqueue(push);
+                }
+            }
+        } catch (Exception e) {
+            // unreadable payload would block the outbox forever; drop it
+            logger.error("Dropping outbox message {} ({})", message.getId(), message.getType(), e);
+        }
+        return true;
+    }
+}
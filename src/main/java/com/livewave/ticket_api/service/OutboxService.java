@@ -0,0 +1,82 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.model.OutboxMessage;
+import com.livewave.ticket_api.model.Ticket;
+import com.livewave.ticket_api.repository.OutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Writes side effects (seat updates, push notifications) into the outbox table
+ * inside the caller's transaction, so they exist exactly when the write that caused them does.
+ * OutboxRelay is woken after commit and delivers them.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxRepository outboxRepository, OutboxRelay outboxRelay, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Seat update broadcast for a booked ticket; the ticket must have its id.
+     */
+    public OutboxMessage seatBooked(Ticket ticket) {
+        Long eventId = ticket.getEvent().getId();
+        SeatDto seatDto = new SeatDto(ticket.getSeatId(), eventId, null, 0, 0, true);
+        return message(OutboxMessage.Type.SEAT_UPDATE, eventId, "seat:" + ticket.getId(), seatDto);
+    }
+
+    public OutboxMessage push(Long eventId, String dedupeKey, PushMessage pushMessage) {
+        return message(OutboxMessage.Type.PUSH, eventId, dedupeKey, pushMessage);
+    }
+
+    /**
+     * Inserts the messages in the current transaction; the relay runs once it commits.
+     */
+    public void append(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) return;
+
+        outboxRepository.insertAll(messages);
+        afterCommit(outboxRelay::wake);
+    }
+
+    private OutboxMessage message(OutboxMessage.Type type, Long eventId, String dedupeKey, Object payload) {
+        OutboxMessage message = new OutboxMessage();
+        message.setType(type);
+        message.setEventId(eventId);
+        message.setDedupeKey(dedupeKey);
+        try {
+            message.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+        return message;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
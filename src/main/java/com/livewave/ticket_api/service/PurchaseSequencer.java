@@ -0,0 +1,258 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.exception.ApiTimeoutException;
+import com.livewave.ticket_api.exception.SeatConflictException;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.Ticket;
+import com.livewave.ticket_api.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serializes purchases per event without fighting over DB locks.
+ * Events are hashed onto stripes; each stripe has one writer thread that validates
+ * orders against the in-memory occupancy and holds, and persists the accepted ones in one batch.
+ * Different stripes run in parallel.
+ */
+@Service
+public class PurchaseSequencer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseSequencer.class);
+
+    private final TicketService ticketService;
+    private final SeatLayoutService seatLayoutService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final SeatHoldService seatHoldService;
+
+    @Value("${purchase.sequencer.stripes:0}")
+    private int stripeCount;
+
+    @Value("${purchase.sequencer.batch-size:64}")
+    private int batchSize;
+
+    @Value("${purchase.sequencer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${purchase.sequencer.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    private List<BlockingQueue<PurchaseOrder>> queues = List.of();
+    private ExecutorService workers;
+
+    static final class PurchaseOrder {
+        final Event event;
+        final User user;
+        final List<String> seatNumbers;
+        // parallel to seatNumbers
+        final List<Long> seatIds;
+        final CompletableFuture<List<Ticket>> result = new CompletableFuture<>();
+        // PENDING until either the writer claims the order or the caller's timeout abandons it
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        PurchaseOrder(Event event, User user, List<String> seatNumbers, List<Long> seatIds) {
+            this.event = event;
+            this.user = user;
+            this.seatNumbers = seatNumbers;
+            this.seatIds = seatIds;
+        }
+
+        String buyer() {
+            return user != null ? user.getEmail() : null;
+        }
+
+        // the writer takes the order; from here on it cannot time out
+        boolean claim() {
+            return state.compareAndSet(PENDING, CLAIMED);
+        }
+
+        // the caller gives up; the writer will skip the order
+        boolean abandon() {
+            return state.compareAndSet(PENDING, ABANDONED);
+        }
+    }
+
+    private static final int PENDING = 0;
+    private static final int CLAIMED = 1;
+    private static final int ABANDONED = 2;
+
+    public PurchaseSequencer(TicketService ticketService,
+                             SeatLayoutService seatLayoutService,
+                             SeatOccupancyService seatOccupancyService,
+                             SeatHoldService seatHoldService) {
+        this.ticketService = ticketService;
+        this.seatLayoutService = seatLayoutService;
+        this.seatOccupancyService = seatOccupancyService;
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostConstruct
+    public void start() {
+        int stripes = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        List<BlockingQueue<PurchaseOrder>> list = new ArrayList<>(stripes);
+        workers = Executors.newFixedThreadPool(stripes, r -> {
+            Thread t = new Thread(r, "purchase-sequencer-" + threadIndex.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (int i = 0; i < stripes; i++) {
+            BlockingQueue<PurchaseOrder> queue = new ArrayBlockingQueue<>(queueCapacity);
+            list.add(queue);
+            workers.submit(() -> runStripe(queue));
+        }
+        queues = list;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a purchase. The future completes with the created tickets after commit,
+     * or exceptionally with SeatConflictException / ApiTimeoutException.
+     * The timeout only covers waiting in the queue: an order the writer has claimed is never timed out,
+     * so a client is not told a purchase failed while its tickets are being written.
+     */
+    public CompletableFuture<List<Ticket>> submit(Event event, User user, List<String> seatNumbers) {
+
+        List<String> requested = List.copyOf(new LinkedHashSet<>(seatNumbers));
+
+        // resolved on the caller thread, so the writer only touches memory until the batch insert
+        SeatLayout layout = seatLayoutService.forEvent(event.getId());
+
+        List<Long> seatIds = new ArrayList<>(requested.size());
+        List<String> unknown = new ArrayList<>();
+        for (String seatNumber : requested) {
+            Long seatId = layout.seatIdOf(seatNumber);
+            if (seatId == null) unknown.add(seatNumber);
+            seatIds.add(seatId);
+        }
+
+        if (!unknown.isEmpty()) {
+            return CompletableFuture.failedFuture(new SeatConflictException(unknown));
+        }
+
+        PurchaseOrder order = new PurchaseOrder(event, user, requested, seatIds);
+
+        if (!stripeFor(event.getId()).offer(order)) {
+            return CompletableFuture.failedFuture(
+                    new ApiTimeoutException("Purchase queue is full, try again later"));
+        }
+
+        // only an order still waiting in the queue times out; once claimed, its outcome is the real one
+        CompletableFuture.delayedExecutor(timeoutSeconds, TimeUnit.SECONDS).execute(() -> {
+            if (order.abandon()) {
+                order.result.completeExceptionally(new ApiTimeoutException("Purchase timed out"));
+            }
+        });
+
+        return order.result;
+    }
+
+    private BlockingQueue<PurchaseOrder> stripeFor(Long eventId) {
+        return queues.get(Math.floorMod(Long.hashCode(eventId), queues.size()));
+    }
+
+    private void runStripe(BlockingQueue<PurchaseOrder> queue) {
+        List<PurchaseOrder> batch = new ArrayList<>(batchSize);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Purchase batch failed", e);
+                batch.forEach(o -> o.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Validates the batch in arrival order against in-memory state and persists the accepted orders.
+     */
+    void process(List<PurchaseOrder> batch) {
+
+        // event id -> seats taken earlier in this batch; events on one layout share seat ids
+        Map<Long, Set<Long>> claimedByEvent = new HashMap<>();
+        List<PurchaseOrder> accepted = new ArrayList<>(batch.size());
+
+        for (PurchaseOrder order : batch) {
+            // the caller already gave up on this one
+            if (!order.claim()) continue;
+
+            EventOccupancy occupancy = seatOccupancyService.get(order.event.getId());
+            Set<Long> claimed = claimedByEvent.computeIfAbsent(order.event.getId(), id -> new HashSet<>());
+            List<String> failedSeats = new ArrayList<>();
+
+            for (int i = 0; i < order.seatIds.size(); i++) {
+                Long seatId = order.seatIds.get(i);
+                if (occupancy.isBooked(seatId)
+                        || claimed.contains(seatId)
+                        || !seatHoldService.canPurchase(occupancy, seatId, order.buyer())) {
+                    failedSeats.add(order.seatNumbers.get(i));
+                }
+            }
+
+            if (!failedSeats.isEmpty()) {
+                order.result.completeExceptionally(new SeatConflictException(failedSeats));
+                continue;
+            }
+
+            claimed.addAll(order.seatIds);
+            accepted.add(order);
+        }
+
+        if (accepted.isEmpty()) return;
+
+        Map<PurchaseOrder, List<Ticket>> ticketsByOrder = new LinkedHashMap<>();
+        List<Ticket> all = new ArrayList<>();
+
+        for (PurchaseOrder order : accepted) {
+            List<Ticket> tickets = new ArrayList<>(order.seatIds.size());
+            for (int i = 0; i < order.seatIds.size(); i++) {
+                Ticket ticket = new Ticket();
+                ticket.setEvent(order.event);
+                ticket.setUser(order.user);
+                ticket.setSeatNumber(order.seatNumbers.get(i));
+                ticket.setSeatId(order.seatIds.get(i));
+                tickets.add(ticket);
+            }
+            ticketsByOrder.put(order, tickets);
+            all.addAll(tickets);
+        }
+
+        try {
+            ticketService.persistBatch(all);
+            ticketsByOrder.forEach((order, tickets) -> order.result.complete(tickets));
+        } catch (DataIntegrityViolationException e) {
+            // memory and DB disagree (e.g. a write outside the sequencer) — fall back to one order per transaction
+            logger.warn("Batch of {} orders rejected by the DB, retrying one by one", accepted.size());
+            for (PurchaseOrder order : accepted) {
+                try {
+                    order.result.complete(ticketService.purchase(order.event, order.user, order.seatNumbers));
+                } catch (Exception ex) {
+                    order.result.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.PushStats;
+import com.livewave.ticket_api.model.OutboxMessage;
+import com.livewave.ticket_api.repository.OutboxRepository;
+import com.livewave.ticket_api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue in front of the push transport.
+ * A collector thread groups queued messages into batches of up to the transport limit
+ * (waiting linger-ms for a batch to fill), and at most max-concurrency batches are in flight.
+ * Transient failures are queued again with exponential backoff and jitter, up to max-attempts;
+ * tokens the transport reports as invalid are removed from their users.
+ * Callers never wait for the network.
+ * On shutdown, messages still queued or waiting for a retry are written to the outbox,
+ * and OutboxRelay sends them after the next start; a message that runs out of attempts is logged.
+ */
+@Service
+public class PushDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushDispatcher.class);
+
+    private final PushTransport transport;
+    private final UserRepository userRepository;
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    // submit() refuses messages beyond this
+    @Value("${notifications.push.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    // capped by the transport's own limit
+    @Value("${notifications.push.max-batch:500}")
+    private int maxBatch = 500;
+
+    // how long a partial batch waits for more messages
+    @Value("${notifications.push.linger-ms:50}")
+    private long lingerMs = 50;
+
+    @Value("${notifications.push.max-concurrency:4}")
+    private int maxConcurrency = 4;
+
+    @Value("${notifications.push.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    // first retry delay; doubles per attempt up to max-backoff-ms
+    @Value("${notifications.push.backoff-ms:500}")
+    private long backoffMs = 500;
+
+    @Value("${notifications.push.max-backoff-ms:30000}")
+    private long maxBackoffMs = 30000;
+
+    private record Pending(PushMessage message, int attempt) {}
+
+    private BlockingQueue<Pending> queue;
+    private Semaphore inFlight;
+    private Thread collector;
+    private ExecutorService senders;
+    private ScheduledExecutorService retries;
+    private volatile boolean running;
+
+    // waiting out a retry delay; written to the outbox if the app stops meanwhile
+    private final ConcurrentMap<Long, Pending> waitingRetry = new ConcurrentHashMap<>();
+    private final AtomicLong retrySequence = new AtomicLong();
+
+    // taken out of the queue but not sent because the app is stopping
+    private final Queue<Pending> unsent = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder invalidTokens = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedMessages = new LongAdder();
+    private final AtomicLong pendingRetries = new AtomicLong();
+
+    public PushDispatcher(PushTransport transport,
+                          UserRepository userRepository,
+                          OutboxRepository outboxRepository,
+                          ObjectMapper objectMapper) {
+        this.transport = transport;
+        this.userRepository = userRepository;
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        inFlight = new Semaphore(maxConcurrency);
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "push-retry");
+            t.setDaemon(true);
+            return t;
+        });
+
+        running = true;
+        collector = new Thread(this::collect, "push-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            if (collector != null) {
+                collector.interrupt();
+                collector.join(1000);
+            }
+            if (retries != null) {
+                retries.shutdownNow();
+            }
+            if (senders != null) {
+                // batches in flight finish; their transient failures land in unsent
+                senders.shutdown();
+                senders.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (queue != null) {
+            queue.drainTo(unsent);
+        }
+        unsent.addAll(waitingRetry.values());
+        waitingRetry.clear();
+        saveUnsent();
+    }
+
+    /**
+     * Queues the message; false if the queue is full and the message was not accepted.
+     */
+    public boolean submit(PushMessage message) {
+        if (message.token() == null || message.token().isBlank()) return false;
+
+        if (!queue.offer(new Pending(message, 0))) {
+            dropped.increment();
+            return false;
+        }
+        submitted.increment();
+        return true;
+    }
+
+    public PushStats stats() {
+        long sentBatches = batches.sum();
+        return new PushStats(
+                queue.size(),
+                pendingRetries.get(),
+                maxConcurrency - inFlight.availablePermits(),
+                submitted.sum(),
+                sent.sum(),
+                retried.sum(),
+                invalidTokens.sum(),
+                failed.sum(),
+                dropped.sum(),
+                sentBatches,
+                sentBatches == 0 ? 0 : (double) batchedMessages.sum() / sentBatches
+        );
+    }
+
+    private void collect() {
+        int batchLimit = Math.max(1, Math.min(maxBatch, transport.maxBatchSize()));
+
+        while (running) {
+            List<Pending> batch = new ArrayList<>(batchLimit);
+            try {
+                batch.add(queue.take());
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchLimit) {
+                    // whatever is already queued goes in without waiting
+                    if (queue.drainTo(batch, batchLimit - batch.size()) > 0) continue;
+
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                inFlight.acquire();
+                senders.execute(() -> {
+                    try {
+                        deliver(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                unsent.addAll(batch);
+                return;
+            } catch (RejectedExecutionException e) {
+                unsent.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private void deliver(List<Pending> batch) {
+        List<PushMessage> messages = new ArrayList<>(batch.size());
+        for (Pending pending : batch) messages.add(pending.message());
+
+        batches.increment();
+        batchedMessages.add(batch.size());
+
+        List<PushOutcome> outcomes;
+        try {
+            outcomes = transport.send(messages);
+        } catch (Exception e) {
+            logger.warn("Push batch of {} failed: {}", batch.size(), e.getMessage());
+            outcomes = null;
+        }
+
+        Set<String> invalid = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PushOutcome outcome = (outcomes != null && i < outcomes.size()) ? outcomes.get(i) : PushOutcome.RETRY;
+            Pending pending = batch.get(i);
+
+            switch (outcome) {
+                case SENT -> sent.increment();
+                case RETRY -> retry(pending);
+                case INVALID_TOKEN -> {
+                    invalidTokens.increment();
+                    invalid.add(pending.message().token());
+                }
+                case FAILED -> failed.increment();
+            }
+        }
+
+        if (!invalid.isEmpty()) {
+            try {
+                userRepository.clearFcmTokens(invalid);
+            } catch (Exception e) {
+                logger.warn("Failed to remove {} invalid push tokens", invalid.size(), e);
+            }
+        }
+    }
+
+    private void retry(Pending pending) {
+        if (!running) {
+            unsent.add(pending);
+            return;
+        }
+
+        int attempt = pending.attempt() + 1;
+        if (attempt >= maxAttempts) {
+            failed.increment();
+            logger.warn("Push \"{}\" to token ...{} dropped after {} attempts",
+                    pending.message().title(), tail(pending.message().token()), attempt);
+            return;
+        }
+
+        // full jitter in the upper half, so retries of one failed batch spread out
+        long delay = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+
+        Pending next = new Pending(pending.message(), attempt);
+        retried.increment();
+        pendingRetries.incrementAndGet();
+        long key = retrySequence.incrementAndGet();
+        waitingRetry.put(key, next);
+        try {
+            retries.schedule(() -> {
+                if (waitingRetry.remove(key) == null) return;
+                pendingRetries.decrementAndGet();
+                if (!queue.offer(next)) {
+                    dropped.increment();
+                    logger.warn("Push \"{}\" to token ...{} dropped: queue full on retry",
+                            next.message().title(), tail(next.message().token()));
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // stopping: stop() collects it from waitingRetry
+            pendingRetries.decrementAndGet();
+        }
+    }
+
+    // unsent messages go to the outbox so the next start delivers them
+    private void saveUnsent() {
+        if (unsent.isEmpty()) return;
+
+        List<OutboxMessage> rows = new ArrayList<>(unsent.size());
+        for (Pending pending : unsent) {
+            try {
+                OutboxMessage row = new OutboxMessage();
+                row.setType(OutboxMessage.Type.PUSH);
+                row.setDedupeKey("push:unsent:" + UUID.randomUUID());
+                row.setPayload(objectMapper.writeValueAsString(pending.message()));
+                rows.add(row);
+            } catch (Exception e) {
+                logger.warn("Cannot save unsent push \"{}\": {}", pending.message().title(), e.getMessage());
+            }
+        }
+        unsent.clear();
+
+        try {
+            outboxRepository.insertAll(rows);
+            logger.info("Saved {} unsent pushes to the outbox", rows.size());
+        } catch (Exception e) {
+            logger.error("Lost {} unsent pushes on shutdown", rows.size(), e);
+        }
+    }
+
+    private static String tail(String token) {
+        return token.length() <= 6 ? token : token.substring(token.length() - 6);
+    }
+}
@@ -0,0 +1,9 @@
+package com.livewave.ticket_api.service;
+
+import java.util.Map;
+
+/**
+ * One push notification to one device token.
+ */
+public record PushMessage(String token, String title, String body, Map<String, String> data) {
+}
@@ -0,0 +1,14 @@
+package com.livewave.ticket_api.service;
+
+/**
+ * Result of sending one message of a batch (see PushTransport).
+ */
+public enum PushOutcome {
+    SENT,
+    // transient: unavailable, internal error, quota; sent again with backoff
+    RETRY,
+    // the token is not registered (any more); removed from its user
+    INVALID_TOKEN,
+    // permanent for this message, not retried
+    FAILED
+}
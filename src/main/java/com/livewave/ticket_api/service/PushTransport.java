@@ -0,0 +1,21 @@
+package com.livewave.ticket_api.service;
+
+import java.util.List;
+
+/**
+ * Delivers batches of push messages. FcmPushTransport talks to Firebase;
+ * FakePushTransport (notifications.push.transport=fake) stays in process for local load tests.
+ */
+public interface PushTransport {
+
+    /**
+     * Most messages one send call accepts.
+     */
+    int maxBatchSize();
+
+    /**
+     * Sends the batch; the outcomes are in the order of the messages.
+     * An exception means the whole call failed and every message is retried.
+     */
+    List<PushOutcome> send(List<PushMessage> batch) throws Exception;
+}
@@ -0,0 +1,90 @@
+package com.livewave.ticket_api.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits Russian and English text into search terms: lower case, ё folded into е,
+ * common Russian inflectional endings stripped and English plurals made singular,
+ * so "концерты", "концерта" and "концерт" (or "games" and "game") land on the same term.
+ * Terms are prefixes of the words (except -ies -> -y), which keeps prefix matching
+ * for type-ahead working on them.
+ */
+final class SearchTokenizer {
+
+    // longest first; stripped only if at least MIN_STEM letters remain
+    private static final String[] RU_ENDINGS = {
+            "иями", "ями", "ами", "иях", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ах", "ях", "ов", "ев", "ей", "ой", "ий", "ый", "ая", "яя", "ое", "ее",
+            "ые", "ие", "ую", "юю", "ом", "ем", "ам", "ям", "ия",
+            "а", "я", "ы", "и", "у", "ю", "е", "о", "ь", "й"
+    };
+
+    // -es only after these; elsewhere (games, houses) the e belongs to the word
+    private static final String[] EN_SIBILANTS = {
+            "ss", "ch", "sh", "x", "z"
+    };
+
+    private static final int MIN_STEM = 3;
+
+    private SearchTokenizer() {}
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                // single letters are prepositions ("в", "с", "a"), not worth a posting list
+                if (i - start > 1 || Character.isDigit(normalized.charAt(start))) {
+                    terms.add(stem(normalized.substring(start, i)));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        if (!isCyrillic(word)) return singular(word);
+
+        for (String ending : RU_ENDINGS) {
+            if (word.length() - ending.length() >= MIN_STEM && word.endsWith(ending)) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    // English words are only brought to the singular, so "game" and "games" share a term
+    private static String singular(String word) {
+        if (word.length() - 3 >= MIN_STEM && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() - 2 >= MIN_STEM && word.endsWith("es")) {
+            String stem = word.substring(0, word.length() - 2);
+            for (String sibilant : EN_SIBILANTS) {
+                if (stem.endsWith(sibilant)) return stem;
+            }
+        }
+        if (word.length() - 1 >= MIN_STEM && word.endsWith("s")
+                && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static boolean isCyrillic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.UnicodeBlock.of(word.charAt(i)) == Character.UnicodeBlock.CYRILLIC) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.livewave.ticket_api.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Temporary reservation of several seats of one event by one user.
+ */
+public class SeatHold {
+
+    private final String id;
+    private final Long eventId;
+    private final String owner;
+    private final List<String> seatNumbers;
+    private final List<Long> seatIds;
+    private final long expiresAtMillis;
+
+    // the occupancy the hold was placed in (a rebuilt index no longer contains it)
+    private final EventOccupancy occupancy;
+
+    private volatile boolean released;
+
+    public SeatHold(String id,
+                    Long eventId,
+                    String owner,
+                    List<String> seatNumbers,
+                    List<Long> seatIds,
+                    long expiresAtMillis,
+                    EventOccupancy occupancy) {
+        this.id = id;
+        this.eventId = eventId;
+        this.owner = owner;
+        this.seatNumbers = seatNumbers;
+        this.seatIds = seatIds;
+        this.expiresAtMillis = expiresAtMillis;
+        this.occupancy = occupancy;
+    }
+
+    public String getId() { return id; }
+    public Long getEventId() { return eventId; }
+    public String getOwner() { return owner; }
+    public List<String> getSeatNumbers() { return seatNumbers; }
+    public List<Long> getSeatIds() { return seatIds; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+    public Instant getExpiresAt() { return Instant.ofEpochMilli(expiresAtMillis); }
+
+    EventOccupancy getOccupancy() { return occupancy; }
+
+    public boolean isReleased() { return released; }
+    void markReleased() { this.released = true; }
+
+    public boolean isActive(long nowMillis) {
+        return !released && nowMillis < expiresAtMillis;
+    }
+
+    public boolean isOwnedBy(String user) {
+        return owner != null && owner.equals(user);
+    }
+}
@@ -0,0 +1,201 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.exception.BadRequestException;
+import com.livewave.ticket_api.exception.NotFoundException;
+import com.livewave.ticket_api.exception.SeatConflictException;
+import com.livewave.ticket_api.exception.UnauthorizedException;
+import com.livewave.ticket_api.scheduler.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Temporary seat reservations in front of the purchase path.
+ * Seats are taken with CAS on the event's occupancy index, expiry is driven by a timing wheel.
+ */
+@Service
+public class SeatHoldService {
+
+    private final SeatLayoutService seatLayoutService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final WebSocketService webSocketService;
+
+    private final ConcurrentMap<String, SeatHold> holdsById = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<SeatHold> expiryWheel =
+            new HashedTimingWheel<>("seat-hold", 1000, 1024, this::expire);
+
+    @Value("${seats.hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${seats.hold.max-seats:10}")
+    private int maxSeats;
+
+    // when true, purchases are accepted only for seats held by the buyer.
+    // Off by default: anonymous purchases through TicketController have no buyer to hold for
+    @Value("${seats.hold.required:false}")
+    private boolean holdRequired;
+
+    public SeatHoldService(SeatLayoutService seatLayoutService,
+                           SeatOccupancyService seatOccupancyService,
+                           WebSocketService webSocketService) {
+        this.seatLayoutService = seatLayoutService;
+        this.seatOccupancyService = seatOccupancyService;
+        this.webSocketService = webSocketService;
+    }
+
+    @PostConstruct
+    public void start() {
+        expiryWheel.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiryWheel.stop();
+    }
+
+    public SeatHold hold(Long eventId, List<String> seatNumbers, String owner) {
+
+        if (owner == null) {
+            throw new UnauthorizedException("Unauthorized");
+        }
+
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            throw new BadRequestException("Список мест пуст");
+        }
+
+        Set<String> requested = new LinkedHashSet<>(seatNumbers);
+        if (requested.size() > maxSeats) {
+            throw new BadRequestException("Too many seats in one hold (max " + maxSeats + ")");
+        }
+
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+        EventOccupancy occupancy = seatOccupancyService.get(eventId);
+        long now = System.currentTimeMillis();
+
+        List<Long> seatIds = requested.stream()
+                .map(layout::seatIdOf)
+                .filter(Objects::nonNull)
+                .toList();
+
+        SeatHold hold = new SeatHold(
+                UUID.randomUUID().toString(),
+                eventId,
+                owner,
+                List.copyOf(requested),
+                seatIds,
+                now + ttlSeconds * 1000,
+                occupancy
+        );
+
+        List<String> failedSeats = new ArrayList<>();
+        List<Integer> acquired = new ArrayList<>();
+
+        for (String seatNumber : requested) {
+            Long seatId = layout.seatIdOf(seatNumber);
+            int pos = (seatId != null) ? occupancy.positionOf(seatId) : -1;
+
+            if (pos < 0 || !occupancy.tryHold(pos, hold, now)) {
+                failedSeats.add(seatNumber);
+            } else {
+                acquired.add(pos);
+            }
+        }
+
+        if (!failedSeats.isEmpty()) {
+            // all-or-nothing: give back what we managed to take
+            hold.markReleased();
+            for (int pos : acquired) {
+                occupancy.releaseHold(pos, hold);
+            }
+            throw new SeatConflictException(failedSeats);
+        }
+
+        holdsById.put(hold.getId(), hold);
+        expiryWheel.schedule(hold, hold.getExpiresAtMillis());
+
+        for (String seatNumber : requested) {
+            publish(eventId, layout.seatIdOf(seatNumber), seatNumber, true);
+        }
+
+        return hold;
+    }
+
+    public void release(String holdId, String owner) {
+        SeatHold hold = holdsById.get(holdId);
+
+        if (hold == null || !hold.isOwnedBy(owner)) {
+            throw new NotFoundException("Hold not found");
+        }
+
+        holdsById.remove(holdId, hold);
+        releaseSeats(hold);
+    }
+
+    /**
+     * A seat can be bought by the owner of its active hold, or by anyone
+     * if it is not held and holds are not required.
+     */
+    public boolean canPurchase(EventOccupancy occupancy, Long seatId, String buyer) {
+        SeatHold hold = occupancy.activeHold(seatId, System.currentTimeMillis());
+
+        if (hold != null) {
+            return hold.isOwnedBy(buyer);
+        }
+        return !holdRequired;
+    }
+
+    /**
+     * Drops the buyer's holds on seats that have just been booked.
+     */
+    public void completePurchase(Long eventId, String buyer, Collection<Long> seatIds) {
+        EventOccupancy occupancy = seatOccupancyService.get(eventId);
+        long now = System.currentTimeMillis();
+
+        for (Long seatId : seatIds) {
+            SeatHold hold = occupancy.activeHold(seatId, now);
+            if (hold != null && hold.isOwnedBy(buyer)) {
+                occupancy.releaseHold(occupancy.positionOf(seatId), hold);
+            }
+        }
+    }
+
+    public int activeHoldCount() {
+        return holdsById.size();
+    }
+
+    private void expire(SeatHold hold) {
+        holdsById.remove(hold.getId(), hold);
+        if (!hold.isReleased()) {
+            releaseSeats(hold);
+        }
+    }
+
+    private void releaseSeats(SeatHold hold) {
+        hold.markReleased();
+
+        EventOccupancy occupancy = hold.getOccupancy();
+        List<Long> seatIds = hold.getSeatIds();
+
+        for (int i = 0; i < seatIds.size(); i++) {
+            int pos = occupancy.positionOf(seatIds.get(i));
+
+            // only seats that still carried this hold become visible as free again
+            if (pos >= 0 && occupancy.releaseHold(pos, hold) && !occupancy.isBookedAt(pos)) {
+                publish(hold.getEventId(), seatIds.get(i), null, false);
+            }
+        }
+    }
+
+    private void publish(Long eventId, Long seatId, String seatNumber, boolean held) {
+        webSocketService.sendSeatUpdate(
+                eventId,
+                new SeatDto(seatId, eventId, seatNumber, null, null, false, held)
+        );
+    }
+}
@@ -0,0 +1,149 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.model.LayoutSeat;
+import com.livewave.ticket_api.model.Seat;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory seat geometry of a hall, in row/col order.
+ * One instance per venue layout is shared by all events that reference it;
+ * events created before layouts get their own instance built from the seats table.
+ */
+public final class SeatLayout {
+
+    public static final SeatLayout EMPTY = new SeatLayout(null, "", 0);
+
+    // null for a legacy per-event hall
+    private final Long layoutId;
+
+    // stable identity of the geometry, used by clients to cache it: "L<layoutId>" or "E<eventId>"
+    private final String key;
+
+    private final long[] seatIds;
+    private final String[] labels;
+    private final int[] rows;
+    private final int[] cols;
+    private final String[] zones;
+
+    private final Map<String, Integer> positionByLabel;
+
+    // seat ids in ascending order and their positions, for seatId -> position lookups
+    private final long[] sortedSeatIds;
+    private final int[] sortedPositions;
+
+    private SeatLayout(Long layoutId, String key, int size) {
+        this.layoutId = layoutId;
+        this.key = key;
+        this.seatIds = new long[size];
+        this.labels = new String[size];
+        this.rows = new int[size];
+        this.cols = new int[size];
+        this.zones = new String[size];
+        this.positionByLabel = new HashMap<>(size * 4 / 3 + 1);
+        this.sortedSeatIds = new long[size];
+        this.sortedPositions = new int[size];
+    }
+
+    public static SeatLayout ofLayoutSeats(Long layoutId, List<LayoutSeat> seats) {
+        SeatLayout layout = new SeatLayout(layoutId, "L" + layoutId, seats.size());
+        for (int i = 0; i < seats.size(); i++) {
+            LayoutSeat s = seats.get(i);
+            layout.set(i, s.getId(), s.getSeatNumber(), s.getRowNum(), s.getColNum(), s.getZone());
+        }
+        layout.indexSeatIds();
+        return layout;
+    }
+
+    public static SeatLayout ofSeats(List<Seat> seats) {
+        Long eventId = seats.isEmpty() ? null : seats.get(0).getEventId();
+        SeatLayout layout = new SeatLayout(null, "E" + eventId, seats.size());
+        for (int i = 0; i < seats.size(); i++) {
+            Seat s = seats.get(i);
+            layout.set(i, s.getId(), s.getSeatNumber(), s.getRowNum(), s.getColNum(), null);
+        }
+        layout.indexSeatIds();
+        return layout;
+    }
+
+    private void set(int i, Long id, String label, Integer row, Integer col, String zone) {
+        seatIds[i] = id;
+        labels[i] = label;
+        rows[i] = (row != null) ? row : 0;
+        cols[i] = (col != null) ? col : 0;
+        zones[i] = zone;
+        positionByLabel.put(label, i);
+    }
+
+    private void indexSeatIds() {
+        Integer[] order = new Integer[seatIds.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingLong(i -> seatIds[i]));
+
+        for (int i = 0; i < order.length; i++) {
+            sortedSeatIds[i] = seatIds[order[i]];
+            sortedPositions[i] = order[i];
+        }
+    }
+
+    public Long getLayoutId() {
+        return layoutId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public boolean isEmpty() {
+        return seatIds.length == 0;
+    }
+
+    public long seatIdAt(int position) {
+        return seatIds[position];
+    }
+
+    public String labelAt(int position) {
+        return labels[position];
+    }
+
+    public int rowAt(int position) {
+        return rows[position];
+    }
+
+    public int colAt(int position) {
+        return cols[position];
+    }
+
+    public String zoneAt(int position) {
+        return zones[position];
+    }
+
+    /**
+     * Position of the seat with the given label, or -1.
+     */
+    public int positionOf(String label) {
+        Integer pos = positionByLabel.get(label);
+        return pos != null ? pos : -1;
+    }
+
+    /**
+     * Id of the seat with the given label, or null if the hall has no such seat.
+     */
+    public Long seatIdOf(String label) {
+        int pos = positionOf(label);
+        return pos >= 0 ? seatIds[pos] : null;
+    }
+
+    /**
+     * Position of the seat with the given id, or -1 if the hall has no such seat.
+     */
+    public int positionOfSeat(Long seatId) {
+        if (seatId == null) return -1;
+        int i = Arrays.binarySearch(sortedSeatIds, seatId);
+        return i >= 0 ? sortedPositions[i] : -1;
+    }
+}
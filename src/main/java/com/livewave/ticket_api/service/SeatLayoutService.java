@@ -0,0 +1,261 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.ZoneRange;
+import com.livewave.ticket_api.exception.BadRequestException;
+import com.livewave.ticket_api.exception.ResourceNotFoundException;
+import com.livewave.ticket_api.model.LayoutSeat;
+import com.livewave.ticket_api.model.Seat;
+import com.livewave.ticket_api.model.VenueLayout;
+import com.livewave.ticket_api.repository.EventRepository;
+import com.livewave.ticket_api.repository.LayoutSeatRepository;
+import com.livewave.ticket_api.repository.SeatRepository;
+import com.livewave.ticket_api.repository.VenueLayoutRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Venue layout templates and the in-memory cache of hall geometry.
+ * A layout's seats are written once and never change, so each template is loaded once
+ * and shared by every event that references it.
+ */
+@Service
+public class SeatLayoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatLayoutService.class);
+
+    private final VenueLayoutRepository venueLayoutRepository;
+    private final LayoutSeatRepository layoutSeatRepository;
+    private final SeatRepository seatRepository;
+    private final EventRepository eventRepository;
+
+    // a new grid commits on its own, so a lost creation race leaves the caller's transaction usable
+    private final TransactionTemplate newTransaction;
+
+    // layout id -> geometry
+    private final ConcurrentMap<Long, SeatLayout> templates = new ConcurrentHashMap<>();
+
+    // event id -> geometry (a shared template, a legacy per-event hall, or EMPTY for an event without one)
+    private final ConcurrentMap<Long, SeatLayout> eventLayouts = new ConcurrentHashMap<>();
+
+    // bumped by evictEvent, so a load that raced an eviction does not stay cached
+    private final AtomicLong eventEvictions = new AtomicLong();
+
+    // seats per JDBC batch; the generator never holds more than one chunk in memory
+    @Value("${seats.generation.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${seats.generation.max-seats:100000}")
+    private long maxSeats = 100_000;
+
+    public SeatLayoutService(VenueLayoutRepository venueLayoutRepository,
+                             LayoutSeatRepository layoutSeatRepository,
+                             SeatRepository seatRepository,
+                             EventRepository eventRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.venueLayoutRepository = venueLayoutRepository;
+        this.layoutSeatRepository = layoutSeatRepository;
+        this.seatRepository = seatRepository;
+        this.eventRepository = eventRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Geometry of the event's hall; empty if the event has none.
+     */
+    public SeatLayout forEvent(Long eventId) {
+        SeatLayout layout = eventLayouts.get(eventId);
+        if (layout != null) return layout;
+
+        // read outside the map, so the queries hold no bin lock; the first one installed wins
+        long evictions = eventEvictions.get();
+        SeatLayout loaded = loadForEvent(eventId);
+        if (loaded == null) return SeatLayout.EMPTY;
+
+        SeatLayout installed = eventLayouts.putIfAbsent(eventId, loaded);
+        if (installed != null) return installed;
+
+        if (eventEvictions.get() != evictions) {
+            eventLayouts.remove(eventId, loaded);
+        }
+        return loaded;
+    }
+
+    public SeatLayout getTemplate(Long layoutId) {
+        SeatLayout layout = templates.get(layoutId);
+        if (layout != null) return layout;
+
+        List<LayoutSeat> seats = layoutSeatRepository.findByLayoutIdOrderByRowNumAscColNumAsc(layoutId);
+        // not cached until the generating transaction has committed
+        if (seats.isEmpty()) return SeatLayout.EMPTY;
+
+        // layout seats never change, so a concurrent load built the same geometry
+        SeatLayout loaded = SeatLayout.ofLayoutSeats(layoutId, seats);
+        SeatLayout installed = templates.putIfAbsent(layoutId, loaded);
+        return installed != null ? installed : loaded;
+    }
+
+    /**
+     * Forgets which hall the event uses, e.g. after it was moved to a layout or deleted.
+     */
+    public void evictEvent(Long eventId) {
+        eventEvictions.incrementAndGet();
+        eventLayouts.remove(eventId);
+    }
+
+    public List<VenueLayout> findAllLayouts() {
+        return venueLayoutRepository.findAll();
+    }
+
+    public VenueLayout findLayout(Long layoutId) {
+        return venueLayoutRepository.findById(layoutId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Venue layout", "id", layoutId)
+                );
+    }
+
+    /**
+     * Plain rows x cols grid of the venue, created on first use and reused afterwards.
+     * The grid key is unique, so when two requests create the same grid at once
+     * the loser re-reads the winner's layout.
+     */
+    public VenueLayout findOrCreateGrid(String venue, int rows, int cols) {
+        String gridKey = venue + "|" + rows + "x" + cols;
+
+        return venueLayoutRepository.findByGridKey(gridKey).orElseGet(() -> {
+            try {
+                return newTransaction.execute(status -> createLayout(
+                        "Grid " + rows + "x" + cols, venue, gridKey, rows, cols, List.of()));
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Grid {} was created concurrently, reusing it", gridKey);
+                return venueLayoutRepository.findByGridKey(gridKey).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    @Transactional
+    public VenueLayout createLayout(String name, String venue, int rows, int cols, List<ZoneRange> zones) {
+        return createLayout(name, venue, null, rows, cols, zones);
+    }
+
+    private VenueLayout createLayout(String name, String venue, String gridKey,
+                                     int rows, int cols, List<ZoneRange> zones) {
+
+        if (rows <= 0 || cols <= 0) {
+            throw new BadRequestException("Rows and columns must be greater than zero");
+        }
+
+        if ((long) rows * cols > maxSeats) {
+            throw new BadRequestException("Hall is too large (max " + maxSeats + " seats)");
+        }
+
+        VenueLayout layout = new VenueLayout();
+        layout.setName(name);
+        layout.setVenue(venue);
+        layout.setGridKey(gridKey);
+        layout.setRowCount(rows);
+        layout.setColCount(cols);
+        layout.setSeatCount(rows * cols);
+
+        VenueLayout saved = venueLayoutRepository.save(layout);
+        generateSeats(saved.getId(), rows, cols, zones != null ? zones : List.of());
+        return saved;
+    }
+
+    // runs inside the creating transaction, so the layout and its seats commit together;
+    // progress only goes to the log, the caller gets the layout id once everything is in
+    private void generateSeats(Long layoutId, int rows, int cols, List<ZoneRange> zones) {
+        long total = (long) rows * cols;
+        long started = System.nanoTime();
+        logger.info("Generating {} seats for layout {}", total, layoutId);
+
+        List<LayoutSeat> chunk = new ArrayList<>((int) Math.min(chunkSize, total));
+        long generated = 0;
+
+        for (int r = 1; r <= rows; r++) {
+            String rowLabel = rowLabel(r);
+            String zone = zoneOf(zones, r);
+
+            for (int c = 1; c <= cols; c++) {
+                LayoutSeat s = new LayoutSeat();
+                s.setLayoutId(layoutId);
+                s.setRowNum(r);
+                s.setColNum(c);
+                s.setSeatNumber(rowLabel + c);
+                s.setZone(zone);
+
+                chunk.add(s);
+
+                if (chunk.size() >= chunkSize) {
+                    generated += flushSeats(layoutId, chunk, generated, total);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+
+        flushSeats(layoutId, chunk, generated, total);
+
+        logger.info("Generated {} seats for layout {} in {} ms",
+                total, layoutId, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int flushSeats(Long layoutId, List<LayoutSeat> chunk, long generated, long total) {
+        if (chunk.isEmpty()) return 0;
+
+        layoutSeatRepository.insertAll(chunk);
+
+        logger.debug("Seat generation for layout {}: {}/{}", layoutId, generated + chunk.size(), total);
+        return chunk.size();
+    }
+
+    /**
+     * Spreadsheet-style row label: 1 -> A, 26 -> Z, 27 -> AA, 28 -> AB ...
+     */
+    public static String rowLabel(int row) {
+        StringBuilder sb = new StringBuilder();
+        int n = row;
+        while (n > 0) {
+            n--;
+            sb.append((char) ('A' + n % 26));
+            n /= 26;
+        }
+        return sb.reverse().toString();
+    }
+
+    private static String zoneOf(List<ZoneRange> zones, int row) {
+        for (ZoneRange zone : zones) {
+            if (zone.contains(row)) return zone.getName();
+        }
+        return null;
+    }
+
+    // null when nothing should be cached: the layout is still being generated, or there is no such event
+    private SeatLayout loadForEvent(Long eventId) {
+        Long layoutId = eventRepository.findLayoutIdById(eventId);
+
+        if (layoutId != null) {
+            SeatLayout template = getTemplate(layoutId);
+            return template.isEmpty() ? null : template;
+        }
+
+        // event created before layouts: its hall still lives in the seats table
+        List<Seat> seats = seatRepository.findByEventIdOrderByRowNumAscColNumAsc(eventId);
+        if (!seats.isEmpty()) return SeatLayout.ofSeats(seats);
+
+        // unknown ids are not remembered, or anonymous requests could fill the map
+        return eventRepository.existsById(eventId) ? SeatLayout.EMPTY : null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatLayoutView;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact seat-map encoding for mobile clients.
+ * The layout (ids, labels, coordinates) is fetched once per layout key and cached by the client;
+ * polls then carry only one state per seat, in layout order.
+ *
+ * Availability frame (big-endian):
+ * <pre>
+ *   byte    version (1)
+ *   byte    encoding: 0 = bitset (2 bits per seat), 1 = run-length
+ *   byte    layout key length, followed by the key in UTF-8
+ *   int     seat count
+ *   ...     payload
+ * </pre>
+ * Bitset payload: seat i is in byte i/4, bits 2*(i%4)..2*(i%4)+1.
+ * Run-length payload: repeated [state byte][run length as unsigned varint].
+ * The encoder picks whichever payload is smaller.
+ */
+public final class SeatMapCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.livewave.seatmap";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public static final byte AVAILABLE = 0;
+    public static final byte HELD = 1;
+    public static final byte BOOKED = 2;
+
+    public static final byte ENCODING_BITSET = 0;
+    public static final byte ENCODING_RLE = 1;
+
+    private static final byte VERSION = 1;
+
+    public record Payload(byte encoding, byte[] data) {}
+
+    private SeatMapCodec() {}
+
+    /**
+     * True only if the Accept header names the compact type explicitly;
+     * wildcard clients keep getting JSON.
+     */
+    public static boolean isRequested(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) return false;
+
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(acceptHeader)) {
+                if (!type.isWildcardType() && !type.isWildcardSubtype() && MEDIA_TYPE.includes(type)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+
+    public static byte[] encode(String layoutKey, byte[] states) {
+        byte[] key = layoutKey.getBytes(StandardCharsets.UTF_8);
+        Payload payload = encodePayload(states);
+
+        ByteBuffer buf = ByteBuffer.allocate(3 + key.length + 4 + payload.data().length);
+        buf.put(VERSION);
+        buf.put(payload.encoding());
+        buf.put((byte) key.length);
+        buf.put(key);
+        buf.putInt(states.length);
+        buf.put(payload.data());
+        return buf.array();
+    }
+
+    /**
+     * Smallest payload for the states: the run-length one if it beats the bitset.
+     */
+    public static Payload encodePayload(byte[] states) {
+        byte[] rle = encodeRle(states, (states.length + 3) >>> 2);
+        return rle != null
+                ? new Payload(ENCODING_RLE, rle)
+                : new Payload(ENCODING_BITSET, encodeBitset(states));
+    }
+
+    public static byte[] decode(byte[] frame) {
+        ByteBuffer buf = ByteBuffer.wrap(frame);
+
+        if (buf.get() != VERSION) {
+            throw new IllegalArgumentException("Unsupported seat-map version");
+        }
+
+        byte encoding = buf.get();
+        int keyLength = buf.get() & 0xFF;
+        buf.position(buf.position() + keyLength);
+        int size = buf.getInt();
+
+        byte[] payload = new byte[buf.remaining()];
+        buf.get(payload);
+        return decodePayload(encoding, payload, size);
+    }
+
+    public static byte[] decodePayload(byte encoding, byte[] payload, int size) {
+        byte[] states = new byte[size];
+
+        if (encoding == ENCODING_BITSET) {
+            for (int i = 0; i < size; i++) {
+                states[i] = (byte) ((payload[i >>> 2] >>> ((i & 3) << 1)) & 3);
+            }
+            return states;
+        }
+
+        int pos = 0;
+        int i = 0;
+        while (i < payload.length) {
+            byte state = payload[i++];
+            int run = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = payload[i++] & 0xFF;
+                run |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            for (int k = 0; k < run; k++) states[pos++] = state;
+        }
+        return states;
+    }
+
+    public static SeatLayoutView layoutView(SeatLayout layout) {
+        int n = layout.size();
+
+        long[] ids = new long[n];
+        String[] labels = new String[n];
+        int[] rows = new int[n];
+        int[] cols = new int[n];
+        String[] zones = null;
+
+        for (int i = 0; i < n; i++) {
+            ids[i] = layout.seatIdAt(i);
+            labels[i] = layout.labelAt(i);
+            rows[i] = layout.rowAt(i);
+            cols[i] = layout.colAt(i);
+
+            if (layout.zoneAt(i) != null) {
+                if (zones == null) zones = new String[n];
+                zones[i] = layout.zoneAt(i);
+            }
+        }
+
+        return new SeatLayoutView(layout.getKey(), ids, labels, rows, cols, zones);
+    }
+
+    private static byte[] encodeBitset(byte[] states) {
+        byte[] out = new byte[(states.length + 3) >>> 2];
+        for (int i = 0; i < states.length; i++) {
+            out[i >>> 2] |= (byte) (states[i] << ((i & 3) << 1));
+        }
+        return out;
+    }
+
+    // null as soon as the run-length form gets at least as large as the limit
+    private static byte[] encodeRle(byte[] states, int limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int i = 0;
+        while (i < states.length) {
+            byte state = states[i];
+            int run = 1;
+            while (i + run < states.length && states[i + run] == state) run++;
+
+            out.write(state);
+            int v = run;
+            while ((v & ~0x7F) != 0) {
+                out.write((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.write(v);
+
+            if (out.size() >= limit) return null;
+            i += run;
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,227 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatAvailability;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatMapDelta;
+import com.livewave.ticket_api.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory occupancy index per event.
+ * Loaded once from the DB on first access, then kept up to date by TicketService,
+ * so seat-map reads don't have to query the tickets table.
+ * Seat maps combine the cached hall geometry (SeatLayoutService) with this live state.
+ */
+@Service
+public class SeatOccupancyService {
+
+    private final SeatLayoutService seatLayoutService;
+    private final TicketRepository ticketRepository;
+
+    private final ConcurrentMap<Long, EventOccupancy> occupancies = new ConcurrentHashMap<>();
+
+    // seats booked while an index is being read from the DB, one set per load in progress;
+    // each load applies its set after installing, so such a booking is never lost
+    private final ConcurrentMap<Long, List<Set<Long>>> bookedDuringLoad = new ConcurrentHashMap<>();
+
+    // changes kept per event for delta fetches (see EventOccupancy#changesSince)
+    @Value("${seats.delta.history-size:1024}")
+    private int historySize = EventOccupancy.DEFAULT_HISTORY_SIZE;
+
+    public SeatOccupancyService(SeatLayoutService seatLayoutService,
+                                TicketRepository ticketRepository) {
+        this.seatLayoutService = seatLayoutService;
+        this.ticketRepository = ticketRepository;
+    }
+
+    public EventOccupancy get(Long eventId) {
+        EventOccupancy occupancy = occupancies.get(eventId);
+        if (occupancy != null) return occupancy;
+
+        // read outside the map, so a slow load does not block the bin's other events;
+        // two concurrent first reads may both load, the first one installed wins
+        Set<Long> booked = ConcurrentHashMap.newKeySet();
+        bookedDuringLoad.compute(eventId, (id, loads) -> {
+            List<Set<Long>> registered = (loads != null) ? loads : new CopyOnWriteArrayList<>();
+            registered.add(booked);
+            return registered;
+        });
+        try {
+            EventOccupancy loaded = load(eventId);
+            if (loaded == null) return new EventOccupancy(eventId, SeatLayout.EMPTY, 1);
+
+            EventOccupancy installed = occupancies.putIfAbsent(eventId, loaded);
+            occupancy = (installed != null) ? installed : loaded;
+            booked.forEach(occupancy::markBooked);
+            return occupancy;
+        } finally {
+            bookedDuringLoad.computeIfPresent(eventId, (id, loads) -> {
+                loads.remove(booked);
+                return loads.isEmpty() ? null : loads;
+            });
+        }
+    }
+
+    /**
+     * Full seat map of the event in row/col order; empty if the event has no hall.
+     */
+    public List<SeatDto> seatMap(Long eventId) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+        if (layout.isEmpty()) return List.of();
+
+        return seatMap(eventId, layout, get(eventId));
+    }
+
+    /**
+     * Seats changed after the given version, or the full map (full = true) when since is null
+     * or the change log no longer reaches back to it.
+     */
+    public SeatMapDelta seatMapSince(Long eventId, Long since) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+        EventOccupancy occupancy = get(eventId);
+
+        EventOccupancy.Changes changes = (since != null) ? occupancy.changesSince(since) : null;
+
+        if (changes == null || !isAligned(layout, occupancy)) {
+            // version read before the states, so nothing newer than it is ever missed
+            long version = occupancy.getVersion();
+            return new SeatMapDelta(eventId, version, true,
+                    layout.isEmpty() ? List.of() : seatMap(eventId, layout, occupancy));
+        }
+
+        long now = System.currentTimeMillis();
+        List<SeatDto> seats = new ArrayList<>(changes.positions().length);
+        for (int pos : changes.positions()) {
+            seats.add(toDto(eventId, layout, pos, occupancy, pos, now));
+        }
+        return new SeatMapDelta(eventId, changes.version(), false, seats);
+    }
+
+    /**
+     * One SeatMapCodec state per seat of the layout, in layout order.
+     */
+    public byte[] seatStates(Long eventId, SeatLayout layout) {
+        byte[] states = new byte[layout.size()];
+        if (layout.isEmpty()) return states;
+
+        EventOccupancy occupancy = get(eventId);
+        long now = System.currentTimeMillis();
+        boolean aligned = isAligned(layout, occupancy);
+
+        for (int i = 0; i < states.length; i++) {
+            int pos = aligned ? i : occupancy.positionOf(layout.seatIdAt(i));
+
+            if (pos < 0) continue;
+
+            if (occupancy.isBookedAt(pos)) {
+                states[i] = SeatMapCodec.BOOKED;
+            } else if (occupancy.isHeldAt(pos, now)) {
+                states[i] = SeatMapCodec.HELD;
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Availability frame for the compact seat-map representation (see SeatMapCodec).
+     */
+    public byte[] encodedAvailability(Long eventId) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+        return SeatMapCodec.encode(layout.getKey(), seatStates(eventId, layout));
+    }
+
+    public SeatAvailability availability(Long eventId) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+        byte[] states = seatStates(eventId, layout);
+        SeatMapCodec.Payload payload = SeatMapCodec.encodePayload(states);
+
+        return new SeatAvailability(
+                layout.getKey(),
+                states.length,
+                payload.encoding() == SeatMapCodec.ENCODING_RLE ? "rle" : "bitset",
+                Base64.getEncoder().encodeToString(payload.data())
+        );
+    }
+
+    public boolean isBooked(Long eventId, Long seatId) {
+        return get(eventId).isBooked(seatId);
+    }
+
+    /**
+     * Applies a committed booking. Loads in progress are told first: if the index is not
+     * installed yet at the check below, the load that installs it replays the seat.
+     */
+    public void markBooked(Long eventId, Long seatId) {
+        List<Set<Long>> loads = bookedDuringLoad.get(eventId);
+        if (loads != null) {
+            for (Set<Long> booked : loads) booked.add(seatId);
+        }
+
+        EventOccupancy occupancy = occupancies.get(eventId);
+        if (occupancy != null) occupancy.markBooked(seatId);
+    }
+
+    /**
+     * Drops the cached index and hall, e.g. when the event was moved to a layout or deleted.
+     */
+    public void evict(Long eventId) {
+        seatLayoutService.evictEvent(eventId);
+        occupancies.remove(eventId);
+    }
+
+    private EventOccupancy load(Long eventId) {
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+
+        // events without a hall are not cached
+        if (layout.isEmpty()) return null;
+
+        EventOccupancy occupancy = new EventOccupancy(eventId, layout, historySize);
+        for (Long seatId : ticketRepository.findBookedSeatIdsByEventId(eventId)) {
+            occupancy.loadBooked(seatId);
+        }
+        return occupancy;
+    }
+
+    private List<SeatDto> seatMap(Long eventId, SeatLayout layout, EventOccupancy occupancy) {
+        long now = System.currentTimeMillis();
+        boolean aligned = isAligned(layout, occupancy);
+
+        List<SeatDto> seats = new ArrayList<>(layout.size());
+        for (int i = 0; i < layout.size(); i++) {
+            int pos = aligned ? i : occupancy.positionOf(layout.seatIdAt(i));
+            seats.add(toDto(eventId, layout, i, occupancy, pos, now));
+        }
+        return seats;
+    }
+
+    private SeatDto toDto(Long eventId, SeatLayout layout, int i,
+                          EventOccupancy occupancy, int pos, long now) {
+        boolean booked = pos >= 0 && occupancy.isBookedAt(pos);
+
+        SeatDto dto = new SeatDto(
+                layout.seatIdAt(i),
+                eventId,
+                layout.labelAt(i),
+                layout.rowAt(i),
+                layout.colAt(i),
+                booked,
+                !booked && pos >= 0 && occupancy.isHeldAt(pos, now)
+        );
+        dto.setZone(layout.zoneAt(i));
+        return dto;
+    }
+
+    // the index is built on the layout it is read with, unless the hall was reloaded in between
+    private static boolean isAligned(SeatLayout layout, EventOccupancy occupancy) {
+        return occupancy.getLayout() == layout;
+    }
+}
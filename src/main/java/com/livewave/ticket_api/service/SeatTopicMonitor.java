@@ -0,0 +1,148 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatTopicStats;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Subscribers, frames waiting in session buffers and frames dropped for slow sessions,
+ * per /topic/seats/{eventId}. Subscriptions come from the STOMP session events,
+ * buffer counters from BoundedOutboundSession.
+ * A topic is forgotten once it has no subscribers and nothing queued, e.g. after the event ended.
+ */
+@Service
+public class SeatTopicMonitor {
+
+    public static final String SEAT_TOPIC_PREFIX = "/topic/seats/";
+
+    private static final class TopicCounters {
+        final AtomicInteger subscribers = new AtomicInteger();
+        final AtomicInteger queued = new AtomicInteger();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    // subscriber counts change inside compute, so a topic is never dropped under a new subscriber
+    private final ConcurrentMap<Long, TopicCounters> topics = new ConcurrentHashMap<>();
+
+    // session id -> subscription id -> event id
+    private final ConcurrentMap<String, Map<String, Long>> subscriptions = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Long eventId = eventIdOf(headers.getDestination());
+        if (eventId == null || headers.getSessionId() == null || headers.getSubscriptionId() == null) return;
+
+        Long previous = subscriptions
+                .computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(headers.getSubscriptionId(), eventId);
+
+        if (previous == null) {
+            topics.compute(eventId, (id, counters) -> {
+                TopicCounters topic = (counters != null) ? counters : new TopicCounters();
+                topic.subscribers.incrementAndGet();
+                return topic;
+            });
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        if (headers.getSessionId() == null || headers.getSubscriptionId() == null) return;
+
+        Map<String, Long> session = subscriptions.get(headers.getSessionId());
+        Long eventId = (session != null) ? session.remove(headers.getSubscriptionId()) : null;
+        if (eventId != null) {
+            unsubscribed(eventId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> session = subscriptions.remove(event.getSessionId());
+        if (session == null) return;
+
+        for (Long eventId : session.values()) {
+            unsubscribed(eventId);
+        }
+    }
+
+    public void queued(Long eventId) {
+        topic(eventId).queued.incrementAndGet();
+    }
+
+    public void dequeued(Long eventId) {
+        TopicCounters counters = topics.get(eventId);
+        if (counters == null) return;
+
+        if (counters.queued.decrementAndGet() == 0) dropIfIdle(eventId);
+    }
+
+    public void dropped(Long eventId) {
+        TopicCounters counters = topics.get(eventId);
+        if (counters == null) return;
+
+        counters.dropped.increment();
+        if (counters.queued.decrementAndGet() == 0) dropIfIdle(eventId);
+    }
+
+    public int subscribers(Long eventId) {
+        TopicCounters counters = topics.get(eventId);
+        return counters != null ? counters.subscribers.get() : 0;
+    }
+
+    public List<SeatTopicStats> stats() {
+        List<SeatTopicStats> stats = new ArrayList<>(topics.size());
+        topics.forEach((eventId, c) -> stats.add(new SeatTopicStats(
+                eventId, c.subscribers.get(), c.queued.get(), c.dropped.sum())));
+        return stats;
+    }
+
+    /**
+     * Event id of a /topic/seats/{eventId} destination, or null for any other destination.
+     */
+    public static Long eventIdOf(String destination) {
+        if (destination == null || !destination.startsWith(SEAT_TOPIC_PREFIX)) return null;
+        try {
+            return Long.valueOf(destination.substring(SEAT_TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private TopicCounters topic(Long eventId) {
+        return topics.computeIfAbsent(eventId, id -> new TopicCounters());
+    }
+
+    private void unsubscribed(Long eventId) {
+        topics.computeIfPresent(eventId, (id, counters) -> {
+            counters.subscribers.decrementAndGet();
+            return isIdle(counters) ? null : counters;
+        });
+    }
+
+    private void dropIfIdle(Long eventId) {
+        // cheap check first: on a watched topic the queue drains to zero all the time
+        TopicCounters counters = topics.get(eventId);
+        if (counters == null || !isIdle(counters)) return;
+
+        topics.computeIfPresent(eventId, (id, c) -> isIdle(c) ? null : c);
+    }
+
+    private static boolean isIdle(TopicCounters counters) {
+        return counters.subscribers.get() <= 0 && counters.queued.get() <= 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatUpdateBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sequence numbers and recent frames of one event's seat-update stream.
+ * Sequences are consecutive within a stream and start from the clock, so after a restart
+ * (or after an idle log was dropped and recreated) a client's last seq never looks current:
+ * it is either behind the ring or ahead of it, and the client gets a snapshot.
+ */
+final class SeatUpdateLog {
+
+    private final Long eventId;
+
+    // guards the ring and lastSeq
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // ring of the last frames, oldest at head
+    private final SeatUpdateBatch[] ring;
+    private int head;
+    private int count;
+
+    private long lastSeq;
+
+    // wall-clock millis of creation or the last frame; read without the lock by idle cleanup
+    private volatile long lastAppendAt;
+
+    SeatUpdateLog(Long eventId, int capacity) {
+        this.eventId = eventId;
+        this.ring = new SeatUpdateBatch[Math.max(1, capacity)];
+        this.lastAppendAt = System.currentTimeMillis();
+        this.lastSeq = lastAppendAt * 1000;
+    }
+
+    /**
+     * Numbers the seats as the next frame of the stream and keeps it for replay.
+     */
+    SeatUpdateBatch append(List<SeatDto> seats) {
+        lock.lock();
+        try {
+            SeatUpdateBatch frame = new SeatUpdateBatch(eventId, ++lastSeq, seats);
+            lastAppendAt = System.currentTimeMillis();
+
+            if (count == ring.length) {
+                ring[head] = frame;
+                head = (head + 1) % ring.length;
+            } else {
+                ring[(head + count) % ring.length] = frame;
+                count++;
+            }
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lastAppendAt() {
+        return lastAppendAt;
+    }
+
+    long lastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frames after the given sequence, oldest first; null if the ring no longer reaches back to it
+     * or the sequence is not from this stream.
+     */
+    List<SeatUpdateBatch> since(long after) {
+        lock.lock();
+        try {
+            long oldest = (count == 0) ? lastSeq + 1 : ring[head].getSeq();
+
+            if (after > lastSeq || after < oldest - 1) return null;
+
+            List<SeatUpdateBatch> frames = new ArrayList<>((int) (lastSeq - after));
+            for (int i = (int) (after + 1 - oldest); i < count; i++) {
+                frames.add(ring[(head + i) % ring.length]);
+            }
+            return frames;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
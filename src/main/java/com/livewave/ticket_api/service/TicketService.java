@@ -1,90 +1,185 @@
 package com.livewave.ticket_api.service;
 
+import com.livewave.ticket_api.exception.SeatConflictException;
 import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.OutboxMessage;
 import com.livewave.ticket_api.model.Ticket;
+import com.livewave.ticket_api.model.User;
 import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.scheduler.NotificationScheduler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import com.livewave.ticket_api.dto.SeatDto;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class TicketService {
 
     private final TicketRepository ticketRepository;
-    private final NotificationService notificationService;
-    private final WebSocketService webSocketService;
+    private final SeatLayoutService seatLayoutService;
+    private final NotificationScheduler notificationScheduler;
+    private final OutboxService outboxService;
+    private final SeatOccupancyService seatOccupancyService;
+    private final SeatHoldService seatHoldService;
 
     public List<Ticket> findAll() {
         return ticketRepository.findAll();
     }
 
+    @Transactional
     public Ticket save(Ticket ticket) {
+        Optional<PushMessage> reminder = instantReminder(ticket);
         Ticket saved = ticketRepository.save(ticket);
 
-        if (saved.getSeatId() != null && saved.getEvent() != null) {
+        outboxService.append(outboxMessages(saved, reminder));
+        afterCommit(() -> markBooked(saved));
+        return saved;
+    }
 
-            SeatDto seatDto = new SeatDto(
-                    saved.getSeatId(),
-                    saved.getEvent().getId(),
-                    null,
-                    0,
-                    0,
-                    true
-            );
+    /**
+     * All-or-nothing purchase of several seats of one event.
+     * Seats are resolved from the cached hall layout, one query checks conflicts
+     * and one JDBC batch inserts the tickets.
+     * Only seats held by the buyer are accepted (see SeatHoldService).
+     * Seat updates and instant reminders go to the outbox in the same transaction
+     * and are delivered by OutboxRelay after it commits.
+     */
+    @Transactional
+    public List<Ticket> purchase(Event event, User user, List<String> seatNumbers) {
+
+        Long eventId = event.getId();
+        String buyer = (user != null) ? user.getEmail() : null;
+        Set<String> requested = new LinkedHashSet<>(seatNumbers);
+
+        SeatLayout layout = seatLayoutService.forEvent(eventId);
+
+        List<Long> seatIds = requested.stream()
+                .map(layout::seatIdOf)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Set<Long> bookedSeatIds = seatIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(ticketRepository.findBookedSeatIds(eventId, seatIds));
+
+        EventOccupancy occupancy = seatOccupancyService.get(eventId);
+
+        List<String> failedSeats = new ArrayList<>();
+        List<Ticket> tickets = new ArrayList<>(requested.size());
+
+        for (String seatNumber : requested) {
+            Long seatId = layout.seatIdOf(seatNumber);
+
+            if (seatId == null
+                    || bookedSeatIds.contains(seatId)
+                    || !seatHoldService.canPurchase(occupancy, seatId, buyer)) {
+                failedSeats.add(seatNumber);
+                continue;
+            }
 
-            webSocketService.sendSeatUpdate(
-                    saved.getEvent().getId(),
-                    seatDto
-            );
+            Ticket ticket = new Ticket();
+            ticket.setEvent(event);
+            ticket.setUser(user);
+            ticket.setSeatNumber(seatNumber);
+            ticket.setSeatId(seatId);
+            tickets.add(ticket);
         }
 
-        sendInstantReminderIfNeeded(saved);
-
-        return saved;
-    }
+        if (!failedSeats.isEmpty()) {
+            throw new SeatConflictException(failedSeats);
+        }
 
-    private void sendInstantReminderIfNeeded(Ticket ticket) {
+        List<Optional<PushMessage>> reminders = tickets.stream().map(this::instantReminder).toList();
 
         try {
+            ticketRepository.insertAll(tickets);
+        } catch (DuplicateKeyException e) {
+            // a concurrent order took one of the seats between the check and the insert
+            throw new SeatConflictException(new ArrayList<>(requested));
+        }
 
-            Event event = ticket.getEvent();
-            if (event == null || event.getDate() == null) return;
-
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime eventDate = event.getDate();
-
-            long hours = Duration.between(now, eventDate).toHours();
+        appendToOutbox(tickets, reminders);
 
-            System.out.println("Instant reminder check. Hours left: " + hours);
+        afterCommit(() -> {
+            tickets.forEach(this::markBooked);
+            seatHoldService.completePurchase(eventId, buyer, seatIds);
+        });
 
-            // если событие менее чем через 24 часа
-            if (hours < 24 && hours >= 0 && !ticket.isReminderSent()) {
+        return tickets;
+    }
 
-                if (ticket.getUser() == null) return;
+    /**
+     * Inserts tickets already validated by PurchaseSequencer with one JDBC batch.
+     * Occupancy and holds are applied after commit, on the calling thread;
+     * seat updates and reminders go through the outbox.
+     */
+    @Transactional
+    public void persistBatch(List<Ticket> tickets) {
+        List<Optional<PushMessage>> reminders = tickets.stream().map(this::instantReminder).toList();
+        ticketRepository.insertAll(tickets);
+        appendToOutbox(tickets, reminders);
+
+        afterCommit(() -> tickets.forEach(t -> {
+            markBooked(t);
+            seatHoldService.completePurchase(
+                    t.getEvent().getId(),
+                    t.getUser() != null ? t.getUser().getEmail() : null,
+                    List.of(t.getSeatId())
+            );
+        }));
+    }
 
-                String token = ticket.getUser().getFcmToken();
-                if (token == null || token.isBlank()) return;
+    private void appendToOutbox(List<Ticket> tickets, List<Optional<PushMessage>> reminders) {
+        List<OutboxMessage> messages = new ArrayList<>(tickets.size() * 2);
+        for (int i = 0; i < tickets.size(); i++) {
+            messages.addAll(outboxMessages(tickets.get(i), reminders.get(i)));
+        }
+        outboxService.append(messages);
+    }
 
-                notificationService.sendPush(
-                        token,
-                        "Билет успешно куплен",
-                        "Событие \"" + event.getTitle() + "\" начнётся менее чем через 24 часа"
-                );
+    // needs the ticket id, so built after the insert
+    private List<OutboxMessage> outboxMessages(Ticket ticket, Optional<PushMessage> reminder) {
+        List<OutboxMessage> messages = new ArrayList<>(2);
+        if (ticket.getSeatId() != null && ticket.getEvent() != null) {
+            messages.add(outboxService.seatBooked(ticket));
+        }
+        reminder.ifPresent(push -> messages.add(outboxService.push(
+                ticket.getEvent().getId(), "reminder:ticket:" + ticket.getId(), push)));
+        return messages;
+    }
 
-                ticket.setReminderSent(true);
-                ticketRepository.save(ticket);
+    private void markBooked(Ticket ticket) {
+        if (ticket.getSeatId() != null && ticket.getEvent() != null) {
+            seatOccupancyService.markBooked(ticket.getEvent().getId(), ticket.getSeatId());
+        }
+    }
 
-                System.out.println("Instant reminder SENT");
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
 
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
+        });
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // bought after the event's first reminder went out: this buyer gets one right away.
+    // The flag is set before the ticket is written, so it commits together with the outbox message.
+    private Optional<PushMessage> instantReminder(Ticket ticket) {
+        if (ticket.isReminderSent()) return Optional.empty();
+
+        Optional<PushMessage> reminder = notificationScheduler.instantReminder(ticket);
+        reminder.ifPresent(push -> ticket.setReminderSent(true));
+        return reminder;
     }
-}
\ No newline at end of file
+}
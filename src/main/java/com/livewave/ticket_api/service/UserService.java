@@ -10,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -144,4 +145,13 @@ public class UserService implements UserDetailsService {
         userRepository.save(user);
     }
 
+    /**
+     * Single UPDATE by id, for callers that already know the user from the token.
+     */
+    @Transactional
+    public void updateFcmToken(Long userId, String fcmToken) {
+        if (userRepository.updateFcmToken(userId, fcmToken) == 0) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+    }
 }
@@ -1,22 +1,232 @@
 package com.livewave.ticket_api.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatUpdateBatch;
+import com.livewave.ticket_api.dto.SeatUpdateReplay;
+import com.livewave.ticket_api.dto.SeatUpdateStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seat-update fan-out to /topic/seats/{eventId}.
+ * Changes are buffered per event for a short window and sent as one SeatUpdateBatch,
+ * so a burst of purchases or holds costs one frame instead of one per seat.
+ * The frame is serialized once; the broker hands the same bytes to every subscriber.
+ * All flushes run on one thread, so batches of an event go out in order.
+ * Every frame carries a per-event sequence number, and the last frames are kept
+ * so a reconnecting client can catch up without refetching the seat map.
+ */
 @Service
 public class WebSocketService {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    // 0 sends every update right away (still as a batch of one)
+    @Value("${websocket.seat-updates.window-ms:50}")
+    private long windowMs = 50;
+
+    // a batch reaching this many seats is flushed before its window ends
+    @Value("${websocket.seat-updates.max-batch:500}")
+    private int maxBatch = 500;
+
+    // frames kept per event for replay after a reconnect
+    @Value("${websocket.seat-updates.replay-size:256}")
+    private int replaySize = 256;
+
+    // logs of events without frames for this long are dropped (ended events); 0 keeps them
+    @Value("${websocket.seat-updates.log-idle-ms:3600000}")
+    private long logIdleMs = 3_600_000;
 
-    public WebSocketService(SimpMessagingTemplate messagingTemplate) {
+    private final ConcurrentMap<Long, PendingBatch> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, SeatUpdateLog> logs = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedSeats = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    // seats of one event waiting for the end of the window; latest state per seat wins
+    private static final class PendingBatch {
+        final long firstQueuedAt = System.nanoTime();
+        final Map<Long, SeatDto> seats = new LinkedHashMap<>();
+        boolean flushRequested;
+    }
+
+    public WebSocketService(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
         this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-seat-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        if (logIdleMs > 0) {
+            // on the flusher thread, so a log is never dropped while a frame is appended to it
+            flusher.scheduleWithFixedDelay(this::dropIdleLogs, logIdleMs, logIdleMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushAll();
     }
 
     public void sendSeatUpdate(Long eventId, SeatDto seatDto) {
-        messagingTemplate.convertAndSend(
-                "/topic/seats/" + eventId,
-                seatDto
+        updates.increment();
+
+        PendingBatch[] created = new PendingBatch[1];
+        boolean[] full = new boolean[1];
+
+        // compute is atomic per key, so a concurrent flush either sees this seat or leaves a fresh batch
+        PendingBatch batch = pending.compute(eventId, (id, current) -> {
+            PendingBatch b = current;
+            if (b == null) {
+                b = new PendingBatch();
+                created[0] = b;
+            }
+
+            // re-inserted so the seat moves to the end: the frame keeps the order of last changes
+            if (b.seats.remove(seatDto.getId()) != null) {
+                coalesced.increment();
+            }
+            b.seats.put(seatDto.getId(), seatDto);
+
+            if (!b.flushRequested && b.seats.size() >= maxBatch) {
+                b.flushRequested = true;
+                full[0] = true;
+            }
+            return b;
+        });
+
+        if (full[0] || (created[0] != null && windowMs <= 0)) {
+            flusher.execute(() -> flush(eventId, batch));
+        } else if (created[0] != null) {
+            flusher.schedule(() -> flush(eventId, batch), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends everything still buffered, e.g. on shutdown.
+     */
+    public void flushAll() {
+        for (Map.Entry<Long, PendingBatch> entry : pending.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Drops what is kept for a deleted event; a later reconnect gets a snapshot.
+     */
+    public void forget(Long eventId) {
+        pending.remove(eventId);
+        logs.remove(eventId);
+    }
+
+    /**
+     * Sequence of the last frame sent for the event, 0 if none is kept; a snapshot read
+     * after this call is at least as new as that frame.
+     */
+    public long currentSeq(Long eventId) {
+        // reads never create a log: the endpoint is public and takes any event id
+        SeatUpdateLog log = logs.get(eventId);
+        return log != null ? log.lastSeq() : 0;
+    }
+
+    /**
+     * Frames sent after the given sequence, or null if they are no longer kept
+     * and the client needs a snapshot.
+     */
+    public SeatUpdateReplay replay(Long eventId, long after) {
+        SeatUpdateLog log = logs.get(eventId);
+        List<SeatUpdateBatch> frames = (log != null) ? log.since(after) : null;
+        if (frames == null) return null;
+
+        long seq = frames.isEmpty() ? after : frames.get(frames.size() - 1).getSeq();
+        return SeatUpdateReplay.missed(eventId, seq, frames);
+    }
+
+    public SeatUpdateStats stats() {
+        long sent = batches.sum();
+        return new SeatUpdateStats(
+                updates.sum(),
+                coalesced.sum(),
+                sent,
+                maxBatchSize.get(),
+                sent == 0 ? 0 : (double) batchedSeats.sum() / sent,
+                sent == 0 ? 0 : latencyNanos.sum() / 1_000_000.0 / sent,
+                maxLatencyNanos.get() / 1_000_000.0
         );
     }
-}
\ No newline at end of file
+
+    private void flush(Long eventId, PendingBatch batch) {
+        // a batch already flushed early is gone; a newer one for the event has its own timer
+        if (!pending.remove(eventId, batch)) return;
+
+        List<SeatDto> seats = new ArrayList<>(batch.seats.values());
+        SeatUpdateBatch frame = log(eventId).append(seats);
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(frame);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize seat updates for event {}", eventId, e);
+            return;
+        }
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+
+        messagingTemplate.send("/topic/seats/" + eventId, message);
+
+        long latency = System.nanoTime() - batch.firstQueuedAt;
+        batches.increment();
+        batchedSeats.add(seats.size());
+        latencyNanos.add(latency);
+        maxBatchSize.accumulateAndGet(seats.size(), Math::max);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    private void dropIdleLogs() {
+        long cutoff = System.currentTimeMillis() - logIdleMs;
+        logs.values().removeIf(log -> log.lastAppendAt() < cutoff);
+    }
+
+    private SeatUpdateLog log(Long eventId) {
+        return logs.computeIfAbsent(eventId, id -> new SeatUpdateLog(id, replaySize));
+    }
+}
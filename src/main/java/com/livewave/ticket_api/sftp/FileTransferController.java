@@ -1,7 +1,11 @@
 package com.livewave.ticket_api.sftp;
 
+import com.livewave.ticket_api.exception.BadRequestException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
@@ -16,6 +20,7 @@ import java.util.*;
 public class FileTransferController {
 
     private final SftpService sftpService;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${file.upload.max-size}")
     private long maxSize;
@@ -23,8 +28,9 @@ public class FileTransferController {
     @Value("${file.upload.allowed-ext}")
     private String allowedExt;
 
-    public FileTransferController(SftpService sftpService) {
+    public FileTransferController(SftpService sftpService, ImageDerivativeService imageDerivativeService) {
         this.sftpService = sftpService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
     // ✅ UPLOAD (SFTP)
@@ -56,29 +62,107 @@ public class FileTransferController {
         String safeName = UUID.randomUUID() + "_" + cleanName;
 
         String remotePath = sftpService.upload(safeName, file.getInputStream());
+
+        // resized copies are made in the background; until then ?size= serves the original
+        boolean variants = imageDerivativeService.schedule(remotePath);
+
         return ResponseEntity.ok(Map.of(
                 "message", "Uploaded",
                 "remotePath", remotePath,
-                "filename", safeName
+                "filename", safeName,
+                "variants", variants
         ));
     }
 
-    // ✅ DOWNLOAD (SFTP)
+    // ✅ DOWNLOAD (SFTP): streamed from the SFTP session, one Range and If-None-Match / If-Range supported.
+    // size=thumbnail|card|banner picks a resized copy of an image, if it has been generated.
     @GetMapping("/download")
-    public ResponseEntity<?> download(@RequestParam("path") String remotePath) throws Exception {
+    public void download(
+            @RequestParam("path") String remotePath,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader HttpHeaders headers,
+            HttpServletResponse response
+    ) throws Exception {
         if (remotePath == null || remotePath.isBlank()) {
-            return ResponseEntity.badRequest().body(Map.of("message", "path обязателен"));
+            throw new BadRequestException("path обязателен");
+        }
+
+        if (size != null && !size.isBlank()) {
+            remotePath = imageDerivativeService.resolve(remotePath, ImageVariant.fromParam(size));
+        }
+
+        RemoteFile file = sftpService.stat(remotePath);
+        String etag = file.etag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.modifiedMillis());
+
+        if (matchesAny(headers.getIfNoneMatch(), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
         }
 
-        var resource = sftpService.download(remotePath);
+        long offset = 0;
+        long length = file.size();
+
+        HttpRange range = requestedRange(headers, etag);
+        if (range != null) {
+            try {
+                offset = range.getRangeStart(file.size());
+                length = range.getRangeEnd(file.size()) - offset + 1;
+            } catch (IllegalArgumentException e) {
+                length = 0;
+            }
+
+            // HttpRange does not reject a start at or past the end of the file itself
+            if (length <= 0 || offset >= file.size()) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                return;
+            }
+
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + offset + "-" + (offset + length - 1) + "/" + file.size());
+        }
 
         String filename = StringUtils.getFilename(remotePath);
         if (filename == null) filename = "file";
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+
+        sftpService.download(remotePath, offset, length, response.getOutputStream());
+    }
+
+    // a single satisfiable-looking range, unless If-Range names another version; otherwise the whole file
+    private static HttpRange requestedRange(HttpHeaders headers, String etag) {
+        List<HttpRange> ranges;
+        try {
+            ranges = headers.getRange();
+        } catch (IllegalArgumentException e) {
+            // a malformed Range is ignored
+            return null;
+        }
+        if (ranges.size() != 1) return null;
+
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) return null;
+
+        return ranges.get(0);
+    }
+
+    private static boolean matchesAny(List<String> etags, String etag) {
+        for (String candidate : etags) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
     }
 
     private String getExt(String name) {
@@ -0,0 +1,309 @@
+package com.livewave.ticket_api.sftp;
+
+import com.livewave.ticket_api.exception.NotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resized JPEG copies (ImageVariant) of uploaded images, stored next to the original on SFTP.
+ * Generated on a small fixed pool after the upload request has returned; when the queue is full
+ * the upload keeps only its original. The original is read back through SftpService,
+ * which normally finds it in the disk cache the upload was teed into.
+ * Downloads ask for a variant and get the original until the variant exists.
+ *
+ * What is known about each original's variants (queued, stored, impossible, failed) is remembered,
+ * so a download does not stat SFTP to find out. An original nothing is known about (e.g. after a
+ * restart) is checked once; if its variants are missing, or an earlier attempt failed or was
+ * rejected at least retry-ms ago, generation is queued again by that download.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+
+    private final SftpService sftpService;
+
+    @Value("${image.derivatives.enabled:true}")
+    private boolean enabled = true;
+
+    // encoding is CPU-bound: keep it well below the core count
+    @Value("${image.derivatives.threads:2}")
+    private int threads = 2;
+
+    @Value("${image.derivatives.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Value("${image.derivatives.jpeg-quality:0.8}")
+    private float jpegQuality = 0.8f;
+
+    // larger images are not decoded at all (a small PNG can expand to gigabytes)
+    @Value("${image.derivatives.max-pixels:40000000}")
+    private long maxPixels = 40_000_000L;
+
+    // a failed or rejected generation is queued again by a download after this long
+    @Value("${image.derivatives.retry-ms:600000}")
+    private long retryMs = 600_000L;
+
+    // originals whose variant status is remembered; a forgotten one costs one stat
+    @Value("${image.derivatives.known-max-size:10000}")
+    private int knownMaxSize = 10000;
+
+    private enum Status {
+        QUEUED,     // generation queued or running
+        READY,      // every variant is stored
+        NONE,       // the original cannot be resized (unknown format or too large); not retried
+        FAILED      // generation failed or was rejected; retried after retry-ms
+    }
+
+    private record Known(Status status, long since) {}
+
+    private final ReentrantLock knownLock = new ReentrantLock();
+
+    // original path -> status of its variants, LRU
+    private final Map<String, Known> known = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Known> eldest) {
+            return size() > knownMaxSize;
+        }
+    };
+
+    private ThreadPoolExecutor workers;
+
+    public ImageDerivativeService(SftpService sftpService) {
+        this.sftpService = sftpService;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-derivatives-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    public static boolean isImage(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && IMAGE_EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Queues generation of all variants of an uploaded image; false if it was not queued.
+     */
+    public boolean schedule(String remotePath) {
+        if (!enabled || !isImage(remotePath)) return false;
+
+        remember(remotePath, Status.QUEUED);
+        try {
+            workers.execute(() -> generate(remotePath));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.warn("Image derivative queue full, {} is served at full size until it is retried", remotePath);
+            remember(remotePath, Status.FAILED);
+            return false;
+        }
+    }
+
+    /**
+     * Path of the variant if it has been generated, otherwise of the original.
+     * Missing variants of an image are queued for generation here if no attempt is under way.
+     */
+    public String resolve(String remotePath, ImageVariant variant) throws IOException {
+        if (!isImage(remotePath)) return remotePath;
+
+        String variantPath = variant.pathFor(remotePath);
+        Known status = known(remotePath);
+
+        if (status != null) {
+            if (status.status() == Status.READY) return variantPath;
+
+            if (status.status() == Status.FAILED
+                    && System.currentTimeMillis() - status.since() >= retryMs
+                    && claim(remotePath, status)) {
+                schedule(remotePath);
+            }
+            return remotePath;
+        }
+
+        try {
+            sftpService.stat(variantPath);
+            remember(remotePath, Status.READY);
+            return variantPath;
+        } catch (NotFoundException e) {
+            if (claim(remotePath, null)) schedule(remotePath);
+            return remotePath;
+        }
+    }
+
+    private Known known(String remotePath) {
+        knownLock.lock();
+        try {
+            return known.get(remotePath);
+        } finally {
+            knownLock.unlock();
+        }
+    }
+
+    // marks the original as queued if its status is still the one the caller saw; one caller wins
+    private boolean claim(String remotePath, Known seen) {
+        knownLock.lock();
+        try {
+            if (known.get(remotePath) != seen) return false;
+            known.put(remotePath, new Known(Status.QUEUED, System.currentTimeMillis()));
+            return true;
+        } finally {
+            knownLock.unlock();
+        }
+    }
+
+    private void remember(String remotePath, Status status) {
+        knownLock.lock();
+        try {
+            known.put(remotePath, new Known(status, System.currentTimeMillis()));
+        } finally {
+            knownLock.unlock();
+        }
+    }
+
+    void generate(String remotePath) {
+        try {
+            RemoteFile original = sftpService.stat(remotePath);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) original.size());
+            sftpService.download(remotePath, 0, original.size(), bytes);
+
+            BufferedImage image = decode(bytes.toByteArray());
+            if (image == null) {
+                remember(remotePath, Status.NONE);
+                return;
+            }
+
+            for (ImageVariant variant : ImageVariant.values()) {
+                // never upscale: a small original is its own variant
+                BufferedImage resized = resize(image, Math.min(variant.width(), image.getWidth()));
+                byte[] jpeg = encodeJpeg(resized, jpegQuality);
+
+                // exactly where resolve() looks for it, also for originals outside sftp.remote-dir
+                sftpService.write(variant.pathFor(remotePath), new ByteArrayInputStream(jpeg));
+            }
+            remember(remotePath, Status.READY);
+            logger.info("Image variants of {} stored ({}x{})", remotePath, image.getWidth(), image.getHeight());
+        } catch (Exception e) {
+            remember(remotePath, Status.FAILED);
+            logger.warn("Image variants of {} failed: {}", remotePath, e.getMessage());
+        }
+    }
+
+    // null if the format is unknown or the image is too large to decode safely
+    private BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    logger.warn("Image of {}x{} is too large for variants", reader.getWidth(0), reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales to the given width keeping the aspect ratio, on an opaque RGB canvas (JPEG has no alpha).
+     * Large reductions go by halves, which keeps bilinear filtering from dropping detail.
+     */
+    static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, w, h);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (w != width || h != height);
+
+        return current;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            // progressive: a phone can draw a coarse picture before the whole file has arrived
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
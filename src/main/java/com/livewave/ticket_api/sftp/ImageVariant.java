@@ -0,0 +1,48 @@
+package com.livewave.ticket_api.sftp;
+
+import com.livewave.ticket_api.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Resized copies generated for every uploaded image (see ImageDerivativeService), by target width.
+ */
+public enum ImageVariant {
+
+    THUMBNAIL("thumbnail", 200),
+    CARD("card", 600),
+    BANNER("banner", 1280);
+
+    private final String key;
+    private final int width;
+
+    ImageVariant(String key, int width) {
+        this.key = key;
+        this.width = width;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Stored next to the original: /dir/uuid_name.png -> /dir/uuid_name.card.jpg
+     */
+    public String pathFor(String originalPath) {
+        int slash = originalPath.lastIndexOf('/');
+        int dot = originalPath.lastIndexOf('.');
+        String base = (dot > slash) ? originalPath.substring(0, dot) : originalPath;
+        return base + "." + key + ".jpg";
+    }
+
+    public static ImageVariant fromParam(String value) {
+        for (ImageVariant variant : values()) {
+            if (variant.key.equals(value.trim().toLowerCase(Locale.ROOT))) return variant;
+        }
+        throw new BadRequestException("Неизвестный размер: " + value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.livewave.ticket_api.sftp;
+
+/**
+ * Size and modification time of a file on the SFTP server.
+ */
+public record RemoteFile(String path, long size, long modifiedMillis) {
+
+    /**
+     * Strong validator: uploaded files get unique names and are never rewritten in place,
+     * so size and modification time identify the content.
+     */
+    public String etag() {
+        return "\"" + Long.toHexString(modifiedMillis) + "-" + Long.toHexString(size) + "\"";
+    }
+}
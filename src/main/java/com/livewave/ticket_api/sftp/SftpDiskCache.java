@@ -0,0 +1,367 @@
+package com.livewave.ticket_api.sftp;
+
+import com.livewave.ticket_api.dto.DiskCacheStats;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local copies of remote files, keyed by remote path, bounded by total bytes and evicted least recently used.
+ * Files are written to a temporary name while they arrive (from an SFTP read or a tee of an upload)
+ * and admitted only if the byte count matches the remote size; before each hit the copy's size
+ * and modification time are checked against what was admitted, and a copy that changed is dropped.
+ * The remote metadata of a copy is trusted for revalidate-ms; after that a stat goes to the server again
+ * and the copy is kept only if the server still reports the same size and modification time.
+ * Hits are sent with FileChannel.transferTo. The index is in memory: the directory is emptied at startup.
+ */
+@Component
+public class SftpDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SftpDiskCache.class);
+
+    @Value("${sftp.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${sftp.cache.dir:${java.io.tmpdir}/ticket-api-sftp-cache}")
+    private String dir;
+
+    // total size of cached files
+    @Value("${sftp.cache.max-bytes:536870912}")
+    private long maxBytes = 536870912L;
+
+    // larger files are always streamed from SFTP
+    @Value("${sftp.cache.max-file-bytes:16777216}")
+    private long maxFileBytes = 16777216L;
+
+    // how long a copy's remote size and mtime are answered without asking the server
+    @Value("${sftp.cache.revalidate-ms:5000}")
+    private long revalidateMs = 5000;
+
+    // verifiedAt: when the server last confirmed remote
+    record Entry(Path file, RemoteFile remote, long cachedModifiedMillis, long verifiedAt) {}
+
+    private Path root;
+
+    // access-ordered: eldest is least recently used; guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder bytesFetched = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) return;
+
+        root = Path.of(dir);
+        Files.createDirectories(root);
+
+        // left over from the previous run; nothing refers to them any more
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(root)) {
+            for (Path file : leftovers) Files.deleteIfExists(file);
+        }
+        logger.info("SFTP disk cache at {}, up to {} bytes", root, maxBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean fits(long size) {
+        return enabled && size <= maxFileBytes && size <= maxBytes;
+    }
+
+    /**
+     * Metadata of a cached file, without counting a hit or a miss;
+     * null if the file is not cached or its metadata is due for revalidation.
+     */
+    public RemoteFile peek(String remotePath) {
+        if (!enabled) return null;
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(remotePath);
+            return (entry != null && now - entry.verifiedAt() < revalidateMs) ? entry.remote() : null;
+        }
+    }
+
+    /**
+     * Compares a fresh stat from the server with the cached copy: an unchanged copy is trusted
+     * for another revalidate-ms, a changed one is dropped.
+     */
+    public void revalidate(RemoteFile current) {
+        if (!enabled) return;
+
+        Entry stale = null;
+        synchronized (this) {
+            Entry entry = entries.get(current.path());
+            if (entry == null) return;
+
+            if (entry.remote().equals(current)) {
+                entries.put(current.path(), new Entry(entry.file(), entry.remote(),
+                        entry.cachedModifiedMillis(), System.currentTimeMillis()));
+            } else {
+                entries.remove(current.path());
+                bytes -= entry.remote().size();
+                stale = entry;
+            }
+        }
+
+        if (stale != null) {
+            logger.debug("{} changed on the server, dropping the cached copy", current.path());
+            deleteQuietly(stale.file());
+        }
+    }
+
+    /**
+     * The cached copy if it is still intact; counts a hit or a miss.
+     */
+    public Entry lookup(String remotePath) {
+        if (!enabled) return null;
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(remotePath);
+        }
+
+        if (entry != null && !intact(entry)) {
+            logger.warn("Cached copy of {} changed on disk, dropping it", remotePath);
+            invalidate(remotePath);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Sends length bytes from offset of the cached copy; false if the copy is already gone
+     * (evicted between lookup and transfer) and nothing was written.
+     */
+    public boolean transfer(Entry entry, long offset, long length, OutputStream out) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(entry.file(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        // an evicted file stays readable through the open channel
+        try (channel) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long end = offset + length;
+
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    // the copy is shorter than admitted; the client must not take a truncated body for a whole one
+                    drop(entry);
+                    throw new IOException("Cached copy of " + entry.remote().path() + " ended at byte "
+                            + position + " of " + end);
+                }
+                position += sent;
+            }
+            out.flush();
+            bytesServed.add(position - offset);
+        }
+        return true;
+    }
+
+    /**
+     * Temporary file to fill with the content of a remote file; null if the cache is disabled.
+     */
+    public Writer writer() {
+        if (!enabled) return null;
+
+        try {
+            return new Writer(Files.createTempFile(root, "fetch-", ".part"));
+        } catch (IOException e) {
+            logger.warn("Cannot create a file in the SFTP disk cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Admits the writer's file as the copy of remote, replacing any older one;
+     * rejected (and deleted) if the byte count differs from the remote size or it does not fit.
+     */
+    public Entry commit(Writer writer, RemoteFile remote) {
+        if (!writer.close() || writer.written != remote.size() || !fits(remote.size())) {
+            rejected.increment();
+            writer.abort();
+            return null;
+        }
+
+        Path file = root.resolve(fileName(remote.path()));
+        Entry entry;
+        try {
+            Files.move(writer.file, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            entry = new Entry(file, remote, Files.getLastModifiedTime(file).toMillis(), System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.warn("Cannot admit {} to the SFTP disk cache: {}", remote.path(), e.getMessage());
+            writer.abort();
+            return null;
+        }
+
+        bytesFetched.add(remote.size());
+
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = entries.put(remote.path(), entry);
+            if (previous != null) bytes -= previous.remote().size();
+            bytes += remote.size();
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Entry victim = eldest.next();
+                if (victim == entry) continue;
+
+                eldest.remove();
+                bytes -= victim.remote().size();
+                evicted.add(victim.file());
+                evictions.increment();
+            }
+        }
+
+        for (Path victim : evicted) deleteQuietly(victim);
+        return entry;
+    }
+
+    public void invalidate(String remotePath) {
+        if (!enabled) return;
+
+        Entry removed;
+        synchronized (this) {
+            removed = entries.remove(remotePath);
+            if (removed != null) bytes -= removed.remote().size();
+        }
+        if (removed != null) deleteQuietly(removed.file());
+    }
+
+    // removes the entry unless it has been replaced by a newer copy meanwhile
+    private void drop(Entry entry) {
+        synchronized (this) {
+            if (!entries.remove(entry.remote().path(), entry)) return;
+            bytes -= entry.remote().size();
+        }
+        deleteQuietly(entry.file());
+    }
+
+    public DiskCacheStats stats() {
+        long files;
+        long used;
+        synchronized (this) {
+            files = entries.size();
+            used = bytes;
+        }
+        return new DiskCacheStats(files, used, maxBytes, hits.sum(), misses.sum(), evictions.sum(),
+                bytesServed.sum(), bytesFetched.sum(), rejected.sum());
+    }
+
+    private static boolean intact(Entry entry) {
+        try {
+            return Files.size(entry.file()) == entry.remote().size()
+                    && Files.getLastModifiedTime(entry.file()).toMillis() == entry.cachedModifiedMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // remote paths may contain anything; the cached file is named after their hash
+    private static String fileName(String remotePath) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(remotePath.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Cannot delete {} from the SFTP disk cache: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Receives the bytes of one remote file. A write error or a file over the size limit
+     * only makes the copy unusable; the transfer feeding it goes on.
+     */
+    public final class Writer {
+
+        private final Path file;
+        private OutputStream out;
+        private long written;
+        private boolean failed;
+
+        private Writer(Path file) throws IOException {
+            this.file = file;
+            this.out = Files.newOutputStream(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public void write(byte[] b, int off, int len) {
+            if (failed) return;
+
+            written += len;
+            if (written > maxFileBytes) {
+                failed = true;
+                return;
+            }
+
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        // true if everything written is on disk
+        private boolean close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                failed = true;
+            }
+            return !failed;
+        }
+
+        public void abort() {
+            close();
+            deleteQuietly(file);
+        }
+    }
+}
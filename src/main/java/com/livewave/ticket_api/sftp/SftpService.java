@@ -1,43 +1,271 @@
 package com.livewave.ticket_api.sftp;
 
+import com.livewave.ticket_api.dto.DiskCacheStats;
+import com.livewave.ticket_api.exception.NotFoundException;
+import jakarta.annotation.PostConstruct;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.common.SftpConstants;
+import org.apache.sshd.sftp.common.SftpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.integration.file.remote.session.Session;
 import org.springframework.integration.file.remote.session.SessionFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Files on the SFTP server, with a local disk cache (SftpDiskCache) in front of downloads.
+ * A miss copies the whole file into the cache once, however many requests ask for it meanwhile,
+ * and serves from there; files too large for the cache are streamed from SFTP every time.
+ * Uploads are written to the cache as they pass through.
+ */
 @Service
 public class SftpService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SftpService.class);
+
     private final SessionFactory<?> sessionFactory;
+    private final SftpDiskCache diskCache;
 
     @Value("${sftp.remote-dir}")
     private String remoteDir;
 
-    public SftpService(SessionFactory<?> sessionFactory) {
+    // bytes per SFTP read request and per write to the client
+    @Value("${sftp.download.buffer-size:65536}")
+    private int bufferSize = 65536;
+
+    // idle buffers kept for reuse; downloads beyond this many at once allocate their own
+    @Value("${sftp.download.pooled-buffers:32}")
+    private int pooledBuffers = 32;
+
+    private BlockingQueue<byte[]> buffers;
+
+    // remote paths being copied into the disk cache; other requests for them wait for that copy
+    private final ConcurrentMap<String, CompletableFuture<SftpDiskCache.Entry>> fetching = new ConcurrentHashMap<>();
+
+    private interface Sink {
+        void write(byte[] b, int off, int len) throws IOException;
+    }
+
+    public SftpService(SessionFactory<?> sessionFactory, SftpDiskCache diskCache) {
         this.sessionFactory = sessionFactory;
+        this.diskCache = diskCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        buffers = new ArrayBlockingQueue<>(Math.max(1, pooledBuffers));
     }
 
     public String upload(String filename, InputStream inputStream) throws Exception {
+        String remotePath = remoteDir.endsWith("/")
+                ? remoteDir + filename
+                : remoteDir + "/" + filename;
+
+        return write(remotePath, inputStream);
+    }
+
+    /**
+     * Stores the stream at exactly remotePath, wherever that is; upload(filename) puts files into sftp.remote-dir.
+     */
+    public String write(String remotePath, InputStream inputStream) throws Exception {
         try (Session<?> session = sessionFactory.getSession()) {
-            String remotePath = remoteDir.endsWith("/")
-                    ? remoteDir + filename
-                    : remoteDir + "/" + filename;
+            diskCache.invalidate(remotePath);
+            SftpDiskCache.Writer writer = diskCache.writer();
 
-            session.write(inputStream, remotePath);
+            if (writer == null) {
+                session.write(inputStream, remotePath);
+                return remotePath;
+            }
+
+            try {
+                session.write(new TeeInputStream(inputStream, writer), remotePath);
+            } catch (Exception e) {
+                writer.abort();
+                throw e;
+            }
+
+            // the cached copy carries the server's size and mtime, so its ETag matches an uncached stat
+            try {
+                diskCache.commit(writer, stat(session, remotePath));
+            } catch (Exception e) {
+                writer.abort();
+                logger.warn("Uploaded {} but could not cache it: {}", remotePath, e.getMessage());
+            }
             return remotePath;
         }
     }
 
-    public Resource download(String remotePath) throws Exception {
+    /**
+     * Size and modification time of the remote file. Answered from the disk cache while its copy
+     * was confirmed recently (sftp.cache.revalidate-ms), otherwise by the server; a cached copy
+     * the server no longer agrees with is dropped.
+     */
+    public RemoteFile stat(String remotePath) throws IOException {
+        RemoteFile cached = diskCache.peek(remotePath);
+        if (cached != null) return cached;
+
+        try (Session<?> session = sessionFactory.getSession()) {
+            RemoteFile current = stat(session, remotePath);
+            diskCache.revalidate(current);
+            return current;
+        } catch (NotFoundException e) {
+            diskCache.invalidate(remotePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies length bytes starting at offset of the remote file to out, from the disk cache when possible.
+     * Memory per download does not depend on the file size.
+     */
+    public void download(String remotePath, long offset, long length, OutputStream out) throws IOException {
+        SftpDiskCache.Entry entry = diskCache.lookup(remotePath);
+        if (entry == null && diskCache.isEnabled()) {
+            entry = fetchIntoCache(remotePath);
+        }
+
+        if (entry != null && diskCache.transfer(entry, offset, length, out)) return;
+
+        try (Session<?> session = sessionFactory.getSession()) {
+            copy(session, remotePath, offset, length, out::write);
+        }
+        out.flush();
+    }
+
+    public DiskCacheStats cacheStats() {
+        return diskCache.stats();
+    }
+
+    private SftpDiskCache.Entry fetchIntoCache(String remotePath) {
+        CompletableFuture<SftpDiskCache.Entry> mine = new CompletableFuture<>();
+        CompletableFuture<SftpDiskCache.Entry> running = fetching.putIfAbsent(remotePath, mine);
+        if (running != null) return running.join();
+
+        SftpDiskCache.Entry entry = null;
+        try {
+            entry = fetch(remotePath);
+        } catch (Exception e) {
+            logger.warn("Could not cache {}, streaming it instead: {}", remotePath, e.getMessage());
+        } finally {
+            fetching.remove(remotePath, mine);
+            mine.complete(entry);
+        }
+        return entry;
+    }
+
+    private SftpDiskCache.Entry fetch(String remotePath) throws IOException {
         try (Session<?> session = sessionFactory.getSession()) {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            session.read(remotePath, out);
-            return new ByteArrayResource(out.toByteArray());
+            RemoteFile remote = stat(session, remotePath);
+            if (!diskCache.fits(remote.size())) return null;
+
+            SftpDiskCache.Writer writer = diskCache.writer();
+            if (writer == null) return null;
+
+            try {
+                copy(session, remotePath, 0, remote.size(), writer::write);
+            } catch (IOException e) {
+                writer.abort();
+                throw e;
+            }
+            return diskCache.commit(writer, remote);
+        }
+    }
+
+    private static RemoteFile stat(Session<?> session, String remotePath) throws IOException {
+        try {
+            SftpClient client = (SftpClient) session.getClientInstance();
+            SftpClient.Attributes attributes = client.stat(remotePath);
+
+            if (!attributes.isRegularFile()) {
+                throw new NotFoundException("Файл не найден: " + remotePath);
+            }
+
+            FileTime modified = attributes.getModifyTime();
+            return new RemoteFile(remotePath, attributes.getSize(), modified != null ? modified.toMillis() : 0);
+        } catch (SftpException e) {
+            if (e.getStatus() == SftpConstants.SSH_FX_NO_SUCH_FILE) {
+                throw new NotFoundException("Файл не найден: " + remotePath);
+            }
+            throw e;
+        }
+    }
+
+    // one pooled buffer per copy
+    private void copy(Session<?> session, String remotePath, long offset, long length, Sink sink) throws IOException {
+        byte[] buffer = acquireBuffer();
+        SftpClient client = (SftpClient) session.getClientInstance();
+
+        try (SftpClient.CloseableHandle handle = client.open(remotePath, SftpClient.OpenMode.Read)) {
+            long position = offset;
+            long remaining = length;
+
+            while (remaining > 0) {
+                int read = client.read(handle, position, buffer, 0, (int) Math.min(buffer.length, remaining));
+                // the file got shorter since stat
+                if (read < 0) break;
+
+                sink.write(buffer, 0, read);
+                position += read;
+                remaining -= read;
+            }
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+
+    private byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return (buffer != null && buffer.length == bufferSize) ? buffer : new byte[bufferSize];
+    }
+
+    // hands every byte read from the upload to the cache writer as well
+    private static final class TeeInputStream extends FilterInputStream {
+
+        private final SftpDiskCache.Writer writer;
+
+        TeeInputStream(InputStream in, SftpDiskCache.Writer writer) {
+            super(in);
+            this.writer = writer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) writer.write(new byte[]{(byte) b}, 0, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) writer.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            // a reset would hand the same bytes to the writer twice
+            return false;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes would be missing from the copy
+            byte[] discard = new byte[(int) Math.min(n, 8192)];
+            int read = read(discard, 0, discard.length);
+            return Math.max(read, 0);
         }
     }
-}
\ No newline at end of file
+}
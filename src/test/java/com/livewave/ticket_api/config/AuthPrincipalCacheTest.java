@@ -0,0 +1,91 @@
+package com.livewave.ticket_api.config;
+
+import com.livewave.ticket_api.model.User;
+import com.livewave.ticket_api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthPrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AuthPrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private JwtClaims claims(String role) {
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        return new JwtClaims(7L, "user@test.com", role, issuedAt, issuedAt.plusSeconds(3600));
+    }
+
+    private User user(String role) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("user@test.com");
+        user.setRole(role);
+        return user;
+    }
+
+    @Test
+    void resolve_shouldReadUserOncePerTtl() {
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(user("USER")));
+
+        assertEquals(new AuthPrincipal(7L, "user@test.com", "USER"), principalCache.resolve(claims("USER")));
+        assertEquals("USER", principalCache.resolve(claims("USER")).role());
+
+        verify(userRepository, times(1)).findByEmail("user@test.com");
+    }
+
+    @Test
+    void resolve_demotedUser_shouldNotKeepRoleFromToken() {
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(user("USER")));
+
+        // a token issued while the user was still ADMIN, on an instance that never saw the change
+        assertEquals("USER", principalCache.resolve(claims("ADMIN")).role());
+    }
+
+    @Test
+    void resolve_afterTtl_shouldReadRoleAgain() {
+        ReflectionTestUtils.setField(principalCache, "ttlMs", 0L);
+        when(userRepository.findByEmail("user@test.com"))
+                .thenReturn(Optional.of(user("ADMIN")))
+                .thenReturn(Optional.of(user("USER")));
+
+        assertEquals("ADMIN", principalCache.resolve(claims("ADMIN")).role());
+        assertEquals("USER", principalCache.resolve(claims("ADMIN")).role());
+    }
+
+    @Test
+    void resolve_afterInvalidate_shouldReadRoleAgain() {
+        when(userRepository.findByEmail("user@test.com"))
+                .thenReturn(Optional.of(user("USER")))
+                .thenReturn(Optional.of(user("ADMIN")));
+
+        principalCache.resolve(claims("USER"));
+        principalCache.invalidate("user@test.com");
+
+        assertEquals("ADMIN", principalCache.resolve(claims("USER")).role());
+    }
+
+    @Test
+    void resolve_deletedUser_shouldReturnNull() {
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.empty());
+
+        assertNull(principalCache.resolve(claims("USER")));
+    }
+}
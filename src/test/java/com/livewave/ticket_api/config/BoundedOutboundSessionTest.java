@@ -0,0 +1,88 @@
+package com.livewave.ticket_api.config;
+
+import com.livewave.ticket_api.service.SeatTopicMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedOutboundSessionTest {
+
+    @Mock
+    private WebSocketSession delegate;
+
+    private final SeatTopicMonitor monitor = new SeatTopicMonitor();
+
+    // tasks are run by hand, so frames stay buffered as for a slow client
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    private BoundedOutboundSession session;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(delegate.getId()).thenReturn("s1");
+
+        session = new BoundedOutboundSession(delegate, tasks::add, monitor, 150, 10_000);
+    }
+
+    private TextMessage seatFrame(long eventId, String body) {
+        return new TextMessage("MESSAGE\ndestination:/topic/seats/" + eventId
+                + "\ncontent-type:application/json\nsubscription:sub-0\n\n" + body + "\0");
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) tasks.remove(0).run();
+    }
+
+    @Test
+    void seatEventId_shouldReadDestinationHeader() {
+        assertEquals(7L, BoundedOutboundSession.seatEventId(seatFrame(7, "{}")));
+        assertNull(BoundedOutboundSession.seatEventId(new TextMessage("CONNECTED\nversion:1.2\n\n\0")));
+        assertNull(BoundedOutboundSession.seatEventId(new TextMessage(
+                "MESSAGE\ndestination:/topic/news\n\n{\"x\":\"\ndestination:/topic/seats/1\"}\0")));
+    }
+
+    @Test
+    void sendMessage_overLimit_shouldDropStaleSeatFramesAndKeepNewest() throws Exception {
+
+        TextMessage newest = seatFrame(1, "{\"seq\":3}");
+        session.sendMessage(seatFrame(1, "{\"seq\":1}"));
+        session.sendMessage(seatFrame(1, "{\"seq\":2}"));
+        session.sendMessage(newest);
+
+        assertEquals(2, monitor.stats().get(0).getDropped());
+        assertEquals(1, monitor.stats().get(0).getQueued());
+
+        runTasks();
+
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(delegate).sendMessage(captor.capture());
+        assertSame(newest, captor.getValue());
+        // no subscribers and nothing queued: the topic is forgotten
+        assertTrue(monitor.stats().isEmpty());
+        verify(delegate, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    void sendMessage_otherFramesOverLimit_shouldCloseSession() throws Exception {
+
+        session.sendMessage(new TextMessage("MESSAGE\ndestination:/topic/news\n\n" + "x".repeat(300) + "\0"));
+
+        runTasks();
+
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(delegate, never()).sendMessage(any());
+    }
+}
@@ -0,0 +1,49 @@
+package com.livewave.ticket_api.config;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    void verify_shouldReturnTypedClaims() {
+        String token = jwtUtil.generateToken(7L, "user@test.com", "ADMIN");
+
+        JwtClaims claims = jwtUtil.verify(token);
+
+        assertEquals(7L, claims.userId());
+        assertEquals("user@test.com", claims.subject());
+        assertEquals("ADMIN", claims.role());
+        assertTrue(claims.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void verify_repeatedToken_shouldReturnCachedClaims() {
+        String token = jwtUtil.generateToken(7L, "user@test.com", "USER");
+
+        assertSame(jwtUtil.verify(token), jwtUtil.verify(token));
+    }
+
+    @Test
+    void verify_cacheDisabled_shouldParseEveryTime() {
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 0);
+        String token = jwtUtil.generateToken(7L, "user@test.com", "USER");
+
+        assertNotSame(jwtUtil.verify(token), jwtUtil.verify(token));
+    }
+
+    @Test
+    void verify_tamperedToken_shouldThrow() {
+        String token = jwtUtil.generateToken(7L, "user@test.com", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+    }
+}
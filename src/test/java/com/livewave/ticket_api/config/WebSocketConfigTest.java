@@ -0,0 +1,67 @@
+package com.livewave.ticket_api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketConfigTest {
+
+    // exposes the executor the config registered
+    private static class CapturingRegistration extends ChannelRegistration {
+        TaskExecutor executor() {
+            return hasTaskExecutor() ? getTaskExecutor(() -> null, executor -> {}) : null;
+        }
+    }
+
+    private WebSocketConfig config(boolean virtualThreads) {
+        WebSocketConfig config = new WebSocketConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtualThreads);
+        ReflectionTestUtils.setField(config, "channelMaxConcurrency", 4);
+        return config;
+    }
+
+    private static Thread runOn(TaskExecutor executor) throws Exception {
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+        return thread.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void channelExecutors_virtualThreadsEnabled_shouldRunTasksOnVirtualThreads() throws Exception {
+        WebSocketConfig config = config(true);
+
+        CapturingRegistration inbound = new CapturingRegistration();
+        config.configureClientInboundChannel(inbound);
+        CapturingRegistration outbound = new CapturingRegistration();
+        config.configureClientOutboundChannel(outbound);
+
+        Thread inboundThread = runOn(inbound.executor());
+        Thread outboundThread = runOn(outbound.executor());
+
+        assertTrue(inboundThread.isVirtual());
+        assertTrue(inboundThread.getName().startsWith("ws-inbound-"));
+        assertTrue(outboundThread.isVirtual());
+        assertTrue(outboundThread.getName().startsWith("ws-outbound-"));
+    }
+
+    @Test
+    void channelExecutors_virtualThreadsDisabled_shouldKeepSpringDefault() {
+        WebSocketConfig config = config(false);
+
+        CapturingRegistration inbound = new CapturingRegistration();
+        config.configureClientInboundChannel(inbound);
+
+        assertNull(inbound.executor());
+    }
+
+    @Test
+    void virtualThreadExecutor_shouldApplyConcurrencyLimit() {
+        assertEquals(4, config(true).virtualThreadExecutor("ws-test-").getConcurrencyLimit());
+    }
+}
@@ -1,17 +1,20 @@
 package com.livewave.ticket_api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.EventPage;
+import com.livewave.ticket_api.dto.SeatDto;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.model.Seat;
-import com.livewave.ticket_api.model.Ticket;
-import com.livewave.ticket_api.repository.SeatRepository;
-import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.service.EventOccupancy;
 import com.livewave.ticket_api.service.EventService;
+import com.livewave.ticket_api.service.SeatLayout;
+import com.livewave.ticket_api.service.SeatOccupancyService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,6 +24,7 @@ import com.livewave.ticket_api.config.JwtUtil;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,10 +44,7 @@ class EventControllerTest {
     private EventService eventService;
 
     @MockBean
-    private SeatRepository seatRepository;
-
-    @MockBean
-    private TicketRepository ticketRepository;
+    private SeatOccupancyService seatOccupancyService;
 
     @MockBean
     private JwtFilter jwtFilter;
@@ -54,6 +55,14 @@ class EventControllerTest {
     @MockBean
     private UserDetailsService userDetailsService;
 
+    private EventOccupancy occupancy;
+
+    @BeforeEach
+    void setUp() {
+        occupancy = new EventOccupancy(1L, SeatLayout.EMPTY);
+        when(seatOccupancyService.get(1L)).thenReturn(occupancy);
+    }
+
     // GET ALL EVENTS
     @Test
     void getAllEvents_withoutCity_shouldReturnList() throws Exception {
@@ -70,6 +79,22 @@ class EventControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Concert"));
     }
 
+    @Test
+    void getAllEvents_withLimit_shouldReturnPageAndNextCursor() throws Exception {
+
+        Event event = new Event();
+        event.setId(1L);
+        event.setTitle("Concert");
+
+        when(eventService.findPage(null, null, 1))
+                .thenReturn(new EventPage(List.of(event), "next"));
+
+        mockMvc.perform(get("/events?limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].title").value("Concert"));
+    }
+
     @Test
     void getAllEvents_withCityFilter_shouldCallServiceWithCity() throws Exception {
 
@@ -168,40 +193,21 @@ class EventControllerTest {
     @Test
     void getSeats_bookedSeat_shouldReturnBooked() throws Exception {
 
-        Seat seat = new Seat();
-        seat.setId(1L);
-        seat.setSeatNumber("A1");
-        seat.setRowNum(1);
-        seat.setColNum(1);
-
-        Ticket ticket = new Ticket();
-        ticket.setSeatId(1L);
-
-        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(1L))
-                .thenReturn(List.of(seat));
-
-        when(ticketRepository.findByEventId(1L))
-                .thenReturn(List.of(ticket));
+        when(seatOccupancyService.seatMap(1L))
+                .thenReturn(List.of(new SeatDto(1L, 1L, "A1", 1, 1, true)));
 
         mockMvc.perform(get("/events/1/seats"))
                 .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(header().string("X-Seat-Map-Version", String.valueOf(occupancy.getVersion())))
                 .andExpect(jsonPath("$[0].status").value("booked"));
     }
 
     @Test
     void getSeats_availableSeat_shouldReturnAvailable() throws Exception {
 
-        Seat seat = new Seat();
-        seat.setId(1L);
-        seat.setSeatNumber("A1");
-        seat.setRowNum(1);
-        seat.setColNum(1);
-
-        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(1L))
-                .thenReturn(List.of(seat));
-
-        when(ticketRepository.findByEventId(1L))
-                .thenReturn(List.of());
+        when(seatOccupancyService.seatMap(1L))
+                .thenReturn(List.of(new SeatDto(1L, 1L, "A1", 1, 1, false)));
 
         mockMvc.perform(get("/events/1/seats"))
                 .andExpect(status().isOk())
@@ -211,24 +217,36 @@ class EventControllerTest {
     @Test
     void getSeats_shouldReturnCorrectStructure() throws Exception {
 
-        Seat seat = new Seat();
-        seat.setId(5L);
-        seat.setSeatNumber("B2");
-        seat.setRowNum(2);
-        seat.setColNum(3);
+        SeatDto seat = new SeatDto(5L, 1L, "B2", 2, 3, false);
+        seat.setZone("VIP");
 
-        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(1L))
+        when(seatOccupancyService.seatMap(1L))
                 .thenReturn(List.of(seat));
 
-        when(ticketRepository.findByEventId(1L))
-                .thenReturn(List.of());
-
         mockMvc.perform(get("/events/1/seats"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(5))
                 .andExpect(jsonPath("$[0].seatNumber").value("B2"))
                 .andExpect(jsonPath("$[0].row").value(2))
                 .andExpect(jsonPath("$[0].col").value(3))
+                .andExpect(jsonPath("$[0].zone").value("VIP"))
                 .andExpect(jsonPath("$[0].status").value("available"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSeats_compactAccept_shouldReturnAvailabilityFrame() throws Exception {
+
+        byte[] frame = {1, 1, 0, 0, 0, 0, 0};
+
+        when(seatOccupancyService.encodedAvailability(1L))
+                .thenReturn(frame);
+
+        mockMvc.perform(get("/events/1/seats")
+                        .accept("application/vnd.livewave.seatmap"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.livewave.seatmap"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(header().string("X-Seat-Map-Version", String.valueOf(occupancy.getVersion())))
+                .andExpect(content().bytes(frame));
+    }
+}
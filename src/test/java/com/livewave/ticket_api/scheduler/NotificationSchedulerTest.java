@@ -0,0 +1,191 @@
+package com.livewave.ticket_api.scheduler;
+
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.SchedulerCheckpoint;
+import com.livewave.ticket_api.model.Ticket;
+import com.livewave.ticket_api.model.User;
+import com.livewave.ticket_api.repository.EventRepository;
+import com.livewave.ticket_api.repository.SchedulerCheckpointRepository;
+import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.service.NotificationService;
+import com.livewave.ticket_api.service.PushMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationSchedulerTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private SchedulerCheckpointRepository checkpointRepository;
+
+    @InjectMocks
+    private NotificationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(scheduler, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    private Event event(Long id, LocalDateTime date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Concert");
+        event.setDate(date);
+        return event;
+    }
+
+    private Ticket ticket(Event event, String fcmToken) {
+        User user = new User();
+        user.setFcmToken(fcmToken);
+
+        Ticket ticket = new Ticket();
+        ticket.setEvent(event);
+        ticket.setUser(user);
+        return ticket;
+    }
+
+    @Test
+    void start_shouldScheduleRemindersAfterHighWaterMark() {
+        LocalDateTime now = LocalDateTime.now();
+        SchedulerCheckpoint checkpoint = new SchedulerCheckpoint();
+        checkpoint.setName(NotificationScheduler.CHECKPOINT);
+        checkpoint.setReachedAt(now.minusHours(1));
+
+        when(checkpointRepository.findById(NotificationScheduler.CHECKPOINT)).thenReturn(Optional.of(checkpoint));
+        when(eventRepository.findScheduleRows(checkpoint.getReachedAt())).thenReturn(List.of(
+                // both reminders ahead
+                new Object[]{1L, now.plusDays(2)},
+                // 1h reminder was due while down: sent right away; 24h one was already sent
+                new Object[]{2L, now.plusMinutes(30)}
+        ));
+
+        scheduler.start();
+
+        assertEquals(3, scheduler.pending());
+    }
+
+    @Test
+    void deliver_shouldStreamHolderTokensAndSaveHighWaterMark() {
+        LocalDateTime date = LocalDateTime.now().plusDays(2);
+        Event event = event(1L, date);
+        scheduler.schedule(event);
+
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(ticketRepository.findReminderTokens(eq(1L), eq(""), any())).thenReturn(List.of("a", "b"));
+        when(ticketRepository.findReminderTokens(eq(1L), eq("b"), any())).thenReturn(List.of("c"));
+        when(notificationService.enqueuePush(anyString(), anyString(), anyString())).thenReturn(true);
+
+        LocalDateTime fireAt = date.minusHours(24);
+        scheduler.deliver(new NotificationScheduler.Reminder(1L, date, 1440, fireAt));
+
+        verify(notificationService, times(3))
+                .enqueuePush(anyString(), eq("Напоминание о событии"), eq("Событие \"Concert\" начнётся через 24 часа"));
+        verify(checkpointRepository).save(argThat(c -> c.getReachedAt().equals(fireAt)));
+        assertEquals(fireAt, scheduler.highWaterMark());
+    }
+
+    @Test
+    void deliver_failing_shouldRetryAndHoldHighWaterMark() {
+        LocalDateTime date = LocalDateTime.now().plusDays(2);
+        scheduler.schedule(event(1L, date));
+        int scheduled = scheduler.pending();
+
+        when(eventRepository.findById(1L)).thenThrow(new RuntimeException("database down"));
+
+        LocalDateTime fireAt = date.minusHours(24);
+        NotificationScheduler.Reminder reminder = new NotificationScheduler.Reminder(1L, date, 1440, fireAt);
+        scheduler.deliver(reminder);
+
+        assertEquals(scheduled + 1, scheduler.pending());
+        verify(checkpointRepository, never()).save(argThat(c -> !c.getReachedAt().isBefore(fireAt)));
+
+        // a later reminder succeeds: the mark still stays before the failed one
+        LocalDateTime laterDate = date.plusDays(1);
+        scheduler.schedule(event(2L, laterDate));
+        when(eventRepository.findById(2L)).thenReturn(Optional.of(event(2L, laterDate)));
+        scheduler.deliver(new NotificationScheduler.Reminder(2L, laterDate, 1440, laterDate.minusHours(24)));
+
+        assertTrue(scheduler.highWaterMark().isBefore(fireAt));
+    }
+
+    @Test
+    void deliver_afterReschedule_shouldSkipStaleReminder() {
+        LocalDateTime oldDate = LocalDateTime.now().plusDays(2);
+        scheduler.schedule(event(1L, oldDate));
+        scheduler.schedule(event(1L, oldDate.plusDays(1)));
+
+        scheduler.deliver(new NotificationScheduler.Reminder(1L, oldDate, 1440, oldDate.minusHours(24)));
+
+        verify(ticketRepository, never()).findReminderTokens(any(), any(), any());
+        verify(notificationService, never()).enqueuePush(any(), any(), any());
+    }
+
+    @Test
+    void schedule_movedCloser_shouldSendOneCatchUpReminder() {
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.schedule(event(1L, now.plusDays(3)));
+        assertEquals(2, scheduler.pending());
+
+        // 24h and 1h are both past for the new date: one reminder now instead of two
+        scheduler.schedule(event(1L, now.plusMinutes(30)));
+
+        assertEquals(3, scheduler.pending());
+    }
+
+    @Test
+    void instantReminder_afterFirstReminder_shouldBuildReminder() {
+        Event event = event(1L, LocalDateTime.now().plusHours(5));
+
+        PushMessage reminder = scheduler.instantReminder(ticket(event, "token")).orElseThrow();
+
+        assertEquals("token", reminder.token());
+        assertEquals("Билет успешно куплен", reminder.title());
+        assertEquals("Событие \"Concert\" начнётся менее чем через 24 часа", reminder.body());
+        // only decides; delivery goes through the outbox
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void instantReminder_beforeFirstReminderOrWithoutToken_shouldBeEmpty() {
+        assertTrue(scheduler.instantReminder(ticket(event(1L, LocalDateTime.now().plusDays(2)), "token")).isEmpty());
+        assertTrue(scheduler.instantReminder(ticket(event(1L, LocalDateTime.now().plusHours(5)), null)).isEmpty());
+        // at the 24h boundary the scheduled 24h reminder is still ahead and covers this buyer
+        assertTrue(scheduler.instantReminder(ticket(event(1L, LocalDateTime.now().plusHours(24).plusSeconds(5)), "token")).isEmpty());
+    }
+
+    @Test
+    void untilText_shouldUseRussianPlurals() {
+        assertEquals("1 час", NotificationScheduler.untilText(60));
+        assertEquals("24 часа", NotificationScheduler.untilText(1440));
+        assertEquals("5 часов", NotificationScheduler.untilText(300));
+        assertEquals("30 минут", NotificationScheduler.untilText(30));
+        assertEquals("21 минуту", NotificationScheduler.untilText(21));
+    }
+}
@@ -0,0 +1,114 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.CityFacet;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CityIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private CityIndex cityIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Event event(Long id, String city, LocalDateTime date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setCity(city);
+        event.setDate(date);
+        return event;
+    }
+
+    @Test
+    void cityKeyOf_shouldIgnoreCaseSpacesAndYo() {
+        assertEquals("алматы", Event.cityKeyOf("  АЛМАТЫ "));
+        assertEquals("нур-султан", Event.cityKeyOf("Нур-Султан"));
+        assertEquals("орел", Event.cityKeyOf("Орёл"));
+        assertEquals("new york", Event.cityKeyOf("New   York"));
+        assertNull(Event.cityKeyOf(" "));
+    }
+
+    @Test
+    void facets_shouldCountUpcomingEventsPerCity() {
+        cityIndex.put(event(1L, "Almaty", NOW.plusDays(1)));
+        cityIndex.put(event(2L, "almaty ", NOW.minusDays(1)));
+        cityIndex.put(event(3L, "Almaty", null));
+        cityIndex.put(event(4L, "Astana", NOW.plusDays(2)));
+        cityIndex.put(event(5L, "Astana", NOW.plusDays(3)));
+
+        List<CityFacet> facets = cityIndex.facets(NOW);
+
+        assertEquals(2, facets.size());
+        assertEquals("astana", facets.get(0).getCityKey());
+        assertEquals(2, facets.get(0).getUpcomingEvents());
+        assertEquals("almaty", facets.get(1).getCityKey());
+        assertEquals(1, facets.get(1).getUpcomingEvents());
+        assertEquals(3, facets.get(1).getTotalEvents());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void put_changedCity_shouldMoveEvent() {
+        cityIndex.put(event(1L, "Almaty", NOW));
+        cityIndex.put(event(1L, "Astana", NOW));
+
+        List<CityFacet> facets = cityIndex.facets(NOW);
+
+        assertEquals(1, facets.size());
+        assertEquals("astana", facets.get(0).getCityKey());
+        assertEquals(1, facets.get(0).getTotalEvents());
+    }
+
+    @Test
+    void load_shouldBackfillMissingKeysAndReadIndexRows() {
+        Event legacy = event(1L, "Almaty", NOW);
+        when(eventRepository.findWithoutCityKey()).thenReturn(List.of(legacy));
+        when(eventRepository.findCityIndexRows()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Almaty", "almaty", NOW.plusDays(1)},
+                new Object[]{2L, "Almaty", "almaty", NOW.plusDays(2)}));
+
+        cityIndex.load();
+
+        assertEquals("almaty", legacy.getCityKey());
+        verify(eventRepository).saveAll(List.of(legacy));
+        assertEquals(2, cityIndex.facets(NOW).get(0).getTotalEvents());
+    }
+
+    @Test
+    void load_writesDuringRead_shouldBeKept() {
+        when(eventRepository.findCityIndexRows()).thenAnswer(invocation -> {
+            // committed after the rows were read
+            cityIndex.put(event(3L, "Astana", NOW.plusDays(1)));
+            cityIndex.remove(1L);
+            return List.<Object[]>of(
+                    new Object[]{1L, "Almaty", "almaty", NOW.plusDays(1)},
+                    new Object[]{2L, "Almaty", "almaty", NOW.plusDays(2)});
+        });
+
+        cityIndex.load();
+
+        List<CityFacet> facets = cityIndex.facets(NOW);
+        assertEquals(2, facets.size());
+        assertEquals(1, facets.get(0).getTotalEvents());
+        assertEquals(1, facets.get(1).getTotalEvents());
+    }
+}
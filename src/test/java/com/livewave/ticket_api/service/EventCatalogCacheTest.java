@@ -0,0 +1,109 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.model.Event;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCatalogCacheTest {
+
+    private final EventCatalogCache cache = new EventCatalogCache();
+
+    private Event event(Long id, String title) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        return event;
+    }
+
+    @Test
+    void get_secondRead_shouldHitCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> { loads.incrementAndGet(); return Optional.of(event(id, "Concert")); });
+        Optional<Event> second = cache.get(1L, id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+        assertEquals("Concert", second.orElseThrow().getTitle());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().get(0).getHits());
+        assertEquals(1, cache.stats().get(0).getMisses());
+    }
+
+    @Test
+    void getAll_shouldLoadOnlyMissesInOneCall() {
+        cache.put(event(1L, "Cached"));
+        List<List<Long>> loads = new ArrayList<>();
+
+        Map<Long, Event> found = cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loads.add(ids);
+            return List.of(event(2L, "Loaded"));
+        });
+
+        assertEquals(List.of(List.of(2L, 3L)), loads);
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        assertEquals("Loaded", cache.get(2L, id -> Optional.empty()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void put_shouldReplaceEventAndDropListings() {
+        cache.listing(null, limit -> List.of(event(1L, "Old")));
+
+        cache.put(event(1L, "New"));
+
+        assertEquals("New", cache.get(1L, id -> Optional.empty()).orElseThrow().getTitle());
+        assertEquals(0, cache.stats().get(1).getSize());
+    }
+
+    @Test
+    void get_writeDuringLoad_shouldNotCacheStaleRow() {
+        cache.get(1L, id -> {
+            // the admin update commits while this read is still loading
+            cache.evict(1L);
+            return Optional.of(event(1L, "Stale"));
+        });
+
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void listing_tooLarge_shouldReturnNull() {
+        ReflectionTestUtils.setField(cache, "maxListingSize", 1);
+
+        assertNull(cache.listing("Almaty", limit -> List.of(event(1L, "A"), event(2L, "B"))));
+        assertNull(cache.listing("almaty", limit -> List.of()));
+    }
+
+    @Test
+    void listing_empty_shouldBeCachedAsEmptyNotTooLarge() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.listing("Almaty", limit -> { loads.incrementAndGet(); return List.of(); });
+        List<Event> second = cache.listing("Almaty", limit -> { loads.incrementAndGet(); return List.of(); });
+
+        assertNotNull(second);
+        assertTrue(second.isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_overMaxEvents_shouldEvictLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(cache, "maxEvents", 2);
+
+        cache.put(event(1L, "A"));
+        cache.put(event(2L, "B"));
+        cache.get(1L, id -> Optional.empty());
+        cache.put(event(3L, "C"));
+
+        assertTrue(cache.get(1L, id -> Optional.empty()).isPresent());
+        assertTrue(cache.get(2L, id -> Optional.empty()).isEmpty());
+        assertEquals(1, cache.stats().get(0).getEvictions());
+    }
+}
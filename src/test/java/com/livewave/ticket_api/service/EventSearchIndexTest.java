@@ -0,0 +1,121 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.EventSuggestion;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventSearchIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private EventSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Event event(Long id, String title, String venue, String city, LocalDateTime date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setVenue(venue);
+        event.setCity(city);
+        event.setDate(date);
+        return event;
+    }
+
+    @Test
+    void terms_shouldNormalizeAndStem() {
+        assertEquals(List.of("концерт", "рок", "групп"), SearchTokenizer.terms("Концерты РОК-группы"));
+        assertEquals(List.of("jazz", "party"), SearchTokenizer.terms("Jazz parties!"));
+        assertEquals(List.of("game", "game", "box", "class"), SearchTokenizer.terms("game games boxes classes"));
+        assertEquals(List.of("елк"), SearchTokenizer.terms("Ёлка"));
+    }
+
+    @Test
+    void search_shouldRankTitleMatchesAboveOtherFields() {
+        searchIndex.put(event(1L, "Stand-up evening", "Jazz Club", "Almaty", NOW.plusDays(1)));
+        searchIndex.put(event(2L, "Jazz night", "Opera House", "Almaty", NOW.plusDays(2)));
+        searchIndex.put(event(3L, "Rock fest", "Arena", "Astana", NOW.plusDays(3)));
+
+        EventSearchIndex.Hits hits = searchIndex.search("jazz", 0, 10, NOW);
+
+        assertEquals(2, hits.total());
+        assertEquals(List.of(2L, 1L), hits.ids());
+    }
+
+    @Test
+    void search_shouldRequireEveryWordAndMatchLastOneAsPrefix() {
+        searchIndex.put(event(1L, "Jazz night", "Opera House", "Almaty", NOW.plusDays(1)));
+        searchIndex.put(event(2L, "Jazz night", "Arena", "Astana", NOW.plusDays(2)));
+
+        assertEquals(List.of(2L), searchIndex.search("jazz ast", 0, 10, NOW).ids());
+        assertEquals(0, searchIndex.search("rock ast", 0, 10, NOW).total());
+    }
+
+    @Test
+    void search_shouldPutPastEventsAfterUpcomingOnes() {
+        searchIndex.put(event(1L, "Jazz night", null, "Almaty", NOW.minusDays(1)));
+        searchIndex.put(event(2L, "Jazz night", null, "Almaty", NOW.plusDays(5)));
+
+        assertEquals(List.of(2L, 1L), searchIndex.search("Jazz", 0, 10, NOW).ids());
+        assertEquals(List.of(1L), searchIndex.search("Jazz", 1, 10, NOW).ids());
+    }
+
+    @Test
+    void put_shouldReplaceOldTermsAndRemoveShouldDropEvent() {
+        searchIndex.put(event(1L, "Jazz night", null, "Almaty", NOW.plusDays(1)));
+        searchIndex.put(event(1L, "Rock night", null, "Almaty", NOW.plusDays(1)));
+
+        assertEquals(0, searchIndex.search("jazz", 0, 10, NOW).total());
+        assertEquals(List.of(1L), searchIndex.search("rock", 0, 10, NOW).ids());
+
+        searchIndex.remove(1L);
+
+        assertEquals(0, searchIndex.search("rock", 0, 10, NOW).total());
+    }
+
+    @Test
+    void suggest_shouldServeTitlesFromIndex() {
+        when(eventRepository.findAll()).thenReturn(List.of(
+                event(1L, "Концерт Димаша", "Барыс Арена", "Астана", NOW.plusDays(1))
+        ));
+        searchIndex.load();
+
+        List<EventSuggestion> suggestions = searchIndex.suggest("конц", 5, NOW);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("Концерт Димаша", suggestions.get(0).getTitle());
+        verify(eventRepository, times(1)).findAll();
+    }
+
+    @Test
+    void load_writesDuringRead_shouldBeKept() {
+        when(eventRepository.findAll()).thenAnswer(invocation -> {
+            // committed after the events were read
+            searchIndex.put(event(2L, "Jazz night", null, "Almaty", NOW.plusDays(2)));
+            searchIndex.remove(1L);
+            return List.of(event(1L, "Jazz brunch", null, "Almaty", NOW.plusDays(1)));
+        });
+
+        searchIndex.load();
+
+        assertEquals(List.of(2L), searchIndex.search("jazz", 0, 10, NOW).ids());
+    }
+}
@@ -1,21 +1,28 @@
 package com.livewave.ticket_api.service;
 
+import com.livewave.ticket_api.dto.EventPage;
+import com.livewave.ticket_api.dto.EventSearchPage;
 import com.livewave.ticket_api.exception.BadRequestException;
 import com.livewave.ticket_api.exception.ResourceNotFoundException;
 import com.livewave.ticket_api.model.Event;
-import com.livewave.ticket_api.model.Seat;
+import com.livewave.ticket_api.model.VenueLayout;
 import com.livewave.ticket_api.repository.EventRepository;
 import com.livewave.ticket_api.repository.SeatRepository;
+import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.scheduler.NotificationScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,12 +35,51 @@ class EventServiceTest {
     @Mock
     private SeatRepository seatRepository;
 
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private SeatLayoutService seatLayoutService;
+
+    @Mock
+    private SeatOccupancyService seatOccupancyService;
+
+    @Mock
+    private EventCatalogCache eventCatalogCache;
+
+    @Mock
+    private CityIndex cityIndex;
+
+    @Mock
+    private EventSearchIndex searchIndex;
+
+    @Mock
+    private NotificationScheduler notificationScheduler;
+
+    @Mock
+    private WebSocketService webSocketService;
+
     @InjectMocks
     private EventService eventService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        // cache always misses: reads go to the repository, listings count as too large
+        when(eventCatalogCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<Long, Optional<Event>>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
+        when(eventCatalogCache.getAll(any(), any()))
+                .thenAnswer(invocation -> {
+                    Map<Long, Event> found = new HashMap<>();
+                    invocation.<Function<List<Long>, List<Event>>>getArgument(1)
+                            .apply(invocation.getArgument(0))
+                            .forEach(event -> found.put(event.getId(), event));
+                    return found;
+                });
+        // a mocked List method would answer an empty list, i.e. a cached empty listing
+        when(eventCatalogCache.listing(any(), any())).thenReturn(null);
     }
 
     // findAll
@@ -55,18 +101,18 @@ class EventServiceTest {
         Event event = new Event();
         event.setCity("Almaty");
 
-        when(repo.findByCityIgnoreCase("Almaty"))
+        when(repo.findByCityKeyOrderByDateAscIdAsc("almaty"))
                 .thenReturn(List.of(event));
 
         List<Event> result = eventService.findAll("Almaty");
 
         assertEquals(1, result.size());
-        verify(repo).findByCityIgnoreCase("Almaty");
+        verify(repo).findByCityKeyOrderByDateAscIdAsc("almaty");
     }
 
     @Test
     void findAll_withCityNotFound_shouldThrowException() {
-        when(repo.findByCityIgnoreCase("Astana"))
+        when(repo.findByCityKeyOrderByDateAscIdAsc("astana"))
                 .thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class,
@@ -94,12 +140,22 @@ class EventServiceTest {
                 () -> eventService.findById(1L));
     }
 
+    private VenueLayout layout(Long id) {
+        VenueLayout layout = new VenueLayout();
+        layout.setId(id);
+        return layout;
+    }
+
     // createEventWithSeats
     @Test
-    void createEventWithSeats_validData_shouldSaveEventAndGenerateSeats() {
+    void createEventWithSeats_validData_shouldSaveEventOnGridLayout() {
 
         Event event = new Event();
         event.setTitle("Concert");
+        event.setVenue("Arena");
+
+        when(seatLayoutService.findOrCreateGrid("Arena", 2, 2))
+                .thenReturn(layout(7L));
 
         when(repo.save(any(Event.class)))
                 .thenAnswer(invocation -> {
@@ -122,7 +178,8 @@ class EventServiceTest {
                 saved.getDate()
         );
 
-        verify(seatRepository, times(1)).saveAll(anyList());
+        assertEquals(7L, saved.getLayoutId());
+        verifyNoInteractions(seatRepository);
     }
 
     @Test
@@ -148,21 +205,161 @@ class EventServiceTest {
                 ));
     }
 
-    // generateSeatsForEvent
+    // createEventWithLayout
+    @Test
+    void createEventWithLayout_shouldReferenceTemplate() {
+
+        when(seatLayoutService.findLayout(3L)).thenReturn(layout(3L));
+        when(repo.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Event saved = eventService.createEventWithLayout(new Event(), 3L, null);
+
+        assertEquals(3L, saved.getLayoutId());
+    }
+
+    // moveToLayout
+    @Test
+    void moveToLayout_shouldRemapTicketsAndDropSeatRows() {
+
+        Event event = new Event();
+        event.setId(1L);
+
+        when(repo.findById(1L)).thenReturn(Optional.of(event));
+        when(repo.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(seatLayoutService.findLayout(3L)).thenReturn(layout(3L));
+        when(ticketRepository.countTicketsMissingFromLayout(1L, 3L)).thenReturn(0L);
+
+        Event saved = eventService.moveToLayout(1L, 3L);
+
+        assertEquals(3L, saved.getLayoutId());
+        verify(ticketRepository).clearSeatIds(1L);
+        verify(ticketRepository).remapSeatIdsToLayout(1L, 3L);
+        verify(seatRepository).deleteByEventId(1L);
+        verify(seatOccupancyService).evict(1L);
+        // the cached instance is never modified before commit
+        verify(eventCatalogCache, never()).get(any(), any());
+    }
+
+    @Test
+    void moveToLayout_soldSeatMissingInLayout_shouldThrowException() {
+
+        Event event = new Event();
+        event.setId(1L);
+
+        when(repo.findById(1L)).thenReturn(Optional.of(event));
+        when(seatLayoutService.findLayout(3L)).thenReturn(layout(3L));
+        when(ticketRepository.countTicketsMissingFromLayout(1L, 3L)).thenReturn(2L);
+
+        assertThrows(BadRequestException.class,
+                () -> eventService.moveToLayout(1L, 3L));
+
+        verify(seatRepository, never()).deleteByEventId(anyLong());
+    }
+
+    // findPage
+    private Event event(Long id, LocalDateTime date) {
+        Event event = new Event();
+        event.setId(id);
+        event.setDate(date);
+        return event;
+    }
+
+    @Test
+    void findPage_firstPage_shouldReturnCursorOfLastItem() {
+        LocalDateTime date = LocalDateTime.of(2026, 5, 1, 19, 0);
+
+        when(repo.findFirstDatedPage(isNull(), any(Pageable.class)))
+                .thenReturn(List.of(event(1L, date), event(2L, date), event(3L, date)));
+
+        EventPage page = eventService.findPage(null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasNext());
+        assertEquals(new EventCursor(date, 2L), EventCursor.decode(page.getNextCursor()));
+        verify(repo, never()).findUndatedPageAfter(any(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void findPage_lastDatedPage_shouldContinueWithUndatedEvents() {
+        LocalDateTime date = LocalDateTime.of(2026, 5, 1, 19, 0);
+        String after = new EventCursor(date, 2L).encode();
+
+        when(repo.findDatedPageAfter(eq("almaty"), eq(date), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(event(3L, date)));
+        when(repo.findUndatedPageAfter(eq("almaty"), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(event(4L, null)));
+
+        EventPage page = eventService.findPage("Almaty", after, 5);
+
+        assertEquals(List.of(3L, 4L), page.getItems().stream().map(Event::getId).toList());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void findPage_invalidCursor_shouldThrowException() {
+        assertThrows(BadRequestException.class,
+                () -> eventService.findPage(null, "not a cursor", 10));
+    }
+
+    @Test
+    void findPage_cachedListing_shouldSliceInMemory() {
+        LocalDateTime date = LocalDateTime.of(2026, 5, 1, 19, 0);
+        List<Event> listing = List.of(event(1L, date), event(2L, date), event(3L, null));
+
+        when(eventCatalogCache.listing(isNull(), any())).thenReturn(listing);
+
+        EventPage page = eventService.findPage(null, new EventCursor(date, 1L).encode(), 1);
+
+        assertEquals(List.of(2L), page.getItems().stream().map(Event::getId).toList());
+        assertEquals(new EventCursor(date, 2L), EventCursor.decode(page.getNextCursor()));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void search_shouldReadHitsInOneQueryAndKeepRanking() {
+        when(searchIndex.search(eq("jazz"), eq(0), anyInt(), any()))
+                .thenReturn(new EventSearchIndex.Hits(3, List.of(3L, 1L, 2L)));
+        // 2 was deleted after it was indexed
+        when(repo.findAllById(List.of(3L, 1L, 2L))).thenReturn(List.of(event(1L, null), event(3L, null)));
+
+        EventSearchPage page = eventService.search("jazz", 0, 10);
+
+        assertEquals(List.of(3L, 1L), page.getItems().stream().map(Event::getId).toList());
+        verify(repo, never()).findById(any());
+    }
+
     @Test
-    void generateSeatsForEvent_shouldCreateCorrectNumberOfSeats() {
+    void update_shouldPatchFieldsAndRefreshCache() {
+        Event event = event(1L, null);
+        event.setTitle("Old");
 
-        eventService.generateSeatsForEvent(1L, 3, 4);
+        Event patch = new Event();
+        patch.setTitle("New");
 
-        ArgumentCaptor<List<Seat>> captor =
-                ArgumentCaptor.forClass(List.class);
+        when(repo.findById(1L)).thenReturn(Optional.of(event));
+        when(repo.save(event)).thenReturn(event);
 
-        verify(seatRepository).saveAll(captor.capture());
+        Event result = eventService.update(1L, patch);
 
-        List<Seat> savedSeats = captor.getValue();
+        assertEquals("New", result.getTitle());
+        verify(eventCatalogCache).put(event);
+        verify(cityIndex).put(event);
+        verify(searchIndex).put(event);
+        verify(notificationScheduler).schedule(event);
+    }
 
-        assertEquals(12, savedSeats.size()); // 3 * 4
-        assertEquals("A1", savedSeats.get(0).getSeatNumber());
-        assertEquals("C4", savedSeats.get(11).getSeatNumber());
+    @Test
+    void delete_shouldEvictCaches() {
+        when(repo.existsById(1L)).thenReturn(true);
+
+        eventService.delete(1L);
+
+        verify(repo).deleteById(1L);
+        verify(eventCatalogCache).evict(1L);
+        verify(cityIndex).remove(1L);
+        verify(searchIndex).remove(1L);
+        verify(notificationScheduler).remove(1L);
+        verify(seatOccupancyService).evict(1L);
+        verify(webSocketService).forget(1L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.model.OutboxMessage;
+import com.livewave.ticket_api.repository.OutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        relay = new OutboxRelay(outboxRepository, transactionManager, webSocketService, notificationService, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    private OutboxMessage message(long id, OutboxMessage.Type type, Object payload) throws Exception {
+        OutboxMessage m = new OutboxMessage();
+        m.setId(id);
+        m.setType(type);
+        m.setEventId(1L);
+        m.setDedupeKey(type + ":" + id);
+        m.setPayload(objectMapper.writeValueAsString(payload));
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> deletedIds() {
+        ArgumentCaptor<Iterable<Long>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxRepository, atLeastOnce()).deleteAllByIdInBatch(captor.capture());
+        return (List<Long>) captor.getValue();
+    }
+
+    @Test
+    void drain_shouldDeliverAndDeleteBatch() throws Exception {
+        PushMessage push = new PushMessage("token", "title", "body", Map.of("type", "EVENT_REMINDER"));
+        when(outboxRepository.lockBatch(anyInt())).thenReturn(List.of(
+                message(1, OutboxMessage.Type.SEAT_UPDATE, new SeatDto(10L, 1L, null, 0, 0, true)),
+                message(2, OutboxMessage.Type.PUSH, push)
+        ));
+        when(notificationService.enqueue(any())).thenReturn(true);
+
+        assertEquals(2, relay.drain());
+
+        ArgumentCaptor<SeatDto> seat = ArgumentCaptor.forClass(SeatDto.class);
+        verify(webSocketService).sendSeatUpdate(eq(1L), seat.capture());
+        assertEquals(10L, seat.getValue().getId());
+        assertTrue(seat.getValue().isBooked());
+        verify(notificationService).enqueue(push);
+        assertEquals(List.of(1L, 2L), deletedIds());
+    }
+
+    @Test
+    void drain_batchReadAgainAfterFailedDelete_shouldNotDeliverTwice() throws Exception {
+        OutboxMessage seat = message(1, OutboxMessage.Type.SEAT_UPDATE, new SeatDto(10L, 1L, null, 0, 0, true));
+        when(outboxRepository.lockBatch(anyInt())).thenReturn(List.of(seat));
+        doThrow(new RuntimeException("connection lost"))
+                .doNothing()
+                .when(outboxRepository).deleteAllByIdInBatch(any());
+
+        assertThrows(RuntimeException.class, () -> relay.drain());
+        assertEquals(1, relay.drain());
+
+        verify(webSocketService, times(1)).sendSeatUpdate(anyLong(), any());
+        verify(outboxRepository, times(2)).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void drain_pushQueueFull_shouldKeepRestForLater() throws Exception {
+        when(outboxRepository.lockBatch(anyInt())).thenReturn(List.of(
+                message(1, OutboxMessage.Type.SEAT_UPDATE, new SeatDto(10L, 1L, null, 0, 0, true)),
+                message(2, OutboxMessage.Type.PUSH, new PushMessage("token", "t", "b", Map.of())),
+                message(3, OutboxMessage.Type.SEAT_UPDATE, new SeatDto(11L, 1L, null, 0, 0, true))
+        ));
+        when(notificationService.enqueue(any())).thenReturn(false);
+
+        assertEquals(1, relay.drain());
+
+        verify(webSocketService, times(1)).sendSeatUpdate(anyLong(), any());
+        assertEquals(List.of(1L), deletedIds());
+    }
+
+    @Test
+    void drain_unreadablePayload_shouldDropIt() {
+        OutboxMessage broken = new OutboxMessage();
+        broken.setId(5L);
+        broken.setType(OutboxMessage.Type.SEAT_UPDATE);
+        broken.setEventId(1L);
+        broken.setPayload("not json");
+        when(outboxRepository.lockBatch(anyInt())).thenReturn(List.of(broken));
+
+        assertEquals(1, relay.drain());
+
+        verifyNoInteractions(webSocketService);
+        assertEquals(List.of(5L), deletedIds());
+    }
+}
@@ -0,0 +1,151 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.exception.SeatConflictException;
+import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.Seat;
+import com.livewave.ticket_api.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PurchaseSequencerTest {
+
+    @Mock
+    private TicketService ticketService;
+
+    @Mock
+    private SeatLayoutService seatLayoutService;
+
+    @Mock
+    private SeatOccupancyService seatOccupancyService;
+
+    @Mock
+    private SeatHoldService seatHoldService;
+
+    @InjectMocks
+    private PurchaseSequencer purchaseSequencer;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        event = new Event();
+        event.setId(1L);
+
+        when(seatOccupancyService.get(1L))
+                .thenReturn(new EventOccupancy(1L,
+                        SeatLayout.ofSeats(List.of(seat(10L, "A1"), seat(11L, "A2")))));
+        when(seatHoldService.canPurchase(any(), anyLong(), any()))
+                .thenReturn(true);
+    }
+
+    private PurchaseSequencer.PurchaseOrder order(Seat... seats) {
+        List<String> numbers = Arrays.stream(seats).map(Seat::getSeatNumber).toList();
+        List<Long> ids = Arrays.stream(seats).map(Seat::getId).toList();
+        return new PurchaseSequencer.PurchaseOrder(event, null, numbers, ids);
+    }
+
+    private Seat seat(Long id, String number) {
+        Seat seat = new Seat();
+        seat.setId(id);
+        seat.setEventId(1L);
+        seat.setSeatNumber(number);
+        return seat;
+    }
+
+    @Test
+    void process_sameSeatTwiceInBatch_shouldAcceptFirstOnly() throws Exception {
+        PurchaseSequencer.PurchaseOrder first = order(seat(10L, "A1"));
+        PurchaseSequencer.PurchaseOrder second = order(seat(10L, "A1"), seat(11L, "A2"));
+
+        purchaseSequencer.process(List.of(first, second));
+
+        ArgumentCaptor<List<Ticket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ticketService, times(1)).persistBatch(captor.capture());
+        assertEquals(1, captor.getValue().size());
+
+        assertEquals(1, first.result.get().size());
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> second.result.get());
+        assertInstanceOf(SeatConflictException.class, ex.getCause());
+    }
+
+    @Test
+    void process_sameSeatAtTwoEventsOfOneLayout_shouldAcceptBoth() throws Exception {
+        SeatLayout layout = SeatLayout.ofSeats(List.of(seat(10L, "A1"), seat(11L, "A2")));
+        Event other = new Event();
+        other.setId(2L);
+        when(seatOccupancyService.get(2L)).thenReturn(new EventOccupancy(2L, layout));
+
+        PurchaseSequencer.PurchaseOrder first = order(seat(10L, "A1"));
+        PurchaseSequencer.PurchaseOrder second =
+                new PurchaseSequencer.PurchaseOrder(other, null, List.of("A1"), List.of(10L));
+
+        purchaseSequencer.process(List.of(first, second));
+
+        ArgumentCaptor<List<Ticket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ticketService, times(1)).persistBatch(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(1, first.result.get().size());
+        assertEquals(1, second.result.get().size());
+    }
+
+    @Test
+    void process_ordersForDifferentSeats_shouldPersistInOneBatch() {
+        purchaseSequencer.process(List.of(order(seat(10L, "A1")), order(seat(11L, "A2"))));
+
+        ArgumentCaptor<List<Ticket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ticketService, times(1)).persistBatch(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    void process_batchRejectedByDb_shouldRetryOrdersOneByOne() {
+        doThrow(new DuplicateKeyException("dup")).when(ticketService).persistBatch(anyList());
+        when(ticketService.purchase(any(), any(), anyList())).thenReturn(List.of(new Ticket()));
+
+        PurchaseSequencer.PurchaseOrder a = order(seat(10L, "A1"));
+        PurchaseSequencer.PurchaseOrder b = order(seat(11L, "A2"));
+
+        purchaseSequencer.process(List.of(a, b));
+
+        verify(ticketService, times(2)).purchase(any(), any(), anyList());
+        assertTrue(a.result.isDone());
+        assertTrue(b.result.isDone());
+    }
+
+    @Test
+    void process_abandonedOrder_shouldBeSkipped() {
+        PurchaseSequencer.PurchaseOrder timedOut = order(seat(10L, "A1"));
+        assertTrue(timedOut.abandon());
+
+        purchaseSequencer.process(List.of(timedOut));
+
+        verify(ticketService, never()).persistBatch(anyList());
+    }
+
+    @Test
+    void process_claimedOrder_shouldNotBeAbandonedAnyMore() {
+        PurchaseSequencer.PurchaseOrder order = order(seat(10L, "A1"));
+
+        purchaseSequencer.process(List.of(order));
+
+        assertFalse(order.abandon());
+        assertTrue(order.result.isDone());
+        assertFalse(order.result.isCompletedExceptionally());
+    }
+}
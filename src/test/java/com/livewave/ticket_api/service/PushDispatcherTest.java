@@ -0,0 +1,185 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.PushStats;
+import com.livewave.ticket_api.model.OutboxMessage;
+import com.livewave.ticket_api.repository.OutboxRepository;
+import com.livewave.ticket_api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PushDispatcherTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    private PushDispatcher dispatcher;
+
+    // batch sizes the transport saw
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) dispatcher.stop();
+    }
+
+    private void start(PushTransport transport, int maxBatch, int maxAttempts) {
+        dispatcher = new PushDispatcher(transport, userRepository, outboxRepository, new ObjectMapper());
+        ReflectionTestUtils.setField(dispatcher, "maxBatch", maxBatch);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatcher, "lingerMs", 20L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 10L);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 1000);
+        dispatcher.start();
+    }
+
+    private PushTransport transport(PushOutcome... script) {
+        return new PushTransport() {
+            private int call;
+
+            @Override
+            public int maxBatchSize() {
+                return 500;
+            }
+
+            @Override
+            public synchronized List<PushOutcome> send(List<PushMessage> batch) throws Exception {
+                batchSizes.add(batch.size());
+                PushOutcome outcome = script[Math.min(call++, script.length - 1)];
+                if (outcome == null) throw new Exception("connection reset");
+                return Collections.nCopies(batch.size(), outcome);
+            }
+        };
+    }
+
+    private PushMessage message(String token) {
+        return new PushMessage(token, "title", "body", Map.of());
+    }
+
+    private PushStats await(Predicate<PushStats> done) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        PushStats stats = dispatcher.stats();
+        while (!done.test(stats) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            stats = dispatcher.stats();
+        }
+        return stats;
+    }
+
+    @Test
+    void submit_shouldGroupMessagesIntoBatchesUpToLimit() throws Exception {
+        start(transport(PushOutcome.SENT), 2, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(dispatcher.submit(message("t" + i)));
+        }
+
+        PushStats stats = await(s -> s.getSent() == 5);
+
+        assertEquals(5, stats.getSent());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 2));
+    }
+
+    @Test
+    void failedCall_shouldBeRetriedWithBackoff() throws Exception {
+        start(transport(null, PushOutcome.SENT), 10, 5);
+
+        dispatcher.submit(message("t"));
+
+        PushStats stats = await(s -> s.getSent() == 1);
+
+        assertEquals(1, stats.getSent());
+        assertEquals(1, stats.getRetried());
+    }
+
+    @Test
+    void transientFailures_shouldStopAfterMaxAttempts() throws Exception {
+        start(transport(PushOutcome.RETRY), 10, 3);
+
+        dispatcher.submit(message("t"));
+
+        PushStats stats = await(s -> s.getFailed() == 1);
+
+        assertEquals(1, stats.getFailed());
+        assertEquals(2, stats.getRetried());
+        assertEquals(3, batchSizes.size());
+    }
+
+    @Test
+    void invalidToken_shouldBeRemovedFromUser() throws Exception {
+        start(transport(PushOutcome.INVALID_TOKEN), 10, 5);
+
+        dispatcher.submit(message("stale"));
+
+        await(s -> s.getInvalidTokens() == 1);
+
+        verify(userRepository, timeout(1000)).clearFcmTokens(Set.of("stale"));
+    }
+
+    @Test
+    void submit_withoutToken_shouldBeRejected() {
+        start(transport(PushOutcome.SENT), 10, 5);
+
+        assertFalse(dispatcher.submit(message(" ")));
+    }
+
+    @Test
+    void fakeTransport_shouldDeliverLoadInBatches() throws Exception {
+        FakePushTransport fake = new FakePushTransport();
+        ReflectionTestUtils.setField(fake, "latencyMs", 0L);
+        start(fake, 500, 5);
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.submit(message("t" + i));
+        }
+        dispatcher.submit(message("invalid-1"));
+
+        PushStats stats = await(s -> s.getSent() == 100 && s.getInvalidTokens() == 1);
+
+        assertEquals(100, fake.delivered());
+        assertTrue(fake.calls() < 101);
+        assertEquals(1, stats.getInvalidTokens());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stop_withRetryPending_shouldSaveMessageToOutbox() throws Exception {
+        start(transport(PushOutcome.RETRY), 10, 5);
+        ReflectionTestUtils.setField(dispatcher, "backoffMs", 60_000L);
+
+        dispatcher.submit(message("t"));
+        await(s -> s.getWaitingRetry() == 1);
+
+        dispatcher.stop();
+        dispatcher = null;
+
+        ArgumentCaptor<List<OutboxMessage>> rows = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).insertAll(rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertEquals(OutboxMessage.Type.PUSH, rows.getValue().get(0).getType());
+        assertTrue(rows.getValue().get(0).getPayload().contains("\"token\":\"t\""));
+    }
+}
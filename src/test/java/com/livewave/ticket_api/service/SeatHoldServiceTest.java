@@ -0,0 +1,97 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.exception.NotFoundException;
+import com.livewave.ticket_api.exception.SeatConflictException;
+import com.livewave.ticket_api.model.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class SeatHoldServiceTest {
+
+    @Mock
+    private SeatLayoutService seatLayoutService;
+
+    @Mock
+    private SeatOccupancyService seatOccupancyService;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    private SeatHoldService seatHoldService;
+
+    private EventOccupancy occupancy;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        seatHoldService = new SeatHoldService(seatLayoutService, seatOccupancyService, webSocketService);
+        ReflectionTestUtils.setField(seatHoldService, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(seatHoldService, "maxSeats", 10);
+        ReflectionTestUtils.setField(seatHoldService, "holdRequired", true);
+
+        SeatLayout layout = SeatLayout.ofSeats(List.of(seat(10L, "A1"), seat(11L, "A2")));
+        occupancy = new EventOccupancy(1L, layout);
+        when(seatOccupancyService.get(1L)).thenReturn(occupancy);
+        when(seatLayoutService.forEvent(1L)).thenReturn(layout);
+    }
+
+    private Seat seat(Long id, String number) {
+        Seat seat = new Seat();
+        seat.setId(id);
+        seat.setEventId(1L);
+        seat.setSeatNumber(number);
+        return seat;
+    }
+
+    @Test
+    void hold_freeSeats_shouldMarkThemHeld() {
+        SeatHold hold = seatHoldService.hold(1L, List.of("A1", "A2"), "a@mail.com");
+
+        long now = System.currentTimeMillis();
+        assertTrue(occupancy.isHeld(10L, now));
+        assertTrue(occupancy.isHeld(11L, now));
+        assertTrue(seatHoldService.canPurchase(occupancy, 10L, "a@mail.com"));
+        assertFalse(seatHoldService.canPurchase(occupancy, 10L, "b@mail.com"));
+        assertEquals(List.of("A1", "A2"), hold.getSeatNumbers());
+    }
+
+    @Test
+    void hold_seatHeldByOther_shouldFailWithoutPartialHold() {
+        seatHoldService.hold(1L, List.of("A2"), "a@mail.com");
+
+        assertThrows(SeatConflictException.class,
+                () -> seatHoldService.hold(1L, List.of("A1", "A2"), "b@mail.com"));
+
+        assertFalse(occupancy.isHeld(10L, System.currentTimeMillis()));
+    }
+
+    @Test
+    void hold_bookedSeat_shouldFail() {
+        occupancy.markBooked(10L);
+
+        assertThrows(SeatConflictException.class,
+                () -> seatHoldService.hold(1L, List.of("A1"), "a@mail.com"));
+    }
+
+    @Test
+    void release_shouldFreeSeats() {
+        SeatHold hold = seatHoldService.hold(1L, List.of("A1"), "a@mail.com");
+
+        assertThrows(NotFoundException.class,
+                () -> seatHoldService.release(hold.getId(), "b@mail.com"));
+
+        seatHoldService.release(hold.getId(), "a@mail.com");
+
+        assertFalse(occupancy.isHeld(10L, System.currentTimeMillis()));
+        assertFalse(seatHoldService.canPurchase(occupancy, 10L, "a@mail.com"));
+    }
+}
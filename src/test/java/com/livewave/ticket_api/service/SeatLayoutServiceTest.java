@@ -0,0 +1,210 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.ZoneRange;
+import com.livewave.ticket_api.exception.BadRequestException;
+import com.livewave.ticket_api.model.LayoutSeat;
+import com.livewave.ticket_api.model.VenueLayout;
+import com.livewave.ticket_api.repository.EventRepository;
+import com.livewave.ticket_api.repository.LayoutSeatRepository;
+import com.livewave.ticket_api.repository.SeatRepository;
+import com.livewave.ticket_api.repository.VenueLayoutRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatLayoutServiceTest {
+
+    @Mock
+    private VenueLayoutRepository venueLayoutRepository;
+
+    @Mock
+    private LayoutSeatRepository layoutSeatRepository;
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeatLayoutService seatLayoutService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(venueLayoutRepository.save(any(VenueLayout.class)))
+                .thenAnswer(invocation -> {
+                    VenueLayout saved = invocation.getArgument(0);
+                    saved.setId(1L);
+                    return saved;
+                });
+    }
+
+    private LayoutSeat layoutSeat(Long id, String number) {
+        LayoutSeat seat = new LayoutSeat();
+        seat.setId(id);
+        seat.setLayoutId(5L);
+        seat.setSeatNumber(number);
+        return seat;
+    }
+
+    @Test
+    void createLayout_shouldGenerateSeatsWithZones() {
+
+        seatLayoutService.createLayout("Main", "Arena", 3, 4,
+                List.of(new ZoneRange("VIP", 1, 1)));
+
+        ArgumentCaptor<List<LayoutSeat>> captor =
+                ArgumentCaptor.forClass(List.class);
+
+        verify(layoutSeatRepository).insertAll(captor.capture());
+
+        List<LayoutSeat> seats = captor.getValue();
+
+        assertEquals(12, seats.size()); // 3 * 4
+        assertEquals("A1", seats.get(0).getSeatNumber());
+        assertEquals("VIP", seats.get(0).getZone());
+        assertEquals("C4", seats.get(11).getSeatNumber());
+        assertNull(seats.get(11).getZone());
+    }
+
+    @Test
+    void createLayout_shouldInsertInChunks() {
+
+        ReflectionTestUtils.setField(seatLayoutService, "chunkSize", 5);
+
+        seatLayoutService.createLayout("Main", "Arena", 3, 4, List.of());
+
+        ArgumentCaptor<List<LayoutSeat>> captor =
+                ArgumentCaptor.forClass(List.class);
+
+        verify(layoutSeatRepository, times(3)).insertAll(captor.capture());
+
+        assertEquals(List.of(5, 5, 2),
+                captor.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    void createLayout_tooManySeats_shouldThrowException() {
+
+        ReflectionTestUtils.setField(seatLayoutService, "maxSeats", 100L);
+
+        assertThrows(BadRequestException.class,
+                () -> seatLayoutService.createLayout("Main", "Arena", 11, 10, List.of()));
+    }
+
+    @Test
+    void findOrCreateGrid_existingLayout_shouldNotGenerateSeats() {
+
+        VenueLayout existing = new VenueLayout();
+        existing.setId(5L);
+
+        when(venueLayoutRepository.findByGridKey("Arena|5x10"))
+                .thenReturn(Optional.of(existing));
+
+        VenueLayout layout = seatLayoutService.findOrCreateGrid("Arena", 5, 10);
+
+        assertEquals(5L, layout.getId());
+        verifyNoInteractions(layoutSeatRepository);
+    }
+
+    @Test
+    void findOrCreateGrid_createdConcurrently_shouldReuseWinnersLayout() {
+
+        VenueLayout winner = new VenueLayout();
+        winner.setId(7L);
+
+        when(venueLayoutRepository.findByGridKey("Arena|5x10"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(venueLayoutRepository.save(any(VenueLayout.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate grid_key"));
+
+        VenueLayout layout = seatLayoutService.findOrCreateGrid("Arena", 5, 10);
+
+        assertEquals(7L, layout.getId());
+        verifyNoInteractions(layoutSeatRepository);
+    }
+
+    @Test
+    void forEvent_eventsOnSameLayout_shouldShareOneTemplate() {
+
+        when(eventRepository.findLayoutIdById(anyLong())).thenReturn(5L);
+        when(layoutSeatRepository.findByLayoutIdOrderByRowNumAscColNumAsc(5L))
+                .thenReturn(List.of(layoutSeat(100L, "A1"), layoutSeat(101L, "A2")));
+
+        SeatLayout first = seatLayoutService.forEvent(1L);
+        SeatLayout second = seatLayoutService.forEvent(2L);
+
+        assertSame(first, second);
+        assertEquals(101L, first.seatIdOf("A2"));
+        assertEquals(-1, first.positionOf("Z9"));
+        verify(layoutSeatRepository, times(1)).findByLayoutIdOrderByRowNumAscColNumAsc(5L);
+        verifyNoInteractions(seatRepository);
+    }
+
+    @Test
+    void forEvent_legacyEvent_shouldUseSeatRows() {
+
+        when(eventRepository.findLayoutIdById(1L)).thenReturn(null);
+        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(1L))
+                .thenReturn(List.of());
+
+        assertTrue(seatLayoutService.forEvent(1L).isEmpty());
+        verify(seatRepository).findByEventIdOrderByRowNumAscColNumAsc(1L);
+    }
+
+    @Test
+    void forEvent_eventWithoutHall_shouldBeRememberedUntilEvicted() {
+
+        when(eventRepository.findLayoutIdById(1L)).thenReturn(null);
+        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(1L)).thenReturn(List.of());
+        when(eventRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(seatLayoutService.forEvent(1L).isEmpty());
+        assertTrue(seatLayoutService.forEvent(1L).isEmpty());
+        verify(eventRepository, times(1)).findLayoutIdById(1L);
+
+        seatLayoutService.evictEvent(1L);
+        seatLayoutService.forEvent(1L);
+        verify(eventRepository, times(2)).findLayoutIdById(1L);
+    }
+
+    @Test
+    void forEvent_unknownEvent_shouldNotBeRemembered() {
+
+        when(eventRepository.findLayoutIdById(9L)).thenReturn(null);
+        when(seatRepository.findByEventIdOrderByRowNumAscColNumAsc(9L)).thenReturn(List.of());
+        when(eventRepository.existsById(9L)).thenReturn(false);
+
+        seatLayoutService.forEvent(9L);
+        seatLayoutService.forEvent(9L);
+
+        verify(eventRepository, times(2)).findLayoutIdById(9L);
+    }
+
+    @Test
+    void rowLabel_shouldContinuePastZ() {
+        assertEquals("A", SeatLayoutService.rowLabel(1));
+        assertEquals("Z", SeatLayoutService.rowLabel(26));
+        assertEquals("AA", SeatLayoutService.rowLabel(27));
+        assertEquals("AZ", SeatLayoutService.rowLabel(52));
+        assertEquals("BA", SeatLayoutService.rowLabel(53));
+    }
+}
@@ -0,0 +1,55 @@
+package com.livewave.ticket_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapCodecTest {
+
+    @Test
+    void encode_mostlyFreeHall_shouldUseRunLengthAndRoundTrip() {
+        byte[] states = new byte[10_000];
+        states[42] = SeatMapCodec.BOOKED;
+        states[43] = SeatMapCodec.HELD;
+
+        byte[] frame = SeatMapCodec.encode("L1", states);
+
+        assertEquals(SeatMapCodec.ENCODING_RLE, frame[1]);
+        assertTrue(frame.length < 32);
+        assertArrayEquals(states, SeatMapCodec.decode(frame));
+    }
+
+    @Test
+    void encode_fragmentedHall_shouldUseBitsetAndRoundTrip() {
+        byte[] states = new byte[1001];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = (byte) (i % 3);
+        }
+
+        byte[] frame = SeatMapCodec.encode("E7", states);
+
+        assertEquals(SeatMapCodec.ENCODING_BITSET, frame[1]);
+        assertEquals(3 + 2 + 4 + 251, frame.length);
+        assertArrayEquals(states, SeatMapCodec.decode(frame));
+    }
+
+    @Test
+    void encode_longRuns_shouldUseMultiByteVarints() {
+        byte[] states = new byte[70_000];
+        Arrays.fill(states, 20_000, 70_000, SeatMapCodec.BOOKED);
+
+        assertArrayEquals(states, SeatMapCodec.decode(SeatMapCodec.encode("L1", states)));
+    }
+
+    @Test
+    void isRequested_shouldMatchOnlyExplicitType() {
+        assertTrue(SeatMapCodec.isRequested("application/vnd.livewave.seatmap"));
+        assertTrue(SeatMapCodec.isRequested("application/json;q=0.5, application/vnd.livewave.seatmap"));
+        assertFalse(SeatMapCodec.isRequested("*/*"));
+        assertFalse(SeatMapCodec.isRequested("application/*"));
+        assertFalse(SeatMapCodec.isRequested("application/json"));
+        assertFalse(SeatMapCodec.isRequested(null));
+    }
+}
@@ -0,0 +1,216 @@
+package com.livewave.ticket_api.service;
+
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatMapDelta;
+import com.livewave.ticket_api.model.Seat;
+import com.livewave.ticket_api.repository.TicketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeatOccupancyServiceTest {
+
+    @Mock
+    private SeatLayoutService seatLayoutService;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @InjectMocks
+    private SeatOccupancyService seatOccupancyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private SeatLayout layout(Long... ids) {
+        List<Seat> seats = new ArrayList<>();
+        for (Long id : ids) {
+            Seat seat = new Seat();
+            seat.setId(id);
+            seat.setSeatNumber("S" + id);
+            seats.add(seat);
+        }
+        return SeatLayout.ofSeats(seats);
+    }
+
+    @Test
+    void get_shouldLoadBookedSeatsOnce() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(12L, 10L, 11L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of(10L));
+
+        EventOccupancy occupancy = seatOccupancyService.get(1L);
+        seatOccupancyService.get(1L);
+
+        assertEquals(3, occupancy.size());
+        assertEquals(1, occupancy.positionOf(10L));
+        assertTrue(occupancy.isBooked(10L));
+        assertFalse(occupancy.isBooked(11L));
+        assertFalse(occupancy.isBooked(99L));
+
+        verify(ticketRepository, times(1)).findBookedSeatIdsByEventId(1L);
+    }
+
+    @Test
+    void markBooked_shouldUpdateLoadedIndex() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L, 2L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of());
+
+        seatOccupancyService.get(1L);
+        seatOccupancyService.markBooked(1L, 2L);
+
+        assertTrue(seatOccupancyService.isBooked(1L, 2L));
+        assertEquals(1, seatOccupancyService.get(1L).bookedCount());
+    }
+
+    @Test
+    void markBooked_duringLoad_shouldNotBeLost() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L, 2L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L)).thenAnswer(invocation -> {
+            // the purchase commits after the tickets were read, before the index is installed
+            seatOccupancyService.markBooked(1L, 2L);
+            return List.of();
+        });
+
+        EventOccupancy occupancy = seatOccupancyService.get(1L);
+
+        assertTrue(occupancy.isBooked(2L));
+        assertSame(occupancy, seatOccupancyService.get(1L));
+    }
+
+    @Test
+    void evict_shouldReloadFromDb() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of());
+
+        seatOccupancyService.get(1L);
+        seatOccupancyService.evict(1L);
+        seatOccupancyService.get(1L);
+
+        verify(seatLayoutService).evictEvent(1L);
+        verify(ticketRepository, times(2)).findBookedSeatIdsByEventId(1L);
+    }
+
+    @Test
+    void seatMap_shouldCombineLayoutWithOccupancy() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L, 2L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of(2L));
+
+        List<SeatDto> seats = seatOccupancyService.seatMap(1L);
+
+        assertEquals(2, seats.size());
+        assertEquals("S1", seats.get(0).getSeatNumber());
+        assertEquals("available", seats.get(0).getStatus());
+        assertEquals("booked", seats.get(1).getStatus());
+    }
+
+    @Test
+    void seatMap_eventWithoutHall_shouldBeEmpty() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(SeatLayout.EMPTY);
+
+        assertTrue(seatOccupancyService.seatMap(1L).isEmpty());
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void bitmap_shouldHandleMoreThan64Seats() {
+        Long[] ids = new Long[130];
+        for (int i = 0; i < ids.length; i++) ids[i] = i + 1L;
+
+        EventOccupancy occupancy = new EventOccupancy(1L, layout(ids));
+
+        assertTrue(occupancy.markBooked(130L));
+        assertFalse(occupancy.markBooked(130L));
+        assertTrue(occupancy.isBookedAt(129));
+        assertFalse(occupancy.isBookedAt(65));
+    }
+
+    @Test
+    void changesSince_shouldReturnOnlySeatsChangedAfterVersion() {
+        EventOccupancy occupancy = new EventOccupancy(1L, layout(1L, 2L, 3L), 8);
+
+        occupancy.markBooked(1L);
+        long known = occupancy.getVersion();
+        occupancy.markBooked(3L);
+        occupancy.markBooked(3L); // no change, no version bump
+
+        EventOccupancy.Changes changes = occupancy.changesSince(known);
+
+        assertArrayEquals(new int[]{2}, changes.positions());
+        assertEquals(occupancy.getVersion(), changes.version());
+        assertEquals(0, occupancy.changesSince(occupancy.getVersion()).positions().length);
+    }
+
+    @Test
+    void changesSince_truncatedOrUnknownVersion_shouldReturnNull() {
+        EventOccupancy occupancy = new EventOccupancy(1L, layout(1L, 2L, 3L), 2);
+        long initial = occupancy.getVersion();
+
+        occupancy.markBooked(1L);
+        occupancy.markBooked(2L);
+        occupancy.markBooked(3L);
+
+        assertNull(occupancy.changesSince(initial));
+        assertNull(occupancy.changesSince(occupancy.getVersion() + 1));
+    }
+
+    @Test
+    void seatMapSince_shouldReturnDeltaOrFullSnapshot() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L, 2L, 3L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of(1L));
+
+        SeatMapDelta full = seatOccupancyService.seatMapSince(1L, null);
+        assertTrue(full.isFull());
+        assertEquals(3, full.getSeats().size());
+
+        seatOccupancyService.markBooked(1L, 3L);
+
+        SeatMapDelta delta = seatOccupancyService.seatMapSince(1L, full.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(1, delta.getSeats().size());
+        assertEquals("S3", delta.getSeats().get(0).getSeatNumber());
+        assertTrue(delta.getSeats().get(0).isBooked());
+        assertTrue(delta.getVersion() > full.getVersion());
+
+        assertTrue(seatOccupancyService.seatMapSince(1L, 0L).isFull());
+    }
+
+    @Test
+    void seatMap_hallReloadedInOtherOrder_shouldMapSeatsById() {
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(layout(1L, 2L, 3L))
+                .thenReturn(layout(3L, 1L, 2L));
+        when(ticketRepository.findBookedSeatIdsByEventId(1L))
+                .thenReturn(List.of(3L));
+
+        // builds the index on the first layout
+        seatOccupancyService.get(1L);
+
+        List<SeatDto> seats = seatOccupancyService.seatMap(1L);
+
+        assertEquals(3L, seats.get(0).getId());
+        assertTrue(seats.get(0).isBooked());
+        assertFalse(seats.get(1).isBooked());
+    }
+}
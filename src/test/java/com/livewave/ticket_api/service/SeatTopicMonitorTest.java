@@ -0,0 +1,59 @@
+package com.livewave.ticket_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatTopicMonitorTest {
+
+    private final SeatTopicMonitor monitor = new SeatTopicMonitor();
+
+    private Message<byte[]> frame(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, long eventId) {
+        monitor.onSubscribe(new SessionSubscribeEvent(this,
+                frame(SimpMessageType.SUBSCRIBE, sessionId, subscriptionId, "/topic/seats/" + eventId)));
+    }
+
+    @Test
+    void lastSubscriberGone_shouldForgetTopic() {
+        subscribe("s1", "sub-0", 1L);
+        subscribe("s2", "sub-0", 1L);
+        assertEquals(2, monitor.subscribers(1L));
+
+        monitor.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                frame(SimpMessageType.UNSUBSCRIBE, "s1", "sub-0", null)));
+        assertEquals(1, monitor.stats().size());
+
+        monitor.onDisconnect(new SessionDisconnectEvent(this,
+                frame(SimpMessageType.DISCONNECT, "s2", null, null), "s2", CloseStatus.NORMAL));
+        assertTrue(monitor.stats().isEmpty());
+    }
+
+    @Test
+    void lastSubscriberGone_framesQueued_shouldKeepTopicUntilDrained() {
+        subscribe("s1", "sub-0", 1L);
+        monitor.queued(1L);
+
+        monitor.onDisconnect(new SessionDisconnectEvent(this,
+                frame(SimpMessageType.DISCONNECT, "s1", null, null), "s1", CloseStatus.NORMAL));
+        assertEquals(1, monitor.stats().get(0).getQueued());
+
+        monitor.dequeued(1L);
+        assertTrue(monitor.stats().isEmpty());
+    }
+}
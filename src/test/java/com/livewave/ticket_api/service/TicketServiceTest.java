@@ -1,9 +1,12 @@
 package com.livewave.ticket_api.service;
 
+import com.livewave.ticket_api.exception.SeatConflictException;
 import com.livewave.ticket_api.model.Event;
+import com.livewave.ticket_api.model.Seat;
 import com.livewave.ticket_api.model.Ticket;
 import com.livewave.ticket_api.model.User;
 import com.livewave.ticket_api.repository.TicketRepository;
+import com.livewave.ticket_api.scheduler.NotificationScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,6 +15,8 @@ import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,7 +27,19 @@ class TicketServiceTest {
     private TicketRepository ticketRepository;
 
     @Mock
-    private NotificationService notificationService;
+    private SeatLayoutService seatLayoutService;
+
+    @Mock
+    private NotificationScheduler notificationScheduler;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private SeatOccupancyService seatOccupancyService;
+
+    @Mock
+    private SeatHoldService seatHoldService;
 
     @InjectMocks
     private TicketService ticketService;
@@ -114,11 +131,14 @@ class TicketServiceTest {
 
         when(ticketRepository.save(any(Ticket.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        PushMessage reminder = new PushMessage("any-token", "title", "body", Map.of());
+        when(notificationScheduler.instantReminder(ticket)).thenReturn(Optional.of(reminder));
 
         ticketService.save(ticket);
 
         assertTrue(ticket.isReminderSent());
         verify(ticketRepository, atLeastOnce()).save(ticket);
+        verify(outboxService).push(any(), anyString(), eq(reminder));
     }
 
     // ===============================
@@ -187,4 +207,82 @@ class TicketServiceTest {
 
         assertNotNull(result);
     }
-}
\ No newline at end of file
+
+    // ===============================
+    // bulk purchase
+    // ===============================
+
+    private Seat seat(Long id, String number) {
+        Seat seat = new Seat();
+        seat.setId(id);
+        seat.setEventId(1L);
+        seat.setSeatNumber(number);
+        return seat;
+    }
+
+    @Test
+    void purchase_allSeatsFree_shouldInsertAllInOneBatch() {
+
+        Event event = new Event();
+        event.setId(1L);
+
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(SeatLayout.ofSeats(List.of(seat(10L, "A1"), seat(11L, "A2"))));
+        when(ticketRepository.findBookedSeatIds(eq(1L), anyCollection()))
+                .thenReturn(List.of());
+        when(seatHoldService.canPurchase(any(), anyLong(), any()))
+                .thenReturn(true);
+
+        List<Ticket> result = ticketService.purchase(event, null, List.of("A1", "A2"));
+
+        assertEquals(2, result.size());
+        verify(ticketRepository, times(1)).insertAll(anyList());
+        verify(outboxService, times(2)).seatBooked(any(Ticket.class));
+        verify(outboxService, times(1)).append(anyList());
+        verify(seatOccupancyService).markBooked(1L, 10L);
+        verify(seatOccupancyService).markBooked(1L, 11L);
+    }
+
+    @Test
+    void purchase_oneSeatTaken_shouldInsertNothing() {
+
+        Event event = new Event();
+        event.setId(1L);
+
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(SeatLayout.ofSeats(List.of(seat(10L, "A1"), seat(11L, "A2"))));
+        when(ticketRepository.findBookedSeatIds(eq(1L), anyCollection()))
+                .thenReturn(List.of(11L));
+        when(seatHoldService.canPurchase(any(), anyLong(), any()))
+                .thenReturn(true);
+
+        SeatConflictException ex = assertThrows(SeatConflictException.class,
+                () -> ticketService.purchase(event, null, List.of("A1", "A2", "Z9")));
+
+        assertEquals(List.of("A2", "Z9"), ex.getSeats());
+        verify(ticketRepository, never()).insertAll(anyList());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void purchase_seatNotHeldByBuyer_shouldInsertNothing() {
+
+        Event event = new Event();
+        event.setId(1L);
+
+        User buyer = new User();
+        buyer.setEmail("buyer@mail.com");
+
+        when(seatLayoutService.forEvent(1L))
+                .thenReturn(SeatLayout.ofSeats(List.of(seat(10L, "A1"))));
+        when(ticketRepository.findBookedSeatIds(eq(1L), anyCollection()))
+                .thenReturn(List.of());
+        when(seatHoldService.canPurchase(any(), eq(10L), eq("buyer@mail.com")))
+                .thenReturn(false);
+
+        assertThrows(SeatConflictException.class,
+                () -> ticketService.purchase(event, buyer, List.of("A1")));
+
+        verify(ticketRepository, never()).insertAll(anyList());
+    }
+}
@@ -251,4 +251,19 @@ class UserServiceTest {
         verify(userRepository).save(user);
     }
 
-}
\ No newline at end of file
+    @Test
+    void updateFcmTokenById_shouldUpdateWithoutLoadingUser() {
+        when(userRepository.updateFcmToken(1L, "fcm123")).thenReturn(1);
+
+        userService.updateFcmToken(1L, "fcm123");
+
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateFcmTokenById_unknownUser_shouldThrow() {
+        when(userRepository.updateFcmToken(1L, "fcm123")).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.updateFcmToken(1L, "fcm123"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.livewave.ticket_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.livewave.ticket_api.dto.SeatDto;
+import com.livewave.ticket_api.dto.SeatUpdateReplay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WebSocketServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WebSocketService webSocketService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        webSocketService = new WebSocketService(messagingTemplate, objectMapper);
+        // long window: the test flushes by hand
+        ReflectionTestUtils.setField(webSocketService, "windowMs", 60_000L);
+        webSocketService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webSocketService.stop();
+    }
+
+    private SeatDto seat(Long id, boolean booked, boolean held) {
+        return new SeatDto(id, 1L, null, 0, 0, booked, held);
+    }
+
+    @Test
+    void sendSeatUpdate_shouldCoalesceOneEventIntoOneFrame() throws Exception {
+
+        webSocketService.sendSeatUpdate(1L, seat(10L, false, true));
+        webSocketService.sendSeatUpdate(1L, seat(11L, false, true));
+        webSocketService.sendSeatUpdate(1L, seat(10L, true, false));
+
+        verifyNoInteractions(messagingTemplate);
+
+        webSocketService.flushAll();
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(1)).send(eq("/topic/seats/1"), captor.capture());
+
+        JsonNode frame = objectMapper.readTree((byte[]) captor.getValue().getPayload());
+        JsonNode seats = frame.get("seats");
+
+        assertEquals(2, seats.size());
+        // seat 10 changed last, so it comes last with its latest state
+        assertEquals(11L, seats.get(0).get("id").asLong());
+        assertEquals(10L, seats.get(1).get("id").asLong());
+        assertTrue(seats.get(1).get("booked").asBoolean());
+
+        assertEquals(3, webSocketService.stats().getUpdates());
+        assertEquals(1, webSocketService.stats().getCoalesced());
+        assertEquals(1, webSocketService.stats().getBatches());
+        assertEquals(2, webSocketService.stats().getMaxBatchSize());
+    }
+
+    @Test
+    void sendSeatUpdate_fullBatch_shouldFlushBeforeWindowEnds() {
+
+        ReflectionTestUtils.setField(webSocketService, "maxBatch", 2);
+
+        webSocketService.sendSeatUpdate(1L, seat(10L, true, false));
+        webSocketService.sendSeatUpdate(1L, seat(11L, true, false));
+
+        verify(messagingTemplate, timeout(1000)).send(eq("/topic/seats/1"), any(Message.class));
+    }
+
+    @Test
+    void sendSeatUpdate_differentEvents_shouldGoToTheirOwnTopics() {
+
+        webSocketService.sendSeatUpdate(1L, seat(10L, true, false));
+        webSocketService.sendSeatUpdate(2L, seat(20L, true, false));
+
+        webSocketService.flushAll();
+
+        verify(messagingTemplate).send(eq("/topic/seats/1"), any(Message.class));
+        verify(messagingTemplate).send(eq("/topic/seats/2"), any(Message.class));
+    }
+
+    private long firstFrame(Long eventId) {
+        webSocketService.sendSeatUpdate(eventId, seat(9L, true, false));
+        webSocketService.flushAll();
+        return webSocketService.currentSeq(eventId);
+    }
+
+    @Test
+    void replay_shouldReturnFramesAfterSequence() {
+
+        long start = firstFrame(1L);
+
+        webSocketService.sendSeatUpdate(1L, seat(10L, true, false));
+        webSocketService.flushAll();
+        webSocketService.sendSeatUpdate(1L, seat(11L, true, false));
+        webSocketService.flushAll();
+
+        assertEquals(start + 2, webSocketService.currentSeq(1L));
+
+        SeatUpdateReplay replay = webSocketService.replay(1L, start + 1);
+
+        assertFalse(replay.isFull());
+        assertEquals(start + 2, replay.getSeq());
+        assertEquals(1, replay.getUpdates().size());
+        assertEquals(11L, replay.getUpdates().get(0).getSeats().get(0).getId());
+
+        assertTrue(webSocketService.replay(1L, start + 2).getUpdates().isEmpty());
+    }
+
+    @Test
+    void replay_sequenceOutOfRing_shouldReturnNull() {
+
+        ReflectionTestUtils.setField(webSocketService, "replaySize", 1);
+        long start = firstFrame(1L);
+
+        webSocketService.sendSeatUpdate(1L, seat(10L, true, false));
+        webSocketService.flushAll();
+        webSocketService.sendSeatUpdate(1L, seat(11L, true, false));
+        webSocketService.flushAll();
+
+        assertNull(webSocketService.replay(1L, start));
+        assertNotNull(webSocketService.replay(1L, start + 1));
+        // not from this stream (e.g. before a restart)
+        assertNull(webSocketService.replay(1L, start + 5));
+    }
+
+    @Test
+    void readsWithoutFrames_shouldNotCreateLogs() {
+
+        assertEquals(0, webSocketService.currentSeq(5L));
+        assertNull(webSocketService.replay(5L, 0));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(webSocketService, "logs")).isEmpty());
+    }
+
+    @Test
+    void forget_shouldDropReplayFrames() {
+
+        long start = firstFrame(1L);
+
+        webSocketService.forget(1L);
+
+        assertNull(webSocketService.replay(1L, start));
+    }
+
+    @Test
+    void dropIdleLogs_shouldForgetEventsWithoutRecentFrames() {
+
+        long start = firstFrame(1L);
+        firstFrame(2L);
+
+        // event 1 went quiet two idle periods ago
+        Map<?, ?> logs = (Map<?, ?>) ReflectionTestUtils.getField(webSocketService, "logs");
+        ReflectionTestUtils.setField(logs.get(1L), "lastAppendAt", System.currentTimeMillis() - 7_200_000);
+        ReflectionTestUtils.invokeMethod(webSocketService, "dropIdleLogs");
+
+        assertNull(webSocketService.replay(1L, start));
+        assertNotNull(webSocketService.replay(2L, webSocketService.currentSeq(2L)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.livewave.ticket_api.sftp;
+
+import com.livewave.ticket_api.config.JwtFilter;
+import com.livewave.ticket_api.config.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FileTransferController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class FileTransferControllerTest {
+
+    private static final String PATH = "/upload/banner.jpg";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final RemoteFile FILE = new RemoteFile(PATH, CONTENT.length, 1_700_000_000_000L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SftpService sftpService;
+
+    @MockBean
+    private ImageDerivativeService imageDerivativeService;
+
+    @MockBean
+    private JwtFilter jwtFilter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(sftpService.stat(PATH)).thenReturn(FILE);
+
+        // serves the requested slice, like the real SFTP read loop
+        doAnswer(invocation -> {
+            long offset = invocation.getArgument(1);
+            long length = invocation.getArgument(2);
+            OutputStream out = invocation.getArgument(3);
+            out.write(CONTENT, (int) offset, (int) length);
+            return null;
+        }).when(sftpService).download(eq(PATH), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void download_shouldStreamWholeFileWithValidators() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, FILE.etag()))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void download_withRange_shouldReturnPartialContent() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH)
+                        .header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(content().string("456789"));
+
+        verify(sftpService).download(eq(PATH), eq(4L), eq(6L), any());
+    }
+
+    @Test
+    void download_withStaleIfRange_shouldReturnWholeFile() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH)
+                        .header(HttpHeaders.RANGE, "bytes=4-")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void download_withMatchingIfNoneMatch_shouldReturnNotModified() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH)
+                        .header(HttpHeaders.IF_NONE_MATCH, FILE.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, FILE.etag()));
+
+        verify(sftpService, never()).download(anyString(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void download_rangeBeyondEnd_shouldReturn416() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH)
+                        .header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void download_withSize_shouldServeResolvedVariant() throws Exception {
+        String cardPath = ImageVariant.CARD.pathFor(PATH);
+        when(imageDerivativeService.resolve(PATH, ImageVariant.CARD)).thenReturn(cardPath);
+        when(sftpService.stat(cardPath)).thenReturn(new RemoteFile(cardPath, 3, 1_700_000_000_000L));
+
+        mockMvc.perform(get("/files/download").param("path", PATH).param("size", "card"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"banner.card.jpg\""));
+
+        verify(sftpService).download(eq(cardPath), eq(0L), eq(3L), any());
+    }
+
+    @Test
+    void download_withUnknownSize_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/files/download").param("path", PATH).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,155 @@
+package com.livewave.ticket_api.sftp;
+
+import com.livewave.ticket_api.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageDerivativeServiceTest {
+
+    private static final String PATH = "/upload/abc_poster.png";
+
+    @Mock
+    private SftpService sftpService;
+
+    @InjectMocks
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void generate_shouldStoreEveryVariantNextToOriginal() throws Exception {
+        Map<String, BufferedImage> stored = generate(PATH, png(2000, 1000));
+
+        assertEquals(3, stored.size());
+        assertEquals(200, stored.get("/upload/abc_poster.thumbnail.jpg").getWidth());
+        assertEquals(100, stored.get("/upload/abc_poster.thumbnail.jpg").getHeight());
+        assertEquals(600, stored.get("/upload/abc_poster.card.jpg").getWidth());
+        assertEquals(1280, stored.get("/upload/abc_poster.banner.jpg").getWidth());
+        verify(sftpService, never()).upload(anyString(), any());
+    }
+
+    @Test
+    void generate_originalOutsideRemoteDir_shouldStoreVariantsWhereResolveLooks() throws Exception {
+        String path = "/archive//2023/abc_poster.png";
+
+        Map<String, BufferedImage> stored = generate(path, png(800, 400));
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertTrue(stored.containsKey(variant.pathFor(path)), variant + " stored at " + stored.keySet());
+        }
+    }
+
+    private Map<String, BufferedImage> generate(String path, byte[] original) throws Exception {
+        when(sftpService.stat(path)).thenReturn(new RemoteFile(path, original.length, 1L));
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(original);
+            return null;
+        }).when(sftpService).download(eq(path), anyLong(), anyLong(), any());
+
+        Map<String, BufferedImage> stored = new HashMap<>();
+        when(sftpService.write(anyString(), any())).thenAnswer(invocation -> {
+            stored.put(invocation.getArgument(0), ImageIO.read(invocation.<InputStream>getArgument(1)));
+            return invocation.getArgument(0);
+        });
+
+        service.generate(path);
+        return stored;
+    }
+
+    @Test
+    void resize_smallerThanTarget_shouldNotUpscale() throws Exception {
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(png(150, 90)));
+
+        BufferedImage resized = ImageDerivativeService.resize(small, Math.min(ImageVariant.CARD.width(), small.getWidth()));
+
+        assertEquals(150, resized.getWidth());
+        assertEquals(90, resized.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, resized.getType());
+    }
+
+    @Test
+    void resolve_variantStored_shouldBeRememberedWithoutFurtherStats() throws Exception {
+        String cardPath = ImageVariant.CARD.pathFor(PATH);
+        when(sftpService.stat(cardPath)).thenReturn(new RemoteFile(cardPath, 1, 1L));
+
+        assertEquals("/upload/abc_poster.card.jpg", service.resolve(PATH, ImageVariant.CARD));
+        assertEquals("/upload/abc_poster.card.jpg", service.resolve(PATH, ImageVariant.CARD));
+        assertEquals("/upload/abc_poster.thumbnail.jpg", service.resolve(PATH, ImageVariant.THUMBNAIL));
+
+        verify(sftpService, times(1)).stat(anyString());
+    }
+
+    @Test
+    void resolve_variantMissing_shouldFallBackToOriginalAndQueueGenerationOnce() throws Exception {
+        when(sftpService.stat(anyString())).thenThrow(new NotFoundException("missing"));
+
+        assertEquals(PATH, service.resolve(PATH, ImageVariant.THUMBNAIL));
+        assertEquals(PATH, service.resolve(PATH, ImageVariant.CARD));
+
+        // the generation job reads the original
+        verify(sftpService, timeout(1000)).stat(PATH);
+        verify(sftpService, times(1)).stat(ImageVariant.THUMBNAIL.pathFor(PATH));
+        verify(sftpService, never()).stat(ImageVariant.CARD.pathFor(PATH));
+    }
+
+    @Test
+    void resolve_afterFailedGeneration_shouldQueueItAgainOnceRetryIsDue() throws Exception {
+        when(sftpService.stat(PATH)).thenThrow(new NotFoundException("missing"));
+        service.generate(PATH);
+
+        assertEquals(PATH, service.resolve(PATH, ImageVariant.CARD));
+        verify(sftpService, times(1)).stat(PATH);
+
+        ReflectionTestUtils.setField(service, "retryMs", 0L);
+
+        assertEquals(PATH, service.resolve(PATH, ImageVariant.CARD));
+        verify(sftpService, timeout(1000).times(2)).stat(PATH);
+        verify(sftpService, never()).stat(ImageVariant.CARD.pathFor(PATH));
+    }
+
+    @Test
+    void resolve_notAnImage_shouldReturnPathWithoutStat() throws Exception {
+        assertEquals("/upload/ticket.pdf", service.resolve("/upload/ticket.pdf", ImageVariant.CARD));
+        verifyNoInteractions(sftpService);
+    }
+
+    @Test
+    void isImage_shouldMatchImageExtensionsOnly() {
+        assertTrue(ImageDerivativeService.isImage("/upload/a.JPG"));
+        assertTrue(ImageDerivativeService.isImage("/upload/a.png"));
+        assertFalse(ImageDerivativeService.isImage("/upload/ticket.pdf"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.livewave.ticket_api.sftp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SftpDiskCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private SftpDiskCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new SftpDiskCache();
+        ReflectionTestUtils.setField(cache, "dir", dir.toString());
+        ReflectionTestUtils.setField(cache, "maxBytes", 20L);
+        ReflectionTestUtils.setField(cache, "maxFileBytes", 10L);
+        cache.init();
+    }
+
+    private SftpDiskCache.Entry put(String path, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        SftpDiskCache.Writer writer = cache.writer();
+        writer.write(bytes, 0, bytes.length);
+        return cache.commit(writer, new RemoteFile(path, bytes.length, 1000L));
+    }
+
+    private String read(SftpDiskCache.Entry entry, long offset, long length) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(cache.transfer(entry, offset, length, out));
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void commit_thenLookup_shouldServeRangeFromDisk() throws Exception {
+        put("/upload/a.jpg", "0123456789");
+
+        SftpDiskCache.Entry entry = cache.lookup("/upload/a.jpg");
+
+        assertNotNull(entry);
+        assertEquals("3456", read(entry, 3, 4));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(4, cache.stats().getBytesServed());
+    }
+
+    @Test
+    void commit_overBudget_shouldEvictLeastRecentlyUsed() {
+        put("/upload/a.jpg", "aaaaaaaa");
+        put("/upload/b.jpg", "bbbbbbbb");
+        cache.lookup("/upload/a.jpg");
+
+        put("/upload/c.jpg", "cccccccc");
+
+        assertNotNull(cache.peek("/upload/a.jpg"));
+        assertNull(cache.peek("/upload/b.jpg"));
+        assertNotNull(cache.peek("/upload/c.jpg"));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(16, cache.stats().getBytes());
+    }
+
+    @Test
+    void commit_shortCopyOrTooLarge_shouldBeRejected() {
+        SftpDiskCache.Writer shortCopy = cache.writer();
+        shortCopy.write(new byte[5], 0, 5);
+        assertNull(cache.commit(shortCopy, new RemoteFile("/upload/short.jpg", 8, 1000L)));
+
+        assertNull(put("/upload/big.jpg", "0123456789ABC"));
+
+        assertNull(cache.lookup("/upload/short.jpg"));
+        assertEquals(2, cache.stats().getRejected());
+        assertEquals(0, cache.stats().getFiles());
+    }
+
+    @Test
+    void lookup_copyChangedOnDisk_shouldDropIt() throws Exception {
+        SftpDiskCache.Entry entry = put("/upload/a.jpg", "0123456789");
+        Files.write(entry.file(), new byte[]{1}, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertNull(cache.lookup("/upload/a.jpg"));
+        assertFalse(Files.exists(entry.file()));
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void transfer_afterEviction_shouldReportMissingCopy() throws Exception {
+        SftpDiskCache.Entry entry = put("/upload/a.jpg", "0123456789");
+        cache.invalidate("/upload/a.jpg");
+
+        assertFalse(cache.transfer(entry, 0, 10, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void peek_afterRevalidateWindow_shouldReturnNull() {
+        put("/upload/a.jpg", "0123456789");
+        assertNotNull(cache.peek("/upload/a.jpg"));
+
+        ReflectionTestUtils.setField(cache, "revalidateMs", 0L);
+
+        assertNull(cache.peek("/upload/a.jpg"));
+    }
+
+    @Test
+    void revalidate_changedOnServer_shouldDropCopy() {
+        SftpDiskCache.Entry entry = put("/upload/a.jpg", "0123456789");
+
+        cache.revalidate(new RemoteFile("/upload/a.jpg", 10, 2000L));
+
+        assertNull(cache.lookup("/upload/a.jpg"));
+        assertFalse(Files.exists(entry.file()));
+        assertEquals(0, cache.stats().getBytes());
+    }
+
+    @Test
+    void revalidate_unchanged_shouldKeepCopy() {
+        put("/upload/a.jpg", "0123456789");
+
+        cache.revalidate(new RemoteFile("/upload/a.jpg", 10, 1000L));
+
+        assertNotNull(cache.peek("/upload/a.jpg"));
+        assertNotNull(cache.lookup("/upload/a.jpg"));
+    }
+
+    @Test
+    void transfer_copyShorterThanAdmitted_shouldThrow() throws Exception {
+        SftpDiskCache.Entry entry = put("/upload/a.jpg", "0123456789");
+        Files.write(entry.file(), new byte[]{1, 2, 3}, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertThrows(IOException.class, () -> cache.transfer(entry, 0, 10, new ByteArrayOutputStream()));
+        assertNull(cache.peek("/upload/a.jpg"));
+    }
+}